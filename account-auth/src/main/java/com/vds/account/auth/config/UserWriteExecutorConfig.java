@@ -0,0 +1,36 @@
+package com.vds.account.auth.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Pool saving users once their password is hashed, so blocking JDBC calls never run on the hashing pool.
+ *
+ *  The queue isn't bounded on its own: work only arrives through the bounded hashing queue, which sheds load first.
+ **/
+@Configuration
+public class UserWriteExecutorConfig {
+
+	/**
+	 *  @param threads - amount of threads saving users, best kept at the size of the connection pool
+	 *  @return ExecutorService instance
+	 **/
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService userWriteExecutor(@Value("${security.user-writes.threads:10}") int threads) {
+		AtomicInteger counter = new AtomicInteger();
+		ThreadFactory threadFactory = task -> {
+			Thread thread = new Thread(task, "user-writer-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+	}
+}
@@ -0,0 +1,98 @@
+package com.vds.account.auth.config.security;
+
+import com.vds.account.auth.repository.StoredAccessTokenRepository;
+import com.vds.account.auth.repository.StoredRefreshTokenRepository;
+import com.vds.account.auth.service.security.NearCachingTokenStore;
+import com.vds.account.auth.service.security.PersistentTokenStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+import org.springframework.security.oauth2.provider.token.store.InMemoryTokenStore;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+/**
+ *  Defines how issued tokens are stored and verified.
+ *
+ *  By default tokens are opaque values kept in memory, so each resource server has to resolve them through
+ *  /users/current. With security.token-store.type=jdbc opaque tokens are kept in the database instead and can be
+ *  shared by several instances. With security.token-mode=jwt tokens are signed self-contained JWTs and resource
+ *  servers verify them locally with the public key published by the token_key endpoint.
+ **/
+@Configuration
+public class TokenStoreConfig {
+
+    /**
+     *  Signs issued tokens with a key pair loaded from a key store or, when no key store is configured,
+     *  with a key pair generated on startup. A generated key pair changes on each restart, so all instances behind
+     *  the gateway must share a key store once more than one instance is running.
+     *  @param keyStore - optional key store with the signing key pair
+     *  @param keyStorePassword - password of the key store
+     *  @param keyAlias - alias of the key pair inside the key store
+     *  @return JwtAccessTokenConverter instance
+     *  @throws NoSuchAlgorithmException if RSA keys can't be generated
+     **/
+    @Bean
+    @ConditionalOnProperty(name = "security.token-mode", havingValue = "jwt")
+    public JwtAccessTokenConverter accessTokenConverter(@Value("${security.jwt.key-store:}") Resource keyStore,
+                                                        @Value("${security.jwt.key-store-password:}") String keyStorePassword,
+                                                        @Value("${security.jwt.key-alias:account-auth}") String keyAlias)
+            throws NoSuchAlgorithmException {
+        KeyPair keyPair;
+        if (keyStore != null && keyStore.exists()) {
+            keyPair = new KeyStoreKeyFactory(keyStore, keyStorePassword.toCharArray()).getKeyPair(keyAlias);
+        } else {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            keyPair = generator.generateKeyPair();
+        }
+        JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+        converter.setKeyPair(keyPair);
+        return converter;
+    }
+
+    /**
+     *  Returns a JWT backed token store when tokens are signed. Opaque tokens are kept either in the database
+     *  behind a near cache or in memory.
+     *  @param accessTokenConverter - converter of signed tokens, if any
+     *  @param accessTokenRepository - repository of persisted access tokens
+     *  @param refreshTokenRepository - repository of persisted refresh tokens
+     *  @param meterRegistry - registry the near cache statistics are published to
+     *  @param storeType - memory or jdbc
+     *  @param nearCacheMaximumSize - max amount of tokens cached in front of the database
+     *  @param nearCacheTtlSeconds - how long a token is served from the near cache
+     *  @return TokenStore instance
+     **/
+    @Bean
+    public TokenStore tokenStore(ObjectProvider<JwtAccessTokenConverter> accessTokenConverter,
+                                 StoredAccessTokenRepository accessTokenRepository,
+                                 StoredRefreshTokenRepository refreshTokenRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${security.token-store.type:memory}") String storeType,
+                                 @Value("${security.token-store.near-cache-maximum-size:10000}") long nearCacheMaximumSize,
+                                 @Value("${security.token-store.near-cache-ttl-seconds:30}") long nearCacheTtlSeconds) {
+        JwtAccessTokenConverter converter = accessTokenConverter.getIfAvailable();
+        if (converter != null) {
+            return new JwtTokenStore(converter);
+        }
+        if ("jdbc".equals(storeType)) {
+            NearCachingTokenStore tokenStore = new NearCachingTokenStore(
+                    new PersistentTokenStore(accessTokenRepository, refreshTokenRepository),
+                    nearCacheMaximumSize, Duration.ofSeconds(nearCacheTtlSeconds));
+            tokenStore.bindTo(meterRegistry);
+            return tokenStore;
+        }
+        return new InMemoryTokenStore();
+    }
+}
@@ -0,0 +1,39 @@
+package com.vds.account.auth.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ *  Custom Exception handler class. Used automatically by Spring when some request can't be processed.
+ **/
+@ControllerAdvice
+public class ErrorHandler {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	/**
+	 *  Logs bad request situation registered on server.
+	 *  @param e - instance of IllegalArgumentException
+	 **/
+	@ExceptionHandler(IllegalArgumentException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public void processValidationError(IllegalArgumentException e) {
+		log.info("Returning HTTP 400 Bad Request", e);
+	}
+
+	/**
+	 *  Logs rejected request when the password hashing pool is saturated. The client is expected to retry later.
+	 *  @param e - instance of RejectedExecutionException
+	 **/
+	@ExceptionHandler(RejectedExecutionException.class)
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public void processOverload(RejectedExecutionException e) {
+		log.warn("Returning HTTP 503 Service Unavailable: {}", e.getMessage());
+	}
+}
@@ -1,6 +1,7 @@
 package com.vds.account.auth.controller;
 
 import com.vds.account.auth.domain.User;
+import com.vds.account.auth.domain.UserCreationResult;
 import com.vds.account.auth.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -11,6 +12,8 @@ import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/users")
@@ -26,7 +29,13 @@ public class UserController {
 
 	@PreAuthorize("#oauth2.hasScope('server')")
 	@RequestMapping(method = RequestMethod.POST)
-	public void createUser(@Valid @RequestBody User user) {
-		userService.create(user);
+	public CompletableFuture<Void> createUser(@Valid @RequestBody User user) {
+		return userService.create(user).thenApply(created -> null);
+	}
+
+	@PreAuthorize("#oauth2.hasScope('server')")
+	@RequestMapping(value = "/batch", method = RequestMethod.POST)
+	public List<UserCreationResult> createUsers(@RequestBody List<User> users) {
+		return userService.createAll(users);
 	}
 }
@@ -0,0 +1,65 @@
+package com.vds.account.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.util.Date;
+
+/**
+ *  Persisted access token. Rows are keyed and looked up by the hash of the token value, but the serialized token,
+ *  value and refresh token value included, is kept as well, since a token is handed out again to an authentication
+ *  which already has one. Whoever can read the table can use the tokens, so access to it is restricted like access
+ *  to credentials.
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Entity
+@Table(name = "oauth_access_token", indexes = {
+		@Index(name = "idx_access_token_authentication", columnList = "authentication_id"),
+		@Index(name = "idx_access_token_client_user", columnList = "client_id,user_name"),
+		@Index(name = "idx_access_token_refresh_token", columnList = "refresh_token_id"),
+		@Index(name = "idx_access_token_expires_at", columnList = "expires_at")
+})
+public class StoredAccessToken {
+
+	@Id
+	@Column(name = "token_id", length = 64)
+	private String tokenId;
+
+	/**
+	 *  Serialized OAuth2AccessToken, holds the bearer value in clear.
+	 **/
+	@Lob
+	@Column(name = "token")
+	private byte[] token;
+
+	@Column(name = "authentication_id", length = 64)
+	private String authenticationId;
+
+	@Column(name = "user_name")
+	private String userName;
+
+	@Column(name = "client_id")
+	private String clientId;
+
+	@Lob
+	@Column(name = "authentication")
+	private byte[] authentication;
+
+	@Column(name = "refresh_token_id", length = 64)
+	private String refreshTokenId;
+
+	@Column(name = "expires_at")
+	private Date expiresAt;
+
+}
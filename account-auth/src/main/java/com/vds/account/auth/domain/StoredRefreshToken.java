@@ -0,0 +1,48 @@
+package com.vds.account.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.util.Date;
+
+/**
+ *  Persisted refresh token. Rows are keyed and looked up by the hash of the token value, but the serialized token,
+ *  value included, is kept as well, so access to the table is restricted like access to credentials.
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+@Entity
+@Table(name = "oauth_refresh_token", indexes = {
+		@Index(name = "idx_refresh_token_expires_at", columnList = "expires_at")
+})
+public class StoredRefreshToken {
+
+	@Id
+	@Column(name = "token_id", length = 64)
+	private String tokenId;
+
+	/**
+	 *  Serialized OAuth2RefreshToken, holds the token value in clear.
+	 **/
+	@Lob
+	@Column(name = "token")
+	private byte[] token;
+
+	@Lob
+	@Column(name = "authentication")
+	private byte[] authentication;
+
+	@Column(name = "expires_at")
+	private Date expiresAt;
+
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -24,8 +26,17 @@ import java.util.List;
 @Table(name = "user")
 public class User implements UserDetails {
 
+	/**
+	 *  Ids are taken from the existing hibernate_sequence in blocks of 50 (pooled-lo), so inserting users needs one
+	 *  sequence round-trip per 50 rows and inserts can be sent in JDBC batches.
+	 **/
 	@Id
-	@GeneratedValue(strategy = GenerationType.SEQUENCE)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id")
+	@GenericGenerator(name = "user_id", strategy = "enhanced-sequence", parameters = {
+			@Parameter(name = "sequence_name", value = "hibernate_sequence"),
+			@Parameter(name = "increment_size", value = "50"),
+			@Parameter(name = "optimizer", value = "pooled-lo")
+	})
 	private long id;
 
 	@Column(unique = true)
@@ -0,0 +1,25 @@
+package com.vds.account.auth.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ *  Outcome of a single user creation in a batch.
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class UserCreationResult {
+
+	public enum Status { CREATED, EXISTS, FAILED }
+
+	private String username;
+
+	private Status status;
+
+	private String message;
+
+}
@@ -0,0 +1,38 @@
+package com.vds.account.auth.repository;
+
+import com.vds.account.auth.domain.StoredAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface StoredAccessTokenRepository extends JpaRepository<StoredAccessToken, String> {
+
+    List<StoredAccessToken> findByAuthenticationId(String authenticationId);
+
+    List<StoredAccessToken> findByClientId(String clientId);
+
+    List<StoredAccessToken> findByClientIdAndUserName(String clientId, String userName);
+
+    @Query("DELETE FROM StoredAccessToken t WHERE t.tokenId = :tokenId")
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    int deleteByTokenId(@Param("tokenId") String tokenId);
+
+    @Query("DELETE FROM StoredAccessToken t WHERE t.refreshTokenId = :refreshTokenId")
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    int deleteByRefreshTokenId(@Param("refreshTokenId") String refreshTokenId);
+
+    @Query(value = "DELETE FROM oauth_access_token WHERE expires_at < :now LIMIT :batchSize", nativeQuery = true)
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    int deleteExpired(@Param("now") Date now, @Param("batchSize") int batchSize);
+
+}
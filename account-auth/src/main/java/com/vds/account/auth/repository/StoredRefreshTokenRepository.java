@@ -0,0 +1,26 @@
+package com.vds.account.auth.repository;
+
+import com.vds.account.auth.domain.StoredRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+@Repository
+public interface StoredRefreshTokenRepository extends JpaRepository<StoredRefreshToken, String> {
+
+    @Query("DELETE FROM StoredRefreshToken t WHERE t.tokenId = :tokenId")
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    int deleteByTokenId(@Param("tokenId") String tokenId);
+
+    @Query(value = "DELETE FROM oauth_refresh_token WHERE expires_at < :now LIMIT :batchSize", nativeQuery = true)
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    int deleteExpired(@Param("now") Date now, @Param("batchSize") int batchSize);
+
+}
@@ -1,11 +1,17 @@
 package com.vds.account.auth.service;
 
 import com.vds.account.auth.domain.User;
+import com.vds.account.auth.domain.UserCreationResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
 
-	User create(User user);
+	CompletableFuture<User> create(User user);
 
 	User saveChanges(User update);
 
+	List<UserCreationResult> createAll(List<User> users);
+
 }
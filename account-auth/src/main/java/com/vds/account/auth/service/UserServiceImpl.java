@@ -1,39 +1,70 @@
 package com.vds.account.auth.service;
 
 import com.vds.account.auth.domain.User;
+import com.vds.account.auth.domain.UserCreationResult;
 import com.vds.account.auth.exception.UserException;
 import com.vds.account.auth.repository.UserRepository;
+import com.vds.account.auth.service.security.PasswordHasher;
+import com.vds.account.auth.service.security.VDSUserDetailsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
 
 @Service
 public class UserServiceImpl implements UserService {
 
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
-	private static final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-
 	@Autowired
 	private UserRepository repository;
 
+	@Autowired
+	private PasswordHasher passwordHasher;
+
+	@Autowired
+	private VDSUserDetailsService userDetailsService;
+
+	@Autowired
+	@Qualifier("userWriteExecutor")
+	private Executor userWriteExecutor;
+
+	/**
+	 *  Creates a new user. Password hashing runs on the bounded hashing pool, the user gets saved on the user write
+	 *  pool once the hash is ready, so a slow database never holds hashing threads.
+	 *  @param user - user to be created
+	 *  @return CompletableFuture - completed with the saved user
+	 *  @throws java.util.concurrent.RejectedExecutionException if the hashing pool is saturated
+	 **/
 	@Override
-	public User create(User user) {
+	public CompletableFuture<User> create(User user) {
 
 		Optional<User> existing = repository.findById(user.getId());
 		existing.ifPresent(it-> {throw new IllegalArgumentException("user already exists: " + it.getUsername());});
 
-		String hash = encoder.encode(user.getPassword());
-		user.setPassword(hash);
-
-		User savedUser = repository.saveAndFlush(user);
-		log.info("new user has been created: {}", savedUser.getId());
-		return savedUser;
+		return passwordHasher.hash(user.getPassword()).thenApplyAsync(hash -> {
+			user.setPassword(hash);
+			User savedUser = repository.saveAndFlush(user);
+			userDetailsService.evict(savedUser.getUsername());
+			log.info("new user has been created: {}", savedUser.getId());
+			return savedUser;
+		}, userWriteExecutor);
 	}
 
 	@Override
@@ -41,10 +72,119 @@ public class UserServiceImpl implements UserService {
 		Optional<User> username = repository.findById(update.getId());
 		if (username.isPresent()) {
 			update.setLastLogin(new Date());
+			User savedUser = repository.saveAndFlush(update);
+			userDetailsService.evict(username.get().getUsername());
+			userDetailsService.evict(savedUser.getUsername());
 			log.debug("user {} changes have been saved", update.getUsername());
-			return repository.saveAndFlush(update);
+			return savedUser;
 		} else {
 			throw new UserException("can't find user with id " + update.getId());
 		}
 	}
+
+	/**
+	 *  Creates users in batch. Already existing usernames are found with a single query, passwords are hashed
+	 *  in parallel on the hashing pool, new users are inserted in one transaction using JDBC batches.
+	 *  A user which can't be created doesn't affect the others, its outcome is reported at the same position.
+	 *  @param users - users to be created
+	 *  @return list of per user creation results
+	 **/
+	@Override
+	public List<UserCreationResult> createAll(List<User> users) {
+		UserCreationResult[] results = new UserCreationResult[users.size()];
+
+		Set<String> taken = repository.findByUsernameIn(users.stream()
+				.map(User::getUsername)
+				.filter(Objects::nonNull)
+				.collect(Collectors.toSet()))
+				.stream()
+				.map(User::getUsername)
+				.collect(Collectors.toCollection(HashSet::new));
+
+		List<Integer> pending = new ArrayList<>(users.size());
+		for (int i = 0; i != users.size(); i++) {
+			User user = users.get(i);
+			if (user.getUsername() == null || user.getUsername().isBlank() || user.getPassword() == null) {
+				results[i] = result(user, UserCreationResult.Status.FAILED, "username and password must be provided");
+			} else if (!taken.add(user.getUsername())) {
+				results[i] = result(user, UserCreationResult.Status.EXISTS, null);
+			} else {
+				pending.add(i);
+			}
+		}
+
+		List<Integer> hashed = hashPasswords(users, pending, results);
+		saveAll(users, hashed, results);
+		return Arrays.asList(results);
+	}
+
+	/**
+	 *  Hashes passwords in chunks of the hashing pool size, so a batch never fills the hashing queue
+	 *  shared with single user creations.
+	 **/
+	private List<Integer> hashPasswords(List<User> users, List<Integer> pending, UserCreationResult[] results) {
+		int chunkSize = Math.max(1, passwordHasher.getThreads());
+		List<Integer> hashed = new ArrayList<>(pending.size());
+		for (int from = 0; from < pending.size(); from += chunkSize) {
+			List<Integer> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+			List<CompletableFuture<String>> hashes = new ArrayList<>(chunk.size());
+			for (int index : chunk) {
+				try {
+					hashes.add(passwordHasher.hash(users.get(index).getPassword()));
+				} catch (RejectedExecutionException e) {
+					hashes.add(null);
+				}
+			}
+			for (int i = 0; i != chunk.size(); i++) {
+				User user = users.get(chunk.get(i));
+				if (hashes.get(i) == null) {
+					results[chunk.get(i)] = result(user, UserCreationResult.Status.FAILED, "password hashing is saturated");
+					continue;
+				}
+				try {
+					user.setPassword(hashes.get(i).join());
+					hashed.add(chunk.get(i));
+				} catch (CompletionException e) {
+					results[chunk.get(i)] = result(user, UserCreationResult.Status.FAILED, e.getCause().getMessage());
+				}
+			}
+		}
+		return hashed;
+	}
+
+	/**
+	 *  Inserts all users at once. If the batch fails, e.g. on a username registered meanwhile by a concurrent
+	 *  request, users are inserted one by one to find out the outcome of each.
+	 **/
+	private void saveAll(List<User> users, List<Integer> hashed, UserCreationResult[] results) {
+		if (hashed.isEmpty()) {
+			return;
+		}
+		try {
+			repository.saveAll(hashed.stream().map(users::get).collect(Collectors.toList()));
+			hashed.forEach(index -> results[index] = result(users.get(index), UserCreationResult.Status.CREATED, null));
+		} catch (DataIntegrityViolationException e) {
+			log.warn("batch insert of {} users failed, inserting them one by one", hashed.size(), e);
+			for (int index : hashed) {
+				User user = users.get(index);
+				user.setId(0);
+				try {
+					repository.saveAndFlush(user);
+					results[index] = result(user, UserCreationResult.Status.CREATED, null);
+				} catch (DataIntegrityViolationException duplicate) {
+					results[index] = result(user, UserCreationResult.Status.EXISTS, null);
+				}
+			}
+		}
+		hashed.forEach(index -> userDetailsService.evict(users.get(index).getUsername()));
+		log.info("{} new users have been created in batch", hashed.size());
+	}
+
+	private static UserCreationResult result(User user, UserCreationResult.Status status, String message) {
+		return UserCreationResult.builder()
+				.username(user.getUsername())
+				.status(status)
+				.message(message)
+				.build();
+	}
 }
@@ -0,0 +1,54 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.repository.StoredAccessTokenRepository;
+import com.vds.account.auth.repository.StoredRefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.function.IntUnaryOperator;
+
+/**
+ *  Periodically removes expired tokens from the persistent token store.
+ *  Rows are deleted in small batches, so a sweep never holds long locks on the token tables.
+ **/
+@Component
+@ConditionalOnProperty(name = "security.token-store.type", havingValue = "jdbc")
+public class ExpiredTokenSweeper {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private StoredAccessTokenRepository accessTokenRepository;
+
+	@Autowired
+	private StoredRefreshTokenRepository refreshTokenRepository;
+
+	@Value("${security.token-store.sweep-batch-size:1000}")
+	private int batchSize;
+
+	@Scheduled(fixedDelayString = "${security.token-store.sweep-interval-millis:60000}")
+	public void sweep() {
+		Date now = new Date();
+		int accessTokens = deleteInBatches(limit -> accessTokenRepository.deleteExpired(now, limit));
+		int refreshTokens = deleteInBatches(limit -> refreshTokenRepository.deleteExpired(now, limit));
+		if (accessTokens + refreshTokens > 0) {
+			log.info("expired tokens have been removed: {} access, {} refresh", accessTokens, refreshTokens);
+		}
+	}
+
+	private int deleteInBatches(IntUnaryOperator deleteBatch) {
+		int total = 0;
+		int deleted;
+		do {
+			deleted = deleteBatch.applyAsInt(batchSize);
+			total += deleted;
+		} while (deleted == batchSize);
+		return total;
+	}
+}
@@ -0,0 +1,132 @@
+package com.vds.account.auth.service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *  Write-behind recorder of user logins.
+ *
+ *  Successful logins only put a timestamp into an in-memory buffer, repeated logins of the same user are merged
+ *  into a single entry. The buffer is written periodically with one JDBC batch UPDATE and once more on shutdown.
+ *  The buffer is bounded: when it is full, logins of users not buffered yet are dropped until the next flush.
+ **/
+@Component
+public class LastLoginRecorder {
+
+	static final String UPDATE_LAST_LOGIN = "UPDATE user SET last_login = ? WHERE username = ?";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final int capacity;
+
+	private final int batchSize;
+
+	private final Map<String, Date> pending = new ConcurrentHashMap<>();
+
+	private final Counter dropped;
+
+	private final Counter written;
+
+	@Autowired
+	public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+							 @Value("${security.last-login.buffer-capacity:100000}") int capacity,
+							 @Value("${security.last-login.batch-size:500}") int batchSize,
+							 MeterRegistry registry) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.dropped = Counter.builder("last-login.dropped")
+				.description("logins not recorded because the buffer was full")
+				.register(registry);
+		this.written = Counter.builder("last-login.written")
+				.description("last login timestamps written to the database")
+				.register(registry);
+		Gauge.builder("last-login.pending", pending, Map::size)
+				.description("last login timestamps waiting for the next flush")
+				.register(registry);
+	}
+
+	@EventListener
+	public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+		Object principal = event.getAuthentication().getPrincipal();
+		if (principal instanceof UserSnapshot) {
+			record(((UserSnapshot) principal).getUsername(), new Date(event.getTimestamp()));
+		}
+	}
+
+	/**
+	 *  Buffers login of a user. Only the latest timestamp of a user is kept.
+	 *  @param username - name of logged in user
+	 *  @param loginTime - time of the login
+	 **/
+	public void record(String username, Date loginTime) {
+		if (pending.size() >= capacity && !pending.containsKey(username)) {
+			dropped.increment();
+			return;
+		}
+		pending.merge(username, loginTime, LastLoginRecorder::latest);
+	}
+
+	/**
+	 *  Writes all buffered timestamps. Entries which fail to be written are put back into the buffer,
+	 *  unless a newer login of the same user arrived meanwhile.
+	 **/
+	@Scheduled(fixedDelayString = "${security.last-login.flush-interval-millis:5000}")
+	public void flush() {
+		List<Object[]> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+		for (String username : pending.keySet()) {
+			Date loginTime = pending.remove(username);
+			if (loginTime != null) {
+				batch.add(new Object[] { new Timestamp(loginTime.getTime()), username });
+			}
+			if (batch.size() == batchSize) {
+				write(batch);
+				batch = new ArrayList<>(batchSize);
+			}
+		}
+		if (!batch.isEmpty()) {
+			write(batch);
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	private void write(List<Object[]> batch) {
+		try {
+			jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, batch);
+			written.increment(batch.size());
+		} catch (RuntimeException e) {
+			log.warn("failed to write {} last login timestamps, they will be retried", batch.size(), e);
+			for (Object[] row : batch) {
+				pending.merge((String) row[1], new Date(((Timestamp) row[0]).getTime()), LastLoginRecorder::latest);
+			}
+		}
+	}
+
+	private static Date latest(Date first, Date second) {
+		return first.after(second) ? first : second;
+	}
+}
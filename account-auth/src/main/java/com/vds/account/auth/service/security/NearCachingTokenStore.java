@@ -0,0 +1,134 @@
+package com.vds.account.auth.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ *  In-process cache in front of a shared token store.
+ *
+ *  Token and authentication lookups done on each authenticated request are served from memory. Changes made by
+ *  this instance invalidate its cache immediately, changes made by other instances become visible once the short
+ *  TTL of an entry elapses.
+ **/
+public class NearCachingTokenStore implements TokenStore {
+
+	private final TokenStore delegate;
+
+	private final Cache<String, OAuth2AccessToken> accessTokens;
+
+	private final Cache<String, OAuth2Authentication> authentications;
+
+	public NearCachingTokenStore(TokenStore delegate, long maximumSize, Duration ttl) {
+		this.delegate = delegate;
+		this.accessTokens = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		this.authentications = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 *  Registers hit, miss, eviction and size meters of the near cache.
+	 *  @param registry - meter registry exposed by actuator
+	 **/
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, accessTokens, "token.store.access-tokens");
+		CaffeineCacheMetrics.monitor(registry, authentications, "token.store.authentications");
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+		return readAuthentication(token.getValue());
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(String token) {
+		return authentications.get(token, delegate::readAuthentication);
+	}
+
+	@Override
+	public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+		delegate.storeAccessToken(token, authentication);
+		invalidate(token.getValue());
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String tokenValue) {
+		return accessTokens.get(tokenValue, delegate::readAccessToken);
+	}
+
+	@Override
+	public void removeAccessToken(OAuth2AccessToken token) {
+		delegate.removeAccessToken(token);
+		invalidate(token.getValue());
+	}
+
+	@Override
+	public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+		delegate.storeRefreshToken(refreshToken, authentication);
+	}
+
+	@Override
+	public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+		return delegate.readRefreshToken(tokenValue);
+	}
+
+	@Override
+	public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+		return delegate.readAuthenticationForRefreshToken(token);
+	}
+
+	@Override
+	public void removeRefreshToken(OAuth2RefreshToken token) {
+		delegate.removeRefreshToken(token);
+	}
+
+	@Override
+	public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+		delegate.removeAccessTokenUsingRefreshToken(refreshToken);
+		List<String> issuedByRefreshToken = accessTokens.asMap().entrySet().stream()
+				.filter(entry -> entry.getValue().getRefreshToken() != null
+						&& refreshToken.getValue().equals(entry.getValue().getRefreshToken().getValue()))
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		issuedByRefreshToken.forEach(this::invalidate);
+	}
+
+	@Override
+	public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+		return delegate.getAccessToken(authentication);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+		return delegate.findTokensByClientIdAndUserName(clientId, userName);
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+		return delegate.findTokensByClientId(clientId);
+	}
+
+	private void invalidate(String tokenValue) {
+		accessTokens.invalidate(tokenValue);
+		authentications.invalidate(tokenValue);
+	}
+}
@@ -0,0 +1,150 @@
+package com.vds.account.auth.service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Hashes passwords with BCrypt on a dedicated bounded pool, so CPU heavy hashing doesn't occupy servlet threads.
+ *
+ *  The pool has one thread less than available cores and a bounded queue. When the queue is full a new hash is
+ *  rejected with RejectedExecutionException instead of waiting, which callers turn into 503 Service Unavailable.
+ *  BCrypt cost is calibrated once at startup: it is raised from the minimal strength while a single hash stays
+ *  within the target latency on this machine.
+ **/
+@Component
+public class PasswordHasher {
+
+	static final int MAX_STRENGTH = 16;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final ThreadPoolExecutor executor;
+
+	private final BCryptPasswordEncoder encoder;
+
+	private final int strength;
+
+	private final Timer hashTimer;
+
+	private final Counter rejections;
+
+	@Autowired
+	public PasswordHasher(@Value("${security.password-hasher.threads:0}") int threads,
+						  @Value("${security.password-hasher.queue-capacity:64}") int queueCapacity,
+						  @Value("${security.password-hasher.target-millis:100}") long targetMillis,
+						  @Value("${security.password-hasher.min-strength:10}") int minStrength,
+						  MeterRegistry registry) {
+		int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new HasherThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+		this.strength = calibrate(minStrength, Duration.ofMillis(targetMillis));
+		this.encoder = new BCryptPasswordEncoder(strength);
+
+		this.hashTimer = Timer.builder("password.hash")
+				.description("time spent hashing a password")
+				.register(registry);
+		this.rejections = Counter.builder("password.hash.rejected")
+				.description("hash requests rejected because the hashing queue was full")
+				.register(registry);
+		Gauge.builder("password.hash.queue", executor, pool -> pool.getQueue().size())
+				.description("hash requests waiting for a free hashing thread")
+				.register(registry);
+		Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+				.description("hashing threads currently busy")
+				.register(registry);
+
+		log.info("password hashing uses {} threads, queue capacity {}, bcrypt strength {}",
+				poolSize, queueCapacity, strength);
+	}
+
+	/**
+	 *  Schedules hashing of a raw password on the hashing pool.
+	 *  @param rawPassword - password as provided by a user
+	 *  @return CompletableFuture - completed with BCrypt hash of the password
+	 *  @throws RejectedExecutionException if the hashing queue is full
+	 **/
+	public CompletableFuture<String> hash(String rawPassword) {
+		if (rawPassword == null) {
+			throw new IllegalArgumentException("password must be provided");
+		}
+		try {
+			return CompletableFuture.supplyAsync(() -> hashTimer.record(() -> encoder.encode(rawPassword)), executor);
+		} catch (RejectedExecutionException e) {
+			rejections.increment();
+			throw e;
+		}
+	}
+
+	public int getStrength() {
+		return strength;
+	}
+
+	public int getThreads() {
+		return executor.getMaximumPoolSize();
+	}
+
+	/**
+	 *  Hashing pool, exposed to tests so they can occupy its threads.
+	 **/
+	ThreadPoolExecutor getExecutor() {
+		return executor;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 *  Each BCrypt strength step doubles hashing time, so the strength is raised while the doubled time of the last
+	 *  measured hash still fits into the target. Measurement runs on a hashing thread to account for its priority.
+	 **/
+	private int calibrate(int minStrength, Duration target) {
+		int calibrated = minStrength;
+		long elapsed = measure(calibrated);
+		while (calibrated < MAX_STRENGTH && elapsed * 2 <= target.toNanos()) {
+			calibrated++;
+			elapsed = measure(calibrated);
+		}
+		return calibrated;
+	}
+
+	private long measure(int strength) {
+		BCryptPasswordEncoder probe = new BCryptPasswordEncoder(strength);
+		return CompletableFuture.supplyAsync(() -> {
+			long start = System.nanoTime();
+			probe.encode("calibration");
+			return System.nanoTime() - start;
+		}, executor).join();
+	}
+
+	private static class HasherThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "password-hasher-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.domain.StoredAccessToken;
+import com.vds.account.auth.domain.StoredRefreshToken;
+import com.vds.account.auth.repository.StoredAccessTokenRepository;
+import com.vds.account.auth.repository.StoredRefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.oauth2.common.ExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2RefreshToken;
+import org.springframework.security.oauth2.common.util.SerializationUtils;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.AuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.DefaultAuthenticationKeyGenerator;
+import org.springframework.security.oauth2.provider.token.TokenStore;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ *  Token store kept in the account-auth database, so tokens survive restarts and are shared by all instances.
+ *
+ *  Rows are keyed by SHA-256 hash of the token value and carry the token expiration in a dedicated indexed column,
+ *  which lets expired tokens be removed in batches without reading them first. The serialized token, value
+ *  included, is stored next to the hash: getAccessToken hands the existing token of an authentication out again,
+ *  and revoking an access token removes its refresh token by value.
+ **/
+public class PersistentTokenStore implements TokenStore {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final StoredAccessTokenRepository accessTokenRepository;
+
+	private final StoredRefreshTokenRepository refreshTokenRepository;
+
+	private final AuthenticationKeyGenerator authenticationKeyGenerator = new DefaultAuthenticationKeyGenerator();
+
+	public PersistentTokenStore(StoredAccessTokenRepository accessTokenRepository,
+								StoredRefreshTokenRepository refreshTokenRepository) {
+		this.accessTokenRepository = accessTokenRepository;
+		this.refreshTokenRepository = refreshTokenRepository;
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+		return readAuthentication(token.getValue());
+	}
+
+	@Override
+	public OAuth2Authentication readAuthentication(String token) {
+		String tokenId = hash(token);
+		return accessTokenRepository.findById(tokenId)
+				.map(stored -> this.<OAuth2Authentication>deserialize(stored.getAuthentication(), tokenId, false))
+				.orElse(null);
+	}
+
+	@Override
+	public void storeAccessToken(OAuth2AccessToken token, OAuth2Authentication authentication) {
+		OAuth2RefreshToken refreshToken = token.getRefreshToken();
+		accessTokenRepository.save(StoredAccessToken.builder()
+				.tokenId(hash(token.getValue()))
+				.token(SerializationUtils.serialize(token))
+				.authenticationId(authenticationKeyGenerator.extractKey(authentication))
+				.userName(authentication.isClientOnly() ? null : authentication.getName())
+				.clientId(authentication.getOAuth2Request().getClientId())
+				.authentication(SerializationUtils.serialize(authentication))
+				.refreshTokenId(refreshToken != null ? hash(refreshToken.getValue()) : null)
+				.expiresAt(token.getExpiration())
+				.build());
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String tokenValue) {
+		String tokenId = hash(tokenValue);
+		return accessTokenRepository.findById(tokenId)
+				.map(stored -> this.<OAuth2AccessToken>deserialize(stored.getToken(), tokenId, false))
+				.orElse(null);
+	}
+
+	@Override
+	public void removeAccessToken(OAuth2AccessToken token) {
+		accessTokenRepository.deleteByTokenId(hash(token.getValue()));
+	}
+
+	@Override
+	public void storeRefreshToken(OAuth2RefreshToken refreshToken, OAuth2Authentication authentication) {
+		refreshTokenRepository.save(StoredRefreshToken.builder()
+				.tokenId(hash(refreshToken.getValue()))
+				.token(SerializationUtils.serialize(refreshToken))
+				.authentication(SerializationUtils.serialize(authentication))
+				.expiresAt(refreshToken instanceof ExpiringOAuth2RefreshToken
+						? ((ExpiringOAuth2RefreshToken) refreshToken).getExpiration() : null)
+				.build());
+	}
+
+	@Override
+	public OAuth2RefreshToken readRefreshToken(String tokenValue) {
+		String tokenId = hash(tokenValue);
+		return refreshTokenRepository.findById(tokenId)
+				.map(stored -> this.<OAuth2RefreshToken>deserialize(stored.getToken(), tokenId, true))
+				.orElse(null);
+	}
+
+	@Override
+	public OAuth2Authentication readAuthenticationForRefreshToken(OAuth2RefreshToken token) {
+		String tokenId = hash(token.getValue());
+		return refreshTokenRepository.findById(tokenId)
+				.map(stored -> this.<OAuth2Authentication>deserialize(stored.getAuthentication(), tokenId, true))
+				.orElse(null);
+	}
+
+	@Override
+	public void removeRefreshToken(OAuth2RefreshToken token) {
+		refreshTokenRepository.deleteByTokenId(hash(token.getValue()));
+	}
+
+	@Override
+	public void removeAccessTokenUsingRefreshToken(OAuth2RefreshToken refreshToken) {
+		accessTokenRepository.deleteByRefreshTokenId(hash(refreshToken.getValue()));
+	}
+
+	@Override
+	public OAuth2AccessToken getAccessToken(OAuth2Authentication authentication) {
+		String key = authenticationKeyGenerator.extractKey(authentication);
+		List<StoredAccessToken> stored = accessTokenRepository.findByAuthenticationId(key);
+		if (stored.isEmpty()) {
+			return null;
+		}
+		OAuth2AccessToken accessToken = deserialize(stored.get(0).getToken(), stored.get(0).getTokenId(), false);
+		if (accessToken != null) {
+			OAuth2Authentication storedAuthentication = readAuthentication(accessToken.getValue());
+			if (storedAuthentication == null || !key.equals(authenticationKeyGenerator.extractKey(storedAuthentication))) {
+				// the authentication has changed since the token was issued, so it gets stored again
+				removeAccessToken(accessToken);
+				storeAccessToken(accessToken, authentication);
+			}
+		}
+		return accessToken;
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientIdAndUserName(String clientId, String userName) {
+		return deserializeAll(accessTokenRepository.findByClientIdAndUserName(clientId, userName));
+	}
+
+	@Override
+	public Collection<OAuth2AccessToken> findTokensByClientId(String clientId) {
+		return deserializeAll(accessTokenRepository.findByClientId(clientId));
+	}
+
+	private List<OAuth2AccessToken> deserializeAll(List<StoredAccessToken> stored) {
+		return stored.stream()
+				.map(token -> this.<OAuth2AccessToken>deserialize(token.getToken(), token.getTokenId(), false))
+				.filter(Objects::nonNull)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 *  Deserializes a stored value. Rows that can't be read any more (e.g. after a change of serialized classes)
+	 *  are removed, so the client just has to obtain a new token.
+	 **/
+	private <T> T deserialize(byte[] value, String tokenId, boolean refreshToken) {
+		try {
+			return SerializationUtils.deserialize(value);
+		} catch (IllegalArgumentException e) {
+			log.warn("failed to deserialize stored token {}, removing it", tokenId, e);
+			if (refreshToken) {
+				refreshTokenRepository.deleteByTokenId(tokenId);
+			} else {
+				accessTokenRepository.deleteByTokenId(tokenId);
+			}
+			return null;
+		}
+	}
+
+	static String hash(String tokenValue) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenValue.getBytes(StandardCharsets.UTF_8));
+			StringBuilder hex = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				hex.append(String.format("%02x", b));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.domain.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ *  Immutable copy of a user loaded for authentication. Unlike the managed User entity it can be shared by
+ *  concurrent logins and kept in a cache without being changed by anyone.
+ **/
+public final class UserSnapshot implements UserDetails {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long id;
+
+	private final String username;
+
+	private final String password;
+
+	private UserSnapshot(long id, String username, String password) {
+		this.id = id;
+		this.username = username;
+		this.password = password;
+	}
+
+	public static UserSnapshot of(User user) {
+		return new UserSnapshot(user.getId(), user.getUsername(), user.getPassword());
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	@Override
+	public String getUsername() {
+		return username;
+	}
+
+	@Override
+	public String getPassword() {
+		return password;
+	}
+
+	@Override
+	public Collection<? extends GrantedAuthority> getAuthorities() {
+		return Collections.emptyList();
+	}
+
+	@Override
+	public boolean isAccountNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isAccountNonLocked() {
+		return true;
+	}
+
+	@Override
+	public boolean isCredentialsNonExpired() {
+		return true;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return "UserSnapshot{id=" + id + ", username='" + username + "'}";
+	}
+}
@@ -1,25 +1,69 @@
 package com.vds.account.auth.service.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.vds.account.auth.domain.User;
 import com.vds.account.auth.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Loads users for password and refresh token grants.
+ *
+ *  Loaded users are kept as immutable snapshots in a size and time bounded cache. Concurrent logins of the same
+ *  user share a single database lookup. Changes made through UserService evict the entry right away, changes made
+ *  on another instance become visible once the entry expires.
+ **/
 @Service
 public class VDSUserDetailsService implements UserDetailsService {
 
+	private final UserRepository repository;
+
+	private final Cache<String, UserSnapshot> users;
+
 	@Autowired
-	private UserRepository repository;
+	public VDSUserDetailsService(UserRepository repository,
+								 @Value("${security.user-cache.maximum-size:10000}") long maximumSize,
+								 @Value("${security.user-cache.ttl-seconds:60}") long ttlSeconds,
+								 MeterRegistry registry) {
+		this.repository = repository;
+		this.users = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, users, "user.details");
+	}
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-		User user = repository.findByUsername(username);
+		UserSnapshot user = users.get(username, this::load);
 		if(user == null) {
 			throw new UsernameNotFoundException(username);
 		}
 		return user;
 	}
+
+	/**
+	 *  Removes cached user, so the next login reads it from the database again.
+	 *  @param username - name of changed user
+	 **/
+	public void evict(String username) {
+		if (username != null) {
+			users.invalidate(username);
+		}
+	}
+
+	private UserSnapshot load(String username) {
+		User user = repository.findByUsername(username);
+		return user != null ? UserSnapshot.of(user) : null;
+	}
 }
@@ -14,15 +14,20 @@ import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -41,7 +46,9 @@ public class UserControllerTest {
     @BeforeEach
     public void setup() {
         initMocks(this);
-        this.mockMvc = MockMvcBuilders.standaloneSetup(userController).build();
+        this.mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new ErrorHandler())
+                .build();
     }
 
     private static Stream<Arguments> provideCommonUsers() {
@@ -57,10 +64,26 @@ public class UserControllerTest {
     public void shouldRegisterNewUser(User user) throws Exception {
         String json = mapper.writeValueAsString(user);
 
-        when(userService.create(any())).thenReturn(user);
-        mockMvc.perform(post("/users")
+        when(userService.create(any())).thenReturn(CompletableFuture.completedFuture(user));
+        MvcResult result = mockMvc.perform(post("/users")
                 .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk());
     }
 
+    @ParameterizedTest
+    @MethodSource("provideCommonUsers")
+    @DisplayName("Returns 503 when password hashing is saturated")
+    public void shouldReturnServiceUnavailableWhenHashingRejected(User user) throws Exception {
+        String json = mapper.writeValueAsString(user);
+
+        when(userService.create(any())).thenThrow(new RejectedExecutionException("hashing queue is full"));
+        mockMvc.perform(post("/users")
+                .contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isServiceUnavailable());
+    }
+
 }
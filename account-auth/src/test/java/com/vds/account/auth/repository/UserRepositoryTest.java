@@ -4,6 +4,7 @@ import com.vds.account.auth.domain.User;
 import com.vds.account.auth.util.factory.UserFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -12,6 +13,9 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
@@ -67,5 +71,21 @@ public class UserRepositoryTest {
         assertEquals(user.getLastLogin(),    foundUser.getLastLogin());
     }
 
+    @Test
+    @DisplayName("Returns saved users by a set of usernames with one query")
+    public void shouldFindUsersByUsernames() {
+        // given
+        repository.saveAll(List.of(
+                UserFactory.createUser("name1@gmail.com", "password", new Date()),
+                UserFactory.createUser("name2@gmail.com", "password", new Date()),
+                UserFactory.createUser("name3@gmail.com", "password", new Date())));
+
+        // when
+        List<User> foundUsers = repository.findByUsernameIn(Set.of("name1@gmail.com", "name3@gmail.com", "name4@gmail.com"));
 
+        // then
+        assertEquals(2, foundUsers.size());
+        assertEquals(Set.of("name1@gmail.com", "name3@gmail.com"),
+                foundUsers.stream().map(User::getUsername).collect(Collectors.toSet()));
+    }
 }
@@ -1,23 +1,35 @@
 package com.vds.account.auth.service;
 
 import com.vds.account.auth.domain.User;
+import com.vds.account.auth.domain.UserCreationResult;
 import com.vds.account.auth.repository.UserRepository;
+import com.vds.account.auth.service.security.PasswordHasher;
+import com.vds.account.auth.service.security.VDSUserDetailsService;
 import com.vds.account.auth.util.factory.UserFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,8 +43,17 @@ public class UserServiceTest {
     @Mock
     private UserRepository repository;
 
+    @Mock
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private VDSUserDetailsService userDetailsService;
+
     @BeforeEach
-    public void setup() { initMocks(this); }
+    public void setup() {
+        initMocks(this);
+        ReflectionTestUtils.setField(userService, "userWriteExecutor", (Executor) Runnable::run);
+    }
 
     @AfterEach
     public void clearDb() { repository.deleteAll(); }
@@ -49,12 +70,14 @@ public class UserServiceTest {
     @DisplayName("Saves user by given user data")
     public void shouldCreateUser(User user) {
         // when
+        when(passwordHasher.hash(user.getPassword())).thenReturn(CompletableFuture.completedFuture("hash"));
         when(repository.saveAndFlush(user)).thenReturn(user);
-        User savedUser = userService.create(user);
+        User savedUser = userService.create(user).join();
 
         // then
         assertNotNull(savedUser);
         assertEquals(user.getUsername(), savedUser.getUsername());
+        assertEquals("hash", savedUser.getPassword());
 
         assertNotNull(savedUser.getUsername());
         assertNotNull(savedUser.getLastLogin());
@@ -62,6 +85,18 @@ public class UserServiceTest {
         verify(repository, times(1)).saveAndFlush(user);
     }
 
+    @ParameterizedTest
+    @MethodSource("provideCommonUsers")
+    @DisplayName("Doesn't save user when password hashing is rejected")
+    public void shouldNotCreateUserWhenHashingRejected(User user) {
+        // when
+        when(passwordHasher.hash(any())).thenThrow(new RejectedExecutionException("hashing queue is full"));
+
+        // then
+        assertThrows(RejectedExecutionException.class, () -> userService.create(user));
+        verify(repository, never()).saveAndFlush(any());
+    }
+
     private static Stream<Arguments> provideUpdatedUserList() {
         return Stream.of(
                 Arguments.of(UserFactory.createUser("name1@gmail.com", "password", new Date())),
@@ -85,7 +120,50 @@ public class UserServiceTest {
         assertEquals(savedUser.getUsername(), user.getUsername());
 
         verify(repository, times(1)).saveAndFlush(user);
+        verify(userDetailsService, times(2)).evict(user.getUsername());
     }
 
+    @Test
+    @DisplayName("Creates users in batch and reports outcome of each one")
+    public void shouldCreateUsersInBatch() {
+        // given
+        User created = UserFactory.createUser("name1@gmail.com", "password", new Date());
+        User existing = UserFactory.createUser("name2@gmail.com", "password", new Date());
+        User repeated = UserFactory.createUser("name1@gmail.com", "password", new Date());
+        User invalid = UserFactory.createUser("name3@gmail.com", null, new Date());
+
+        // when
+        when(repository.findByUsernameIn(any())).thenReturn(List.of(existing));
+        when(passwordHasher.getThreads()).thenReturn(2);
+        when(passwordHasher.hash(any())).thenReturn(CompletableFuture.completedFuture("hash"));
+        List<UserCreationResult> results = userService.createAll(List.of(created, existing, repeated, invalid));
+
+        // then
+        assertEquals(4, results.size());
+        assertEquals(UserCreationResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals(UserCreationResult.Status.EXISTS, results.get(1).getStatus());
+        assertEquals(UserCreationResult.Status.EXISTS, results.get(2).getStatus());
+        assertEquals(UserCreationResult.Status.FAILED, results.get(3).getStatus());
+        assertEquals("hash", created.getPassword());
+        verify(repository, times(1)).findByUsernameIn(any());
+        verify(repository, times(1)).saveAll(List.of(created));
+        verify(repository, never()).saveAndFlush(any());
+    }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Reports users whose password hashing was rejected as failed")
+    public void shouldFailUsersWhenHashingRejected() {
+        // given
+        User rejected = UserFactory.createUser("name1@gmail.com", "password", new Date());
+
+        // when
+        when(repository.findByUsernameIn(any())).thenReturn(List.of());
+        when(passwordHasher.getThreads()).thenReturn(1);
+        when(passwordHasher.hash(any())).thenThrow(new RejectedExecutionException("hashing queue is full"));
+        List<UserCreationResult> results = userService.createAll(List.of(rejected));
+
+        // then
+        assertEquals(UserCreationResult.Status.FAILED, results.get(0).getStatus());
+        verify(repository, never()).saveAll(any());
+    }
+}
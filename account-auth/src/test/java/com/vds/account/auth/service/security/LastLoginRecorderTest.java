@@ -0,0 +1,95 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.domain.User;
+import com.vds.account.auth.repository.UserRepository;
+import com.vds.account.auth.util.factory.UserFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace.NONE;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+public class LastLoginRecorderTest {
+
+    @Autowired
+    private UserRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private SimpleMeterRegistry registry;
+
+    private LastLoginRecorder recorder;
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        recorder = new LastLoginRecorder(jdbcTemplate, 2, 2, registry);
+    }
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        repository.deleteAll();
+    }
+
+    private User readUser(String username) {
+        entityManager.clear();
+        return repository.findByUsername(username);
+    }
+
+    @Test
+    @DisplayName("Writes only the latest login of a user on flush")
+    public void shouldWriteLatestLoginOnFlush() {
+        // given
+        repository.saveAndFlush(UserFactory.createUser("name1@gmail.com", "password", new Date(0)));
+        Date latest = new Date(2_000_000_000_000L);
+
+        // when
+        recorder.record("name1@gmail.com", new Date(1_000_000_000_000L));
+        recorder.record("name1@gmail.com", latest);
+        recorder.record("name1@gmail.com", new Date(1_500_000_000_000L));
+
+        // then
+        assertEquals(0, readUser("name1@gmail.com").getLastLogin().getTime());
+        recorder.flush();
+        assertEquals(latest.getTime(), readUser("name1@gmail.com").getLastLogin().getTime());
+        assertEquals(1.0, registry.get("last-login.written").counter().count(), 0.0);
+    }
+
+    @Test
+    @DisplayName("Drops logins of new users when the buffer is full")
+    public void shouldDropLoginsWhenBufferIsFull() {
+        // given
+        for (int i = 1; i <= 3; i++) {
+            repository.saveAndFlush(UserFactory.createUser("name" + i + "@gmail.com", "password", new Date(0)));
+        }
+        Date loginTime = new Date(2_000_000_000_000L);
+
+        // when
+        recorder.record("name1@gmail.com", loginTime);
+        recorder.record("name2@gmail.com", loginTime);
+        recorder.record("name3@gmail.com", loginTime);
+        recorder.flush();
+
+        // then
+        assertEquals(loginTime.getTime(), readUser("name1@gmail.com").getLastLogin().getTime());
+        assertEquals(loginTime.getTime(), readUser("name2@gmail.com").getLastLogin().getTime());
+        assertEquals(0, readUser("name3@gmail.com").getLastLogin().getTime());
+        assertEquals(1.0, registry.get("last-login.dropped").counter().count(), 0.0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vds.account.auth.service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PasswordHasherTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Produces hashes which match the raw password")
+    public void shouldHashPassword() {
+        // given
+        hasher = new PasswordHasher(2, 16, 0, 4, registry);
+
+        // when
+        String hash = hasher.hash("password").join();
+
+        // then
+        assertTrue(new BCryptPasswordEncoder().matches("password", hash));
+        assertEquals(1, registry.get("password.hash").timer().count());
+    }
+
+    @Test
+    @DisplayName("Never calibrates strength below the configured minimum")
+    public void shouldKeepMinimalStrength() {
+        // when
+        hasher = new PasswordHasher(1, 16, 0, 4, registry);
+
+        // then
+        assertEquals(4, hasher.getStrength());
+    }
+
+    @Test
+    @DisplayName("Rejects hashing when the queue is full")
+    public void shouldRejectWhenSaturated() throws InterruptedException {
+        // given
+        hasher = new PasswordHasher(1, 1, 0, 4, registry);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        hasher.getExecutor().execute(() -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        busy.await();
+
+        // when
+        CompletableFuture<String> queued = hasher.hash("password1");
+        RejectedExecutionException e = assertThrows(RejectedExecutionException.class, () -> hasher.hash("password2"));
+
+        // then
+        assertTrue(e.getMessage() != null);
+        assertEquals(1.0, registry.get("password.hash.rejected").counter().count(), 0.0);
+        release.countDown();
+        assertTrue(new BCryptPasswordEncoder().matches("password1", queued.join()));
+    }
+}
@@ -0,0 +1,121 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.repository.StoredAccessTokenRepository;
+import com.vds.account.auth.repository.StoredRefreshTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.DefaultExpiringOAuth2RefreshToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace.NONE;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = NONE)
+public class PersistentTokenStoreTest {
+
+    @Autowired
+    private StoredAccessTokenRepository accessTokenRepository;
+
+    @Autowired
+    private StoredRefreshTokenRepository refreshTokenRepository;
+
+    private PersistentTokenStore tokenStore;
+
+    @BeforeEach
+    public void setup() {
+        tokenStore = new PersistentTokenStore(accessTokenRepository, refreshTokenRepository);
+    }
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        accessTokenRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+    }
+
+    private static OAuth2Authentication createAuthentication(String username) {
+        OAuth2Request request = new OAuth2Request(null, "browser", null, true, Set.of("ui"),
+                null, null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(username, "N/A", Collections.emptyList()));
+    }
+
+    private static DefaultOAuth2AccessToken createAccessToken(Date expiration, String refreshToken) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+        token.setExpiration(expiration);
+        if (refreshToken != null) {
+            token.setRefreshToken(new DefaultExpiringOAuth2RefreshToken(refreshToken, expiration));
+        }
+        return token;
+    }
+
+    @Test
+    @DisplayName("Stores access tokens and reads them back by value")
+    public void shouldStoreAndReadAccessToken() {
+        // given
+        OAuth2Authentication authentication = createAuthentication("name1@gmail.com");
+        OAuth2AccessToken token = createAccessToken(new Date(System.currentTimeMillis() + 60_000), null);
+
+        // when
+        tokenStore.storeAccessToken(token, authentication);
+
+        // then
+        assertEquals(token.getValue(), tokenStore.readAccessToken(token.getValue()).getValue());
+        assertEquals("name1@gmail.com", tokenStore.readAuthentication(token.getValue()).getName());
+        assertEquals(token.getValue(), tokenStore.getAccessToken(authentication).getValue());
+        assertEquals(1, tokenStore.findTokensByClientIdAndUserName("browser", "name1@gmail.com").size());
+        assertNotNull(accessTokenRepository.findById(PersistentTokenStore.hash(token.getValue())).orElse(null));
+    }
+
+    @Test
+    @DisplayName("Removes access tokens issued by a refresh token")
+    public void shouldRemoveAccessTokenUsingRefreshToken() {
+        // given
+        OAuth2AccessToken token = createAccessToken(new Date(System.currentTimeMillis() + 60_000), "refresh");
+        tokenStore.storeAccessToken(token, createAuthentication("name1@gmail.com"));
+
+        // when
+        tokenStore.removeAccessTokenUsingRefreshToken(token.getRefreshToken());
+
+        // then
+        assertNull(tokenStore.readAccessToken(token.getValue()));
+    }
+
+    @Test
+    @DisplayName("Deletes expired access tokens in batches")
+    public void shouldDeleteExpiredTokensInBatches() {
+        // given
+        Date expired = new Date(System.currentTimeMillis() - 60_000);
+        for (int i = 0; i != 5; i++) {
+            tokenStore.storeAccessToken(createAccessToken(expired, null), createAuthentication("name" + i + "@gmail.com"));
+        }
+        OAuth2AccessToken valid = createAccessToken(new Date(System.currentTimeMillis() + 60_000), null);
+        tokenStore.storeAccessToken(valid, createAuthentication("valid@gmail.com"));
+
+        // when
+        int firstBatch = accessTokenRepository.deleteExpired(new Date(), 3);
+        int secondBatch = accessTokenRepository.deleteExpired(new Date(), 3);
+
+        // then
+        assertEquals(3, firstBatch);
+        assertEquals(2, secondBatch);
+        assertEquals(1, accessTokenRepository.count());
+        assertNotNull(tokenStore.readAccessToken(valid.getValue()));
+    }
+}
@@ -0,0 +1,117 @@
+package com.vds.account.auth.service.security;
+
+import com.vds.account.auth.domain.User;
+import com.vds.account.auth.repository.UserRepository;
+import com.vds.account.auth.util.factory.UserFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class VDSUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository repository;
+
+    private VDSUserDetailsService userDetailsService;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        userDetailsService = new VDSUserDetailsService(repository, 100, 60, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Reads user from database once and serves next logins from cache")
+    public void shouldCacheLoadedUser() {
+        // given
+        User user = UserFactory.createUser(1L, "name1@gmail.com", "hash", new Date());
+        when(repository.findByUsername("name1@gmail.com")).thenReturn(user);
+
+        // when
+        UserDetails first = userDetailsService.loadUserByUsername("name1@gmail.com");
+        UserDetails second = userDetailsService.loadUserByUsername("name1@gmail.com");
+
+        // then
+        assertEquals("hash", first.getPassword());
+        assertEquals(first, second);
+        assertNotSame(user, first);
+        verify(repository, times(1)).findByUsername("name1@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Reads user from database again after eviction")
+    public void shouldReloadEvictedUser() {
+        // given
+        when(repository.findByUsername("name1@gmail.com"))
+                .thenReturn(UserFactory.createUser(1L, "name1@gmail.com", "old", new Date()))
+                .thenReturn(UserFactory.createUser(1L, "name1@gmail.com", "new", new Date()));
+        userDetailsService.loadUserByUsername("name1@gmail.com");
+
+        // when
+        userDetailsService.evict("name1@gmail.com");
+
+        // then
+        assertEquals("new", userDetailsService.loadUserByUsername("name1@gmail.com").getPassword());
+        verify(repository, times(2)).findByUsername("name1@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Throws exception for unknown user without caching it")
+    public void shouldNotCacheMissingUser() {
+        // when
+        when(repository.findByUsername("unknown@gmail.com")).thenReturn(null);
+
+        // then
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@gmail.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("unknown@gmail.com"));
+        verify(repository, times(2)).findByUsername("unknown@gmail.com");
+    }
+
+    @Test
+    @DisplayName("Shares a single database lookup between concurrent logins")
+    public void shouldLoadOnceForConcurrentLogins() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.findByUsername("name1@gmail.com")).thenAnswer(invocation -> {
+            release.await();
+            return UserFactory.createUser(1L, "name1@gmail.com", "hash", new Date());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<CompletableFuture<UserDetails>> logins = new ArrayList<>();
+
+        // when
+        for (int i = 0; i != 16; i++) {
+            logins.add(CompletableFuture.supplyAsync(
+                    () -> userDetailsService.loadUserByUsername("name1@gmail.com"), executor));
+        }
+        Thread.sleep(100);
+        release.countDown();
+
+        // then
+        for (CompletableFuture<UserDetails> login : logins) {
+            assertEquals("name1@gmail.com", login.get().getUsername());
+        }
+        verify(repository, times(1)).findByUsername("name1@gmail.com");
+        executor.shutdown();
+    }
+}
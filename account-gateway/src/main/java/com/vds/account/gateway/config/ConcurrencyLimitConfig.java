@@ -0,0 +1,26 @@
+package com.vds.account.gateway.config;
+
+import com.vds.account.gateway.filter.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *  Sheds load per route once its backend slows down, each route listed under gateway.concurrency-limits gets an
+ *  adaptive limit of its own.
+ **/
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+	/**
+	 *  @param properties - limiter settings per route id
+	 *  @param meterRegistry - registry the limit, in-flight and rejected meters are published to
+	 *  @return ConcurrencyLimitFilter instance, picked up by the gateway as a bean
+	 **/
+	@Bean
+	public ConcurrencyLimitFilter concurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+		return new ConcurrencyLimitFilter(properties.getConcurrencyLimits(), meterRegistry);
+	}
+}
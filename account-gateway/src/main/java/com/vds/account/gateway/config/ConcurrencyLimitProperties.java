@@ -0,0 +1,121 @@
+package com.vds.account.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Adaptive concurrency limit of each route, keyed by route id. Routes without an entry aren't limited.
+ **/
+@ConfigurationProperties(prefix = "gateway")
+public class ConcurrencyLimitProperties {
+
+	private Map<String, ConcurrencyLimit> concurrencyLimits = new HashMap<>();
+
+	public Map<String, ConcurrencyLimit> getConcurrencyLimits() {
+		return concurrencyLimits;
+	}
+
+	public void setConcurrencyLimits(Map<String, ConcurrencyLimit> concurrencyLimits) {
+		this.concurrencyLimits = concurrencyLimits;
+	}
+
+	public static class ConcurrencyLimit {
+
+		private int initialLimit = 20;
+
+		private int minLimit = 5;
+
+		private int maxLimit = 500;
+
+		/**
+		 *  How many times the baseline latency may grow before the limit shrinks.
+		 **/
+		private double tolerance = 2.0;
+
+		/**
+		 *  Weight of each new limit estimate.
+		 **/
+		private double smoothing = 0.2;
+
+		/**
+		 *  Factor the limit is multiplied by when a request times out or the backend refuses it as overloaded.
+		 **/
+		private double backoffRatio = 0.9;
+
+		/**
+		 *  Amount of requests the baseline latency is averaged over.
+		 **/
+		private int baselineWindow = 500;
+
+		/**
+		 *  Sent in Retry-After of shed requests.
+		 **/
+		private int retryAfterSeconds = 1;
+
+		public int getInitialLimit() {
+			return initialLimit;
+		}
+
+		public void setInitialLimit(int initialLimit) {
+			this.initialLimit = initialLimit;
+		}
+
+		public int getMinLimit() {
+			return minLimit;
+		}
+
+		public void setMinLimit(int minLimit) {
+			this.minLimit = minLimit;
+		}
+
+		public int getMaxLimit() {
+			return maxLimit;
+		}
+
+		public void setMaxLimit(int maxLimit) {
+			this.maxLimit = maxLimit;
+		}
+
+		public double getTolerance() {
+			return tolerance;
+		}
+
+		public void setTolerance(double tolerance) {
+			this.tolerance = tolerance;
+		}
+
+		public double getSmoothing() {
+			return smoothing;
+		}
+
+		public void setSmoothing(double smoothing) {
+			this.smoothing = smoothing;
+		}
+
+		public double getBackoffRatio() {
+			return backoffRatio;
+		}
+
+		public void setBackoffRatio(double backoffRatio) {
+			this.backoffRatio = backoffRatio;
+		}
+
+		public int getBaselineWindow() {
+			return baselineWindow;
+		}
+
+		public void setBaselineWindow(int baselineWindow) {
+			this.baselineWindow = baselineWindow;
+		}
+
+		public int getRetryAfterSeconds() {
+			return retryAfterSeconds;
+		}
+
+		public void setRetryAfterSeconds(int retryAfterSeconds) {
+			this.retryAfterSeconds = retryAfterSeconds;
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.vds.account.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vds.account.gateway.filter.EdgeAuthenticationFilter;
+import com.vds.account.gateway.security.EdgeTokenResolver;
+import com.vds.account.gateway.security.PrincipalSigner;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ *  Wires token validation at the edge: requests of the protected routes reach downstream services with a signed
+ *  internal principal instead of a bearer token.
+ **/
+@Configuration
+public class EdgeSecurityConfig {
+
+	/**
+	 *  Resolves access tokens with the user info endpoint of account-auth over a pooled non-blocking client.
+	 *  @param userInfoUri - user info endpoint of account-auth
+	 *  @param maxConnections - max amount of pooled connections to account-auth
+	 *  @param connectTimeoutMillis - time to establish a connection or acquire it from the pool
+	 *  @param readTimeoutMillis - time to wait for the user info response
+	 *  @param maximumSize - max amount of cached tokens
+	 *  @param ttlSeconds - how long a resolved token is served from the cache
+	 *  @param rejectedTtlSeconds - how long a rejected token is served from the cache
+	 *  @param meterRegistry - registry the cache statistics are published to
+	 *  @return EdgeTokenResolver instance
+	 **/
+	@Bean(destroyMethod = "close")
+	public EdgeTokenResolver edgeTokenResolver(@Value("${security.oauth2.resource.user-info-uri}") String userInfoUri,
+											   @Value("${security.user-info-client.max-connections:200}") int maxConnections,
+											   @Value("${security.user-info-client.connect-timeout-millis:1000}") int connectTimeoutMillis,
+											   @Value("${security.user-info-client.read-timeout-millis:3000}") int readTimeoutMillis,
+											   @Value("${security.token-cache.maximum-size:10000}") long maximumSize,
+											   @Value("${security.token-cache.ttl-seconds:60}") long ttlSeconds,
+											   @Value("${security.token-cache.rejected-ttl-seconds:5}") long rejectedTtlSeconds,
+											   MeterRegistry meterRegistry) {
+		EdgeTokenResolver tokenResolver = new EdgeTokenResolver(userInfoUri, maxConnections,
+				Duration.ofMillis(connectTimeoutMillis), Duration.ofMillis(readTimeoutMillis),
+				maximumSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(rejectedTtlSeconds));
+		tokenResolver.bindTo(meterRegistry);
+		return tokenResolver;
+	}
+
+	/**
+	 *  Signs internal principal headers with the key shared with downstream services.
+	 *  @param secret - HMAC key
+	 *  @param ttlSeconds - how long a signed principal is accepted downstream
+	 *  @param objectMapper - serializes the claims
+	 *  @return PrincipalSigner instance
+	 **/
+	@Bean
+	public PrincipalSigner principalSigner(@Value("${security.internal-principal.secret}") String secret,
+										   @Value("${security.internal-principal.ttl-seconds:30}") long ttlSeconds,
+										   ObjectMapper objectMapper) {
+		return new PrincipalSigner(secret, Duration.ofSeconds(ttlSeconds), Clock.systemUTC(), objectMapper);
+	}
+
+	/**
+	 *  Global filter authenticating requests of the protected routes.
+	 *  @param routes - ids of the routes to authenticate, e.g. account-service
+	 *  @return EdgeAuthenticationFilter instance, picked up by the gateway as a bean
+	 **/
+	@Bean
+	public EdgeAuthenticationFilter edgeAuthenticationFilter(@Value("${security.edge.routes:account-service,trainer-service}") Set<String> routes,
+															 EdgeTokenResolver edgeTokenResolver,
+															 PrincipalSigner principalSigner,
+															 MeterRegistry meterRegistry) {
+		return new EdgeAuthenticationFilter(routes, edgeTokenResolver, principalSigner, meterRegistry);
+	}
+}
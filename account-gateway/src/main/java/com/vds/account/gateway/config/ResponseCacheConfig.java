@@ -0,0 +1,30 @@
+package com.vds.account.gateway.config;
+
+import com.vds.account.gateway.filter.ResponseCacheFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ *  Answers repeated GETs of the configured routes from the gateway, when gateway.response-cache.enabled is set.
+ **/
+@Configuration
+@ConditionalOnProperty(prefix = "gateway.response-cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+	/**
+	 *  @param properties - cached routes and size limits
+	 *  @param meterRegistry - registry the hit and size statistics are published to
+	 *  @return ResponseCacheFilter instance, picked up by the gateway as a bean
+	 **/
+	@Bean
+	public ResponseCacheFilter responseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+		return new ResponseCacheFilter(properties.getRoutes(), properties.getMaximumSizeBytes(),
+				properties.getMaximumEntryBytes(), Clock.systemUTC(), meterRegistry);
+	}
+}
@@ -0,0 +1,62 @@
+package com.vds.account.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ *  Response cache of idempotent GET routes, off unless enabled.
+ **/
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+	private boolean enabled;
+
+	/**
+	 *  Ids of the routes whose GET responses are cached.
+	 **/
+	private Set<String> routes = new HashSet<>();
+
+	/**
+	 *  Max total size of the cached bodies, kept out of the heap.
+	 **/
+	private long maximumSizeBytes = 64 * 1024 * 1024;
+
+	/**
+	 *  Larger bodies are passed through without being cached.
+	 **/
+	private int maximumEntryBytes = 256 * 1024;
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public Set<String> getRoutes() {
+		return routes;
+	}
+
+	public void setRoutes(Set<String> routes) {
+		this.routes = routes;
+	}
+
+	public long getMaximumSizeBytes() {
+		return maximumSizeBytes;
+	}
+
+	public void setMaximumSizeBytes(long maximumSizeBytes) {
+		this.maximumSizeBytes = maximumSizeBytes;
+	}
+
+	public int getMaximumEntryBytes() {
+		return maximumEntryBytes;
+	}
+
+	public void setMaximumEntryBytes(int maximumEntryBytes) {
+		this.maximumEntryBytes = maximumEntryBytes;
+	}
+}
@@ -0,0 +1,30 @@
+package com.vds.account.gateway.config;
+
+import com.vds.account.gateway.filter.ResponseCompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+
+/**
+ *  Compresses large responses of all routes, unless gateway.compression.enabled is turned off.
+ **/
+@Configuration
+@ConditionalOnProperty(prefix = "gateway.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ResponseCompressionProperties.class)
+public class ResponseCompressionConfig {
+
+	/**
+	 *  @param properties - threshold, level and compressible types
+	 *  @param meterRegistry - registry the compression time and byte counters are published to
+	 *  @return ResponseCompressionFilter instance, picked up by the gateway as a bean
+	 **/
+	@Bean
+	public ResponseCompressionFilter responseCompressionFilter(ResponseCompressionProperties properties,
+															   MeterRegistry meterRegistry) {
+		return new ResponseCompressionFilter(properties.getMinResponseSizeBytes(),
+				MediaType.parseMediaTypes(properties.getMimeTypes()), properties.getLevel(), meterRegistry);
+	}
+}
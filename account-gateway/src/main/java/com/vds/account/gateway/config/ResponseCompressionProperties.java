@@ -0,0 +1,60 @@
+package com.vds.account.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *  Gzip of responses at the gateway, on unless disabled.
+ **/
+@ConfigurationProperties(prefix = "gateway.compression")
+public class ResponseCompressionProperties {
+
+	private boolean enabled = true;
+
+	/**
+	 *  Smaller responses are sent as they are, their gzip overhead outweighs the savings.
+	 **/
+	private int minResponseSizeBytes = 2048;
+
+	/**
+	 *  Deflate level from 1, fastest, to 9, smallest output.
+	 **/
+	private int level = 6;
+
+	private List<String> mimeTypes = new ArrayList<>(List.of("application/json", "application/*+json",
+			"application/xml", "text/html", "text/xml", "text/plain", "text/css", "application/javascript"));
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public int getMinResponseSizeBytes() {
+		return minResponseSizeBytes;
+	}
+
+	public void setMinResponseSizeBytes(int minResponseSizeBytes) {
+		this.minResponseSizeBytes = minResponseSizeBytes;
+	}
+
+	public int getLevel() {
+		return level;
+	}
+
+	public void setLevel(int level) {
+		this.level = level;
+	}
+
+	public List<String> getMimeTypes() {
+		return mimeTypes;
+	}
+
+	public void setMimeTypes(List<String> mimeTypes) {
+		this.mimeTypes = mimeTypes;
+	}
+}
@@ -0,0 +1,30 @@
+package com.vds.account.gateway.config;
+
+import com.vds.account.gateway.filter.RouteClientRoutingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ *  Isolates routes from each other: every route listed under gateway.route-clients gets its own connection pool
+ *  and timeouts, so a slow backend can't exhaust connections the other backends need.
+ **/
+@Configuration
+@EnableConfigurationProperties(RouteClientProperties.class)
+public class RouteClientConfig {
+
+	/**
+	 *  @param properties - pools and timeouts per route id
+	 *  @param headersFilters - header filters applied by the shared routing filter as well
+	 *  @return RouteClientRoutingFilter instance, picked up by the gateway as a bean
+	 **/
+	@Bean
+	public RouteClientRoutingFilter routeClientRoutingFilter(RouteClientProperties properties,
+															 ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+		return new RouteClientRoutingFilter(properties.getRouteClients(), headersFilters);
+	}
+}
@@ -0,0 +1,75 @@
+package com.vds.account.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *  Connection pool and timeouts of each route, keyed by route id. Routes without an entry use the shared client.
+ **/
+@ConfigurationProperties(prefix = "gateway")
+public class RouteClientProperties {
+
+	private Map<String, RouteClient> routeClients = new HashMap<>();
+
+	public Map<String, RouteClient> getRouteClients() {
+		return routeClients;
+	}
+
+	public void setRouteClients(Map<String, RouteClient> routeClients) {
+		this.routeClients = routeClients;
+	}
+
+	public static class RouteClient {
+
+		/**
+		 *  Max amount of open connections to the backend of the route.
+		 **/
+		private int maxConnections = 500;
+
+		/**
+		 *  How long a request waits for a free connection when all of them are busy.
+		 **/
+		private long acquireTimeoutMillis = 1000;
+
+		private int connectTimeoutMillis = 2000;
+
+		/**
+		 *  How long the backend may take to respond, the request fails with 504 afterwards.
+		 **/
+		private long responseTimeoutMillis = 10000;
+
+		public int getMaxConnections() {
+			return maxConnections;
+		}
+
+		public void setMaxConnections(int maxConnections) {
+			this.maxConnections = maxConnections;
+		}
+
+		public long getAcquireTimeoutMillis() {
+			return acquireTimeoutMillis;
+		}
+
+		public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+			this.acquireTimeoutMillis = acquireTimeoutMillis;
+		}
+
+		public int getConnectTimeoutMillis() {
+			return connectTimeoutMillis;
+		}
+
+		public void setConnectTimeoutMillis(int connectTimeoutMillis) {
+			this.connectTimeoutMillis = connectTimeoutMillis;
+		}
+
+		public long getResponseTimeoutMillis() {
+			return responseTimeoutMillis;
+		}
+
+		public void setResponseTimeoutMillis(long responseTimeoutMillis) {
+			this.responseTimeoutMillis = responseTimeoutMillis;
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.vds.account.gateway.filter;
+
+import com.vds.account.gateway.config.ConcurrencyLimitProperties;
+import com.vds.account.gateway.limit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ *  Sheds requests of a route once as many are in flight as its backend currently handles without queuing.
+ *
+ *  Each configured route has an adaptive limit driven by the latency of its responses. A request over the limit
+ *  is answered with 503 and Retry-After right away instead of waiting on a slow backend, so a slow account-auth
+ *  degrades into fast rejections rather than timeouts piling up at the gateway. Latency is measured up to the
+ *  response headers, a slow client reading the body doesn't count against the backend. A 503 or 504 of the
+ *  backend, a timeout or a connection failure counts as a drop.
+ **/
+public class ConcurrencyLimitFilter implements GlobalFilter, Ordered {
+
+	/**
+	 *  Runs after the response cache, so cached responses don't take a slot, and before routing.
+	 **/
+	public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER + 1;
+
+	private final Map<String, RouteLimit> limits = new HashMap<>();
+
+	public ConcurrencyLimitFilter(Map<String, ConcurrencyLimitProperties.ConcurrencyLimit> concurrencyLimits,
+								  MeterRegistry registry) {
+		concurrencyLimits.forEach((routeId, properties) -> {
+			AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties.getInitialLimit(),
+					properties.getMinLimit(), properties.getMaxLimit(), properties.getTolerance(),
+					properties.getSmoothing(), properties.getBackoffRatio(), properties.getBaselineWindow());
+			Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+					.tag("route", routeId)
+					.description("requests the route currently lets through at once")
+					.register(registry);
+			Gauge.builder("gateway.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+					.tag("route", routeId)
+					.description("requests of the route waiting for the backend")
+					.register(registry);
+			Counter rejected = Counter.builder("gateway.concurrency.rejected")
+					.tag("route", routeId)
+					.description("requests shed with 503 because the route was at its limit")
+					.register(registry);
+			limits.put(routeId, new RouteLimit(limiter, rejected, String.valueOf(properties.getRetryAfterSeconds())));
+		});
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		RouteLimit limit = route != null ? limits.get(route.getId()) : null;
+		if (limit == null) {
+			return chain.filter(exchange);
+		}
+		if (!limit.limiter.tryAcquire()) {
+			limit.rejected.increment();
+			ServerHttpResponse response = exchange.getResponse();
+			response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+			response.getHeaders().set(HttpHeaders.RETRY_AFTER, limit.retryAfter);
+			return response.setComplete();
+		}
+		long started = System.nanoTime();
+		return chain.filter(exchange)
+				.doFinally(signal -> {
+					if (signal == SignalType.CANCEL) {
+						limit.limiter.onIgnored();
+					} else if (signal == SignalType.ON_ERROR || isOverloaded(exchange.getResponse().getStatusCode())) {
+						limit.limiter.onDropped();
+					} else {
+						limit.limiter.onSuccess(System.nanoTime() - started);
+					}
+				});
+	}
+
+	private static boolean isOverloaded(HttpStatus status) {
+		return status == HttpStatus.SERVICE_UNAVAILABLE || status == HttpStatus.GATEWAY_TIMEOUT;
+	}
+
+	private static final class RouteLimit {
+
+		private final AdaptiveConcurrencyLimiter limiter;
+
+		private final Counter rejected;
+
+		private final String retryAfter;
+
+		private RouteLimit(AdaptiveConcurrencyLimiter limiter, Counter rejected, String retryAfter) {
+			this.limiter = limiter;
+			this.rejected = rejected;
+			this.retryAfter = retryAfter;
+		}
+	}
+}
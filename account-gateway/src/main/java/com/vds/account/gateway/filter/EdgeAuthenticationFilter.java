@@ -0,0 +1,130 @@
+package com.vds.account.gateway.filter;
+
+import com.vds.account.gateway.security.EdgeTokenResolver;
+import com.vds.account.gateway.security.PrincipalSigner;
+import com.vds.account.gateway.security.RejectedTokenException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ *  Validates bearer tokens at the edge and forwards the caller as a signed internal principal header.
+ *
+ *  Applies to the configured routes only, account-auth itself is routed untouched. A request with a valid token is
+ *  forwarded with the internal principal header and without the token, so the downstream service authorizes it
+ *  with no call to account-auth. A rejected token is answered with 401 right here. When account-auth can't be
+ *  reached the request is forwarded with its token, and the downstream service validates it as before. An internal
+ *  principal header sent by a client is always dropped.
+ **/
+public class EdgeAuthenticationFilter implements GlobalFilter, Ordered {
+
+	/**
+	 *  Exchange attribute holding the claims of the authenticated caller, set for requests forwarded with a principal.
+	 **/
+	public static final String PRINCIPAL_ATTR = EdgeAuthenticationFilter.class.getName() + ".principal";
+
+	private static final String BEARER_PREFIX = "bearer ";
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Set<String> routes;
+
+	private final EdgeTokenResolver tokenResolver;
+
+	private final PrincipalSigner principalSigner;
+
+	private final Counter authenticated;
+
+	private final Counter rejected;
+
+	private final Counter bypassed;
+
+	public EdgeAuthenticationFilter(Set<String> routes,
+									EdgeTokenResolver tokenResolver,
+									PrincipalSigner principalSigner,
+									MeterRegistry registry) {
+		this.routes = routes;
+		this.tokenResolver = tokenResolver;
+		this.principalSigner = principalSigner;
+		this.authenticated = Counter.builder("edge.authentication")
+				.tag("result", "authenticated")
+				.description("requests forwarded with an internal principal")
+				.register(registry);
+		this.rejected = Counter.builder("edge.authentication")
+				.tag("result", "rejected")
+				.description("requests answered with 401 at the edge")
+				.register(registry);
+		this.bypassed = Counter.builder("edge.authentication")
+				.tag("result", "bypassed")
+				.description("requests forwarded with their token because account-auth couldn't be reached")
+				.register(registry);
+	}
+
+	/**
+	 *  Runs first among global filters, the route of the request is already resolved by then.
+	 **/
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		if (route == null || !routes.contains(route.getId())) {
+			return chain.filter(exchange);
+		}
+		ServerWebExchange stripped = exchange.mutate()
+				.request(request -> request.headers(headers -> headers.remove(PrincipalSigner.HEADER)))
+				.build();
+
+		String authorization = stripped.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+		if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+			return chain.filter(stripped);
+		}
+		return tokenResolver.resolve(authorization.substring(BEARER_PREFIX.length()).trim())
+				.map(claims -> {
+					String principal = principalSigner.sign(claims);
+					authenticated.increment();
+					stripped.getAttributes().put(PRINCIPAL_ATTR, claims);
+					return Optional.of(stripped.mutate()
+							.request(request -> request.headers(headers -> {
+								headers.remove(HttpHeaders.AUTHORIZATION);
+								headers.set(PrincipalSigner.HEADER, principal);
+							}))
+							.build());
+				})
+				.onErrorResume(RejectedTokenException.class, e -> {
+					rejected.increment();
+					return Mono.just(Optional.empty());
+				})
+				.onErrorResume(e -> {
+					bypassed.increment();
+					log.warn("access token can't be validated at the edge, forwarding it to {}", route.getId(), e);
+					return Mono.just(Optional.of(stripped));
+				})
+				.flatMap(forwarded -> forwarded.isPresent() ? chain.filter(forwarded.get()) : unauthorized(exchange));
+	}
+
+	private static Mono<Void> unauthorized(ServerWebExchange exchange) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatus.UNAUTHORIZED);
+		response.getHeaders().set(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\"");
+		return response.setComplete();
+	}
+}
@@ -0,0 +1,463 @@
+package com.vds.account.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.IllegalReferenceCountException;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ *  Caches successful GET responses of the configured routes as the backend allows.
+ *
+ *  Entries are keyed by route, path, query and the caller resolved at the edge. Requests still carrying a token
+ *  the edge couldn't resolve are never cached, since their caller is unknown. A response is stored when the
+ *  backend marks it cacheable: no no-store, no cookies and no Vary, and either a max-age or an ETag. A fresh entry
+ *  is served without calling the backend, answering If-None-Match of the client with 304. A stale entry with an
+ *  ETag is revalidated: the backend gets the ETag as If-None-Match and its 304 renews the entry.
+ *
+ *  Bodies are copied chunk by chunk straight into pooled direct Netty buffers, so cached bytes never pass through
+ *  the heap. The cache is bounded by the total size of the bodies, and a body goes back to the pool as soon as its
+ *  entry is evicted, replaced or invalidated. A request answered from an entry holds its own reference to the body
+ *  until the response is written, so an eviction in the meantime doesn't free bytes still being sent.
+ **/
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+	/**
+	 *  Runs after edge authentication and right before the filter writing the backend response, so it sees the
+	 *  resolved caller and wraps the response the backend body is written to.
+	 **/
+	public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+	/**
+	 *  Rough heap footprint of an entry besides its body: key, headers and holders.
+	 **/
+	private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+	private final Set<String> routes;
+
+	private final int maximumEntryBytes;
+
+	private final Clock clock;
+
+	private final Cache<String, CachedResponse> responses;
+
+	private final Counter hits;
+
+	private final Counter revalidations;
+
+	private final Counter misses;
+
+	public ResponseCacheFilter(Set<String> routes,
+							   long maximumSizeBytes,
+							   int maximumEntryBytes,
+							   Clock clock,
+							   MeterRegistry registry) {
+		this.routes = routes;
+		this.maximumEntryBytes = maximumEntryBytes;
+		this.clock = clock;
+		this.responses = Caffeine.newBuilder()
+				.maximumWeight(maximumSizeBytes)
+				.weigher((String key, CachedResponse response) -> response.weight(key))
+				.removalListener((String key, CachedResponse response, RemovalCause cause) -> {
+					if (response != null) {
+						response.release();
+					}
+				})
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(registry, responses, "gateway.response-cache");
+		Gauge.builder("gateway.response-cache.bytes", responses,
+				cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+				.description("approximate size of the cached responses")
+				.register(registry);
+		this.hits = Counter.builder("gateway.response-cache.requests")
+				.tag("result", "hit")
+				.description("requests answered from the cache without calling the backend")
+				.register(registry);
+		this.revalidations = Counter.builder("gateway.response-cache.requests")
+				.tag("result", "revalidated")
+				.description("requests answered from the cache after the backend confirmed the entry")
+				.register(registry);
+		this.misses = Counter.builder("gateway.response-cache.requests")
+				.tag("result", "miss")
+				.description("cacheable requests passed to the backend")
+				.register(registry);
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		ServerHttpRequest request = exchange.getRequest();
+		if (route == null || !routes.contains(route.getId()) || request.getMethod() != HttpMethod.GET) {
+			return chain.filter(exchange);
+		}
+		String key = key(route.getId(), exchange);
+		if (key == null) {
+			return chain.filter(exchange);
+		}
+
+		String clientValidators = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+		CachedResponse cached = retained(responses.getIfPresent(key));
+		if (cached != null && cached.isFresh(clock.millis()) && !hasDirective(request.getHeaders(), "no-cache")) {
+			hits.increment();
+			return write(exchange.getResponse(), cached, clientValidators)
+					.doFinally(signal -> cached.release());
+		}
+		if (cached == null || cached.etag == null) {
+			if (cached != null) {
+				cached.release();
+			}
+			misses.increment();
+			return chain.filter(exchange.mutate()
+					.response(new CachingResponse(exchange.getResponse(), key, null, clientValidators))
+					.build());
+		}
+		return chain.filter(exchange.mutate()
+				.request(mutated -> mutated.headers(headers -> headers.set(HttpHeaders.IF_NONE_MATCH, cached.etag)))
+				.response(new CachingResponse(exchange.getResponse(), key, cached, clientValidators))
+				.build())
+				.doFinally(signal -> cached.release());
+	}
+
+	/**
+	 *  @return the entry with a reference to its body taken for the request, null if it has been released already
+	 **/
+	private static CachedResponse retained(CachedResponse cached) {
+		if (cached == null) {
+			return null;
+		}
+		try {
+			cached.body.retain();
+			return cached;
+		} catch (IllegalReferenceCountException e) {
+			return null;
+		}
+	}
+
+	/**
+	 *  @return cache key of the request, null if its caller can't be told apart
+	 **/
+	private static String key(String routeId, ServerWebExchange exchange) {
+		ServerHttpRequest request = exchange.getRequest();
+		Map<String, Object> principal = exchange.getAttribute(EdgeAuthenticationFilter.PRINCIPAL_ATTR);
+		if (principal == null && request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+			return null;
+		}
+		String query = request.getURI().getRawQuery();
+		return routeId + ' ' + request.getURI().getRawPath() + (query != null ? '?' + query : "")
+				+ ' ' + (principal != null ? principal : "");
+	}
+
+	/**
+	 *  Writes the cached response over the headers set so far, only the stored headers are replaced. The caller
+	 *  holds a reference to the body until the write completes.
+	 **/
+	private static Mono<Void> write(ServerHttpResponse response, CachedResponse cached, String clientValidators) {
+		cached.headers.forEach((name, values) -> response.getHeaders().put(name, new ArrayList<>(values)));
+		if (matches(clientValidators, cached.etag)) {
+			response.setStatusCode(HttpStatus.NOT_MODIFIED);
+			response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+			response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+			return response.setComplete();
+		}
+		response.setStatusCode(HttpStatus.OK);
+		response.getHeaders().setContentLength(cached.body.readableBytes());
+		return response.writeWith(Mono.fromSupplier(() -> body(response.bufferFactory(), cached.body)));
+	}
+
+	/**
+	 *  @return the cached body as a buffer of the response, released by the server once it is written
+	 **/
+	private static DataBuffer body(DataBufferFactory bufferFactory, ByteBuf body) {
+		if (bufferFactory instanceof NettyDataBufferFactory) {
+			return ((NettyDataBufferFactory) bufferFactory).wrap(body.retainedDuplicate());
+		}
+		return bufferFactory.allocateBuffer(body.readableBytes()).write(body.nioBuffer());
+	}
+
+	/**
+	 *  @param validators - If-None-Match value of the client
+	 *  @param etag - entity tag of the cached response
+	 *  @return true if the client already has the cached response, compared weakly as If-None-Match requires
+	 **/
+	static boolean matches(String validators, String etag) {
+		if (validators == null || etag == null) {
+			return false;
+		}
+		String opaque = weakless(etag);
+		for (String validator : validators.split(",")) {
+			String trimmed = validator.trim();
+			if (trimmed.equals("*") || weakless(trimmed).equals(opaque)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String weakless(String etag) {
+		return etag.startsWith("W/") ? etag.substring(2) : etag;
+	}
+
+	private static boolean hasDirective(HttpHeaders headers, String directive) {
+		for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+			for (String candidate : value.split(",")) {
+				if (candidate.trim().equalsIgnoreCase(directive)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 *  @return how long the response may be served without revalidation in millis, -1 if it may not be cached
+	 **/
+	private static long maxAgeMillis(HttpHeaders headers) {
+		if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.VARY)) {
+			return -1;
+		}
+		long maxAge = 0;
+		long sharedMaxAge = -1;
+		boolean noCache = false;
+		for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+			for (String directive : value.split(",")) {
+				String trimmed = directive.trim().toLowerCase();
+				if (trimmed.equals("no-store")) {
+					return -1;
+				} else if (trimmed.equals("no-cache")) {
+					noCache = true;
+				} else if (trimmed.startsWith("max-age=")) {
+					maxAge = seconds(trimmed.substring("max-age=".length()));
+				} else if (trimmed.startsWith("s-maxage=")) {
+					sharedMaxAge = seconds(trimmed.substring("s-maxage=".length()));
+				}
+			}
+		}
+		long millis = noCache ? 0 : (sharedMaxAge >= 0 ? sharedMaxAge : maxAge) * 1000;
+		return millis > 0 || headers.getETag() != null ? millis : -1;
+	}
+
+	private static long seconds(String value) {
+		try {
+			return Math.max(0, Long.parseLong(value.replace("\"", "")));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 *  Stores the backend response while it is written to the client, or answers from the cached one when the
+	 *  backend confirms it with 304.
+	 **/
+	private class CachingResponse extends ServerHttpResponseDecorator {
+
+		private final String key;
+
+		private final CachedResponse revalidated;
+
+		private final String clientValidators;
+
+		private CachingResponse(ServerHttpResponse delegate, String key, CachedResponse revalidated, String clientValidators) {
+			super(delegate);
+			this.key = key;
+			this.revalidated = revalidated;
+			this.clientValidators = clientValidators;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			HttpStatus status = getStatusCode();
+			long now = clock.millis();
+			if (revalidated != null && status == HttpStatus.NOT_MODIFIED) {
+				CachedResponse renewed = revalidated.renew(getHeaders(), now);
+				if (renewed != null) {
+					responses.put(key, renewed);
+				} else {
+					responses.invalidate(key);
+				}
+				revalidations.increment();
+				return Flux.from(body)
+						.doOnNext(DataBufferUtils::release)
+						.then(Mono.defer(() -> write(getDelegate(), renewed != null ? renewed : revalidated, clientValidators)));
+			}
+			if (status != HttpStatus.OK) {
+				return super.writeWith(body);
+			}
+			long maxAgeMillis = maxAgeMillis(getHeaders());
+			if (maxAgeMillis < 0) {
+				responses.invalidate(key);
+				return super.writeWith(body);
+			}
+			HttpHeaders headers = storedHeaders(getHeaders());
+			BodyCopy copy = new BodyCopy(maximumEntryBytes);
+			return super.writeWith(Flux.from(body)
+					.doOnNext(copy::append)
+					.doOnComplete(() -> {
+						ByteBuf bytes = copy.take();
+						if (bytes != null) {
+							responses.put(key, new CachedResponse(headers, bytes, now + maxAgeMillis));
+						}
+					})
+					.doFinally(signal -> copy.discard()));
+		}
+	}
+
+	/**
+	 *  Copies body chunks on their way to the client into a pooled direct buffer, up to the max size of an entry.
+	 *  The chunks themselves are left unread for the client. Cancellation may race with a chunk, hence the locking.
+	 **/
+	private static final class BodyCopy {
+
+		private final int maximumBytes;
+
+		private ByteBuf bytes;
+
+		private BodyCopy(int maximumBytes) {
+			this.maximumBytes = maximumBytes;
+			this.bytes = PooledByteBufAllocator.DEFAULT.directBuffer(0, maximumBytes);
+		}
+
+		private synchronized void append(DataBuffer buffer) {
+			int size = buffer.readableByteCount();
+			if (bytes == null) {
+				return;
+			}
+			if (bytes.readableBytes() + size > maximumBytes) {
+				discard();
+				return;
+			}
+			if (buffer instanceof NettyDataBuffer) {
+				ByteBuf chunk = ((NettyDataBuffer) buffer).getNativeBuffer();
+				bytes.writeBytes(chunk, chunk.readerIndex(), size);
+			} else {
+				bytes.writeBytes(buffer.asByteBuffer());
+			}
+		}
+
+		/**
+		 *  @return copied body handed over to the caller, null if it is too large to cache
+		 **/
+		private synchronized ByteBuf take() {
+			ByteBuf taken = bytes;
+			bytes = null;
+			if (taken != null && taken.capacity() > taken.readableBytes()) {
+				// give back the room the buffer grew by, the entry is weighed by its capacity
+				taken.capacity(taken.readableBytes());
+			}
+			return taken;
+		}
+
+		/**
+		 *  Returns the copy to the pool unless it has been taken.
+		 **/
+		private synchronized void discard() {
+			if (bytes != null) {
+				bytes.release();
+				bytes = null;
+			}
+		}
+	}
+
+	/**
+	 *  Drops hop-by-hop headers, which describe the connection of the original response only.
+	 **/
+	private static HttpHeaders storedHeaders(HttpHeaders responseHeaders) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.putAll(responseHeaders);
+		List.of(HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, "Keep-Alive", HttpHeaders.CONTENT_LENGTH)
+				.forEach(headers::remove);
+		return HttpHeaders.readOnlyHttpHeaders(headers);
+	}
+
+	/**
+	 *  Entry of the cache, which owns one reference to its body.
+	 **/
+	private static final class CachedResponse {
+
+		private final HttpHeaders headers;
+
+		private final String etag;
+
+		private final ByteBuf body;
+
+		private final long expiresAt;
+
+		private CachedResponse(HttpHeaders headers, ByteBuf body, long expiresAt) {
+			this.headers = headers;
+			this.etag = headers.getETag();
+			this.body = body;
+			this.expiresAt = expiresAt;
+		}
+
+		private boolean isFresh(long now) {
+			return now < expiresAt;
+		}
+
+		/**
+		 *  @param notModified - headers of the 304 confirming the entry, they replace the stored validators
+		 *  @return entry fresh again for the max age the backend sent, with its own reference to the shared body,
+		 *  null if it may no longer be cached
+		 **/
+		private CachedResponse renew(HttpHeaders notModified, long now) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.putAll(this.headers);
+			for (String name : List.of(HttpHeaders.CACHE_CONTROL, HttpHeaders.ETAG, HttpHeaders.EXPIRES, HttpHeaders.VARY)) {
+				if (notModified.containsKey(name)) {
+					headers.put(name, notModified.get(name));
+				}
+			}
+			long maxAgeMillis = maxAgeMillis(headers);
+			return maxAgeMillis < 0 ? null
+					: new CachedResponse(HttpHeaders.readOnlyHttpHeaders(headers), body.retain(), now + maxAgeMillis);
+		}
+
+		/**
+		 *  Drops a reference to the body, the last one returns it to the pool.
+		 **/
+		private void release() {
+			body.release();
+		}
+
+		private int weight(String key) {
+			return body.capacity() + key.length() * 2 + ENTRY_OVERHEAD_BYTES;
+		}
+	}
+}
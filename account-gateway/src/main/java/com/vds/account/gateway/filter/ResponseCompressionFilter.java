@@ -0,0 +1,323 @@
+package com.vds.account.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ *  Gzips responses of compressible types for clients that accept it, once they reach the size threshold.
+ *
+ *  Bodies stay streamed: only the chunks up to the threshold are held back to decide whether compressing pays
+ *  off, later chunks are compressed and sent as they arrive from the backend. Responses the backend has encoded
+ *  already, or marked no-transform, pass through untouched. Compression time, bytes in and bytes saved are
+ *  published per route.
+ **/
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+	/**
+	 *  Runs before the response cache, so cached bodies are stored plain and compressed when served.
+	 **/
+	public static final int ORDER = ResponseCacheFilter.ORDER - 1;
+
+	private static final String GZIP = "gzip";
+
+	private final int minResponseSize;
+
+	private final List<MediaType> mimeTypes;
+
+	private final int level;
+
+	private final MeterRegistry registry;
+
+	private final Map<String, RouteMeters> meters = new ConcurrentHashMap<>();
+
+	public ResponseCompressionFilter(int minResponseSize,
+									 List<MediaType> mimeTypes,
+									 int level,
+									 MeterRegistry registry) {
+		this.minResponseSize = minResponseSize;
+		this.mimeTypes = mimeTypes;
+		this.level = level;
+		this.registry = registry;
+	}
+
+	@Override
+	public int getOrder() {
+		return ORDER;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		if (route == null || exchange.getRequest().getMethod() == HttpMethod.HEAD
+				|| !acceptsGzip(exchange.getRequest().getHeaders())) {
+			return chain.filter(exchange);
+		}
+		RouteMeters routeMeters = meters.computeIfAbsent(route.getId(), RouteMeters::new);
+		return chain.filter(exchange.mutate()
+				.response(new CompressingResponse(exchange.getResponse(), routeMeters))
+				.build());
+	}
+
+	static boolean acceptsGzip(HttpHeaders requestHeaders) {
+		for (String value : requestHeaders.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+			for (String coding : value.split(",")) {
+				String[] parts = coding.trim().split(";");
+				String name = parts[0].trim();
+				if ((name.equalsIgnoreCase(GZIP) || name.equals("*")) && !isRefused(parts)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean isRefused(String[] codingParts) {
+		for (int i = 1; i < codingParts.length; i++) {
+			String parameter = codingParts[i].trim();
+			if (parameter.startsWith("q=")) {
+				try {
+					return Double.parseDouble(parameter.substring(2)) == 0;
+				} catch (NumberFormatException e) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private boolean isCompressible(ServerHttpResponse response) {
+		HttpHeaders headers = response.getHeaders();
+		HttpStatus status = response.getStatusCode();
+		if (status == null || !status.is2xxSuccessful() || status == HttpStatus.NO_CONTENT
+				|| headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.containsKey(HttpHeaders.CONTENT_RANGE)
+				|| headers.getContentType() == null) {
+			return false;
+		}
+		for (String value : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+			if (value.toLowerCase().contains("no-transform")) {
+				return false;
+			}
+		}
+		long contentLength = headers.getContentLength();
+		if (contentLength >= 0 && contentLength < minResponseSize) {
+			return false;
+		}
+		MediaType contentType = headers.getContentType();
+		return mimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(contentType));
+	}
+
+	/**
+	 *  Holds the body back up to the threshold, then compresses it and the rest of the stream if the threshold
+	 *  is reached.
+	 **/
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final RouteMeters routeMeters;
+
+		private CompressingResponse(ServerHttpResponse delegate, RouteMeters routeMeters) {
+			super(delegate);
+			this.routeMeters = routeMeters;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			if (!isCompressible(this)) {
+				return super.writeWith(body);
+			}
+			AtomicLong held = new AtomicLong();
+			ResponseEncoding encoding = new ResponseEncoding(this, routeMeters);
+			return super.writeWith(Flux.<DataBuffer>from(body)
+					.bufferUntil(buffer -> held.addAndGet(buffer.readableByteCount()) >= minResponseSize)
+					.concatMap(encoding::encode)
+					.concatWith(Mono.defer(encoding::finish))
+					.doFinally(signal -> encoding.close()));
+		}
+	}
+
+	/**
+	 *  Decides on the first group of chunks: the group reaches the threshold unless the whole body is smaller.
+	 **/
+	private final class ResponseEncoding {
+
+		private final ServerHttpResponse response;
+
+		private final RouteMeters routeMeters;
+
+		private boolean decided;
+
+		private GzipEncoder encoder;
+
+		private ResponseEncoding(ServerHttpResponse response, RouteMeters routeMeters) {
+			this.response = response;
+			this.routeMeters = routeMeters;
+		}
+
+		private Flux<DataBuffer> encode(List<DataBuffer> group) {
+			if (!decided) {
+				decided = true;
+				if (group.stream().mapToLong(DataBuffer::readableByteCount).sum() >= minResponseSize) {
+					HttpHeaders headers = response.getHeaders();
+					headers.remove(HttpHeaders.CONTENT_LENGTH);
+					headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+					headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+					encoder = new GzipEncoder(level);
+				}
+			}
+			if (encoder == null) {
+				return Flux.fromIterable(group);
+			}
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+			group.forEach(buffer -> compressed.writeBytes(encoder.encode(buffer)));
+			return compressed.size() > 0 ? Flux.just(response.bufferFactory().wrap(compressed.toByteArray())) : Flux.empty();
+		}
+
+		private Mono<DataBuffer> finish() {
+			return encoder != null ? Mono.fromSupplier(() -> response.bufferFactory().wrap(encoder.finish())) : Mono.empty();
+		}
+
+		private void close() {
+			if (encoder != null) {
+				encoder.close();
+				routeMeters.record(encoder);
+			}
+		}
+	}
+
+	/**
+	 *  Streaming gzip of a single response. Output produced so far is taken after every chunk, whatever the
+	 *  deflater keeps for its window comes out with the next chunks or at the end.
+	 **/
+	private static final class GzipEncoder {
+
+		private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+		private final GZIPOutputStream gzip;
+
+		private long bytesIn;
+
+		private long bytesOut;
+
+		private long nanos;
+
+		private GzipEncoder(int level) {
+			try {
+				this.gzip = new GZIPOutputStream(sink) {
+					{
+						def.setLevel(level);
+					}
+				};
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 *  Compresses the chunk and releases it.
+		 **/
+		private byte[] encode(DataBuffer buffer) {
+			long started = System.nanoTime();
+			try {
+				int size = buffer.readableByteCount();
+				byte[] chunk = new byte[size];
+				buffer.read(chunk);
+				gzip.write(chunk);
+				bytesIn += size;
+				return drain();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				DataBufferUtils.release(buffer);
+				nanos += System.nanoTime() - started;
+			}
+		}
+
+		private byte[] finish() {
+			long started = System.nanoTime();
+			try {
+				gzip.finish();
+				return drain();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				nanos += System.nanoTime() - started;
+			}
+		}
+
+		private byte[] drain() {
+			byte[] compressed = sink.toByteArray();
+			sink.reset();
+			bytesOut += compressed.length;
+			return compressed;
+		}
+
+		/**
+		 *  Frees the native memory of the deflater, also when the response is cancelled.
+		 **/
+		private void close() {
+			try {
+				gzip.close();
+			} catch (IOException e) {
+				// nothing is left to send
+			}
+		}
+	}
+
+	private final class RouteMeters {
+
+		private final Timer time;
+
+		private final Counter bytesIn;
+
+		private final Counter bytesSaved;
+
+		private RouteMeters(String routeId) {
+			this.time = Timer.builder("gateway.compression.time")
+					.tag("route", routeId)
+					.description("time spent compressing responses")
+					.register(registry);
+			this.bytesIn = Counter.builder("gateway.compression.bytes-in")
+					.tag("route", routeId)
+					.description("response bytes before compression")
+					.register(registry);
+			this.bytesSaved = Counter.builder("gateway.compression.bytes-saved")
+					.tag("route", routeId)
+					.description("response bytes compression has saved")
+					.register(registry);
+		}
+
+		private void record(GzipEncoder encoder) {
+			time.record(encoder.nanos, TimeUnit.NANOSECONDS);
+			bytesIn.increment(encoder.bytesIn);
+			bytesSaved.increment(Math.max(0, encoder.bytesIn - encoder.bytesOut));
+		}
+	}
+}
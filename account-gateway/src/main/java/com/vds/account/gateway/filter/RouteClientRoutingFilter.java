@@ -0,0 +1,77 @@
+package com.vds.account.gateway.filter;
+
+import com.vds.account.gateway.config.RouteClientProperties;
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ *  Proxies requests of each configured route through a connection pool and timeouts of its own.
+ *
+ *  The gateway routes all requests through one shared Netty client, so a slow backend holding many connections
+ *  makes requests to the other backends wait for the pool. This filter runs right before the shared routing
+ *  filter and hands requests of a configured route to a routing filter built on the route's own client. It marks
+ *  the request as routed, so the shared routing filter skips it. Requests still run on the event loop: a slow
+ *  backend costs a pooled connection, never a thread.
+ **/
+public class RouteClientRoutingFilter implements GlobalFilter, Ordered, DisposableBean {
+
+	private final Map<String, NettyRoutingFilter> routingFilters = new HashMap<>();
+
+	private final List<ConnectionProvider> connectionProviders = new ArrayList<>();
+
+	public RouteClientRoutingFilter(Map<String, RouteClientProperties.RouteClient> routeClients,
+									ObjectProvider<List<HttpHeadersFilter>> headersFilters) {
+		routeClients.forEach((routeId, client) -> {
+			ConnectionProvider connectionProvider = ConnectionProvider.fixed("gateway-" + routeId,
+					client.getMaxConnections(), client.getAcquireTimeoutMillis());
+			connectionProviders.add(connectionProvider);
+			HttpClient httpClient = HttpClient.create(connectionProvider)
+					.tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, client.getConnectTimeoutMillis()));
+
+			HttpClientProperties properties = new HttpClientProperties();
+			properties.setConnectTimeout(client.getConnectTimeoutMillis());
+			properties.setResponseTimeout(Duration.ofMillis(client.getResponseTimeoutMillis()));
+			routingFilters.put(routeId, new NettyRoutingFilter(httpClient, headersFilters, properties));
+		});
+	}
+
+	/**
+	 *  Runs right before the shared routing filter, after the load balancer has resolved the backend instance.
+	 **/
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		NettyRoutingFilter routingFilter = route != null ? routingFilters.get(route.getId()) : null;
+		return routingFilter != null ? routingFilter.filter(exchange, chain) : chain.filter(exchange);
+	}
+
+	@Override
+	public void destroy() {
+		connectionProviders.forEach(ConnectionProvider::dispose);
+	}
+}
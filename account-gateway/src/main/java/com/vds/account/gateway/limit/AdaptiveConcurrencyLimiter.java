@@ -0,0 +1,130 @@
+package com.vds.account.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Concurrency limit of a backend that follows its observed latency.
+ *
+ *  The limit is estimated with a gradient: the ratio of the long term baseline latency, scaled by the tolerance,
+ *  to the latency of the completed request. While latency stays near the baseline the gradient is 1 and the
+ *  limit grows by its square root, so queuing at the backend is probed for. When latency rises the gradient drops
+ *  below 1 and the limit shrinks in proportion. A request that timed out or was refused by the backend shrinks the
+ *  limit multiplicatively. Changes are smoothed, and the limit only grows when at least half of it is in use.
+ *
+ *  Acquiring never blocks: a request over the limit is refused at once, so it can be shed rather than queued.
+ **/
+public class AdaptiveConcurrencyLimiter {
+
+	private final int minLimit;
+
+	private final int maxLimit;
+
+	private final double tolerance;
+
+	private final double smoothing;
+
+	private final double backoffRatio;
+
+	private final int baselineWindow;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private volatile int limit;
+
+	private double estimatedLimit;
+
+	private double baselineNanos;
+
+	/**
+	 *  @param initialLimit - limit until latency has been observed
+	 *  @param minLimit - the limit never shrinks below it
+	 *  @param maxLimit - the limit never grows above it
+	 *  @param tolerance - how many times the baseline latency may grow before the limit shrinks
+	 *  @param smoothing - weight of each new estimate, 1 applies it right away
+	 *  @param backoffRatio - factor the limit is multiplied by when a request is dropped
+	 *  @param baselineWindow - amount of requests the baseline latency is averaged over
+	 **/
+	public AdaptiveConcurrencyLimiter(int initialLimit,
+									  int minLimit,
+									  int maxLimit,
+									  double tolerance,
+									  double smoothing,
+									  double backoffRatio,
+									  int baselineWindow) {
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.tolerance = tolerance;
+		this.smoothing = smoothing;
+		this.backoffRatio = backoffRatio;
+		this.baselineWindow = baselineWindow;
+		this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+		this.limit = (int) estimatedLimit;
+	}
+
+	/**
+	 *  @return true if the request may proceed, it must then be completed with one of the release methods
+	 **/
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= limit) {
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 *  Completes a request that got a response from the backend and adjusts the limit to its latency.
+	 *  @param latencyNanos - time the backend took to respond
+	 **/
+	public void onSuccess(long latencyNanos) {
+		int inFlightAtCompletion = inFlight.getAndDecrement();
+		update(Math.max(1, latencyNanos), inFlightAtCompletion);
+	}
+
+	/**
+	 *  Completes a request the backend failed to serve in time or refused as overloaded, which shrinks the limit.
+	 **/
+	public synchronized void onDropped() {
+		inFlight.decrementAndGet();
+		estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+		limit = (int) estimatedLimit;
+	}
+
+	/**
+	 *  Completes a request that tells nothing about the backend, e.g. cancelled by the client.
+	 **/
+	public void onIgnored() {
+		inFlight.decrementAndGet();
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	private synchronized void update(long latencyNanos, int inFlightAtCompletion) {
+		if (baselineNanos == 0) {
+			baselineNanos = latencyNanos;
+		} else {
+			baselineNanos += (latencyNanos - baselineNanos) / baselineWindow;
+		}
+		if (baselineNanos > latencyNanos * 2) {
+			// latency dropped well below the baseline, e.g. after a backend recovered: let the baseline catch up
+			baselineNanos *= 0.95;
+		}
+		if (inFlightAtCompletion * 2 < estimatedLimit) {
+			return;
+		}
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineNanos / latencyNanos));
+		double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+		estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit * (1 - smoothing) + newLimit * smoothing));
+		limit = (int) estimatedLimit;
+	}
+}
@@ -0,0 +1,171 @@
+package com.vds.account.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.channel.ChannelOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Resolves bearer tokens against the user info endpoint of account-auth, once per token and cache period.
+ *
+ *  Principals are cached by the SHA-256 hash of the token, rejected tokens for a much shorter period. A token is
+ *  rejected by a 401 or 403 response or an error body only, other failures are not cached. The cache
+ *  holds pending lookups rather than results, so concurrent misses of the same token share a single user info
+ *  request, and no thread waits for account-auth. Only the claims downstream services authorize by are kept:
+ *  principal name, authorities, client id and scope, in the shape of the user info response.
+ **/
+public class EdgeTokenResolver implements AutoCloseable {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> USER_INFO_TYPE =
+			new ParameterizedTypeReference<Map<String, Object>>() {};
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final String userInfoUri;
+
+	private final ConnectionProvider connectionProvider;
+
+	private final WebClient webClient;
+
+	private final Duration readTimeout;
+
+	private final Cache<String, CompletableFuture<Map<String, Object>>> principals;
+
+	private final Cache<String, Boolean> rejectedTokens;
+
+	public EdgeTokenResolver(String userInfoUri,
+							 int maxConnections,
+							 Duration connectTimeout,
+							 Duration readTimeout,
+							 long maximumSize,
+							 Duration ttl,
+							 Duration rejectedTtl) {
+		this.userInfoUri = userInfoUri;
+		this.connectionProvider = ConnectionProvider.fixed("user-info", maxConnections, connectTimeout.toMillis());
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis()));
+		this.webClient = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+		this.readTimeout = readTimeout;
+		this.principals = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		this.rejectedTokens = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(rejectedTtl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 *  Registers hit, miss, eviction and size meters of both caches.
+	 *  @param registry - meter registry exposed by actuator
+	 **/
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, principals, "edge.token.principals");
+		CaffeineCacheMetrics.monitor(registry, rejectedTokens, "edge.token.rejections");
+	}
+
+	/**
+	 *  @param accessToken - bearer token of the request
+	 *  @return Mono of the claims of the token owner, failed with RejectedTokenException if account-auth doesn't
+	 *  accept the token or with another exception if account-auth can't be reached
+	 **/
+	public Mono<Map<String, Object>> resolve(String accessToken) {
+		String key = digest(accessToken);
+		if (rejectedTokens.getIfPresent(key) != null) {
+			return Mono.error(new RejectedTokenException("access token has been rejected recently"));
+		}
+		CompletableFuture<Map<String, Object>> lookup = principals.get(key, k -> fetch(k, accessToken));
+		if (lookup.isCompletedExceptionally()) {
+			// failed before it was cached, so the completion callback couldn't drop it
+			principals.asMap().remove(key, lookup);
+		}
+		return Mono.fromFuture(lookup);
+	}
+
+	private CompletableFuture<Map<String, Object>> fetch(String key, String accessToken) {
+		CompletableFuture<Map<String, Object>> lookup = webClient.get()
+				.uri(userInfoUri)
+				.headers(headers -> headers.setBearerAuth(accessToken))
+				.accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToMono(USER_INFO_TYPE)
+				.timeout(readTimeout)
+				.onErrorMap(WebClientResponseException.class, e -> {
+					if (e.getStatusCode() != HttpStatus.UNAUTHORIZED && e.getStatusCode() != HttpStatus.FORBIDDEN) {
+						return e;
+					}
+					log.debug("user info request rejected with {}", e.getStatusCode());
+					return new RejectedTokenException("access token is rejected by account-auth");
+				})
+				.map(EdgeTokenResolver::toClaims)
+				.toFuture();
+		lookup.whenComplete((claims, e) -> {
+			if (e != null) {
+				principals.asMap().remove(key, lookup);
+				if (e instanceof RejectedTokenException) {
+					rejectedTokens.put(key, Boolean.TRUE);
+				}
+			}
+		});
+		return lookup;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> toClaims(Map<String, Object> userInfo) {
+		if (userInfo.containsKey("error") || !(userInfo.get("oauth2Request") instanceof Map)) {
+			throw new RejectedTokenException("user info response doesn't describe a token owner");
+		}
+		Map<String, Object> request = (Map<String, Object>) userInfo.get("oauth2Request");
+		Map<String, Object> claims = new LinkedHashMap<>();
+		claims.put("name", userInfo.get("name"));
+		claims.put("authorities", userInfo.getOrDefault("authorities", Collections.emptyList()));
+		Map<String, Object> oauth2Request = new LinkedHashMap<>();
+		oauth2Request.put("clientId", request.get("clientId"));
+		oauth2Request.put("scope", request.getOrDefault("scope", List.of()));
+		claims.put("oauth2Request", Collections.unmodifiableMap(oauth2Request));
+		return Collections.unmodifiableMap(claims);
+	}
+
+	static String digest(String accessToken) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		connectionProvider.dispose();
+	}
+}
@@ -0,0 +1,64 @@
+package com.vds.account.gateway.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  Signs claims of an authenticated caller into the internal principal header trusted by downstream services.
+ *
+ *  The value is the base64url JSON of the claims with an expiry time, a dot and the base64url HMAC-SHA256 of the
+ *  encoded claims. The HMAC key is shared with the services, which reject values that are expired or signed with
+ *  another key. The expiry is short, so a leaked value is useless soon after the request.
+ **/
+public class PrincipalSigner {
+
+	public static final String HEADER = "X-Internal-Principal";
+
+	static final String ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key;
+
+	private final Duration ttl;
+
+	private final Clock clock;
+
+	private final ObjectMapper objectMapper;
+
+	public PrincipalSigner(String secret, Duration ttl, Clock clock, ObjectMapper objectMapper) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalArgumentException("security.internal-principal.secret must be configured");
+		}
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		this.ttl = ttl;
+		this.clock = clock;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 *  @param claims - claims resolved from the access token
+	 *  @return value of the internal principal header
+	 **/
+	public String sign(Map<String, Object> claims) {
+		Map<String, Object> payload = new LinkedHashMap<>(claims);
+		payload.put("exp", clock.millis() + ttl.toMillis());
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		try {
+			String encoded = encoder.encodeToString(objectMapper.writeValueAsBytes(payload));
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return encoded + "." + encoder.encodeToString(mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII)));
+		} catch (JsonProcessingException | GeneralSecurityException e) {
+			throw new IllegalStateException("internal principal can't be signed", e);
+		}
+	}
+}
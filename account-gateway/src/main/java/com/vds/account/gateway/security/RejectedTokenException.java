@@ -0,0 +1,11 @@
+package com.vds.account.gateway.security;
+
+/**
+ *  Thrown when account-auth doesn't accept an access token.
+ **/
+public class RejectedTokenException extends RuntimeException {
+
+	public RejectedTokenException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,187 @@
+package com.vds.account.gateway;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ *  Proxies thousands of concurrent requests to slow local stub backends through a running gateway.
+ *
+ *  The stubs answer after a fixed delay without holding a thread, the way a slow trainer-service would. The first
+ *  run keeps 5k requests in flight at once and prints latency, throughput and the amount of gateway threads, which
+ *  stays the same however many requests wait. The second run saturates the pool of the slow route and checks that
+ *  requests of the other route aren't slowed down by it. Takes about 15 seconds.
+ *
+ *  Not part of the regular test run, start it explicitly with: mvn test -Dtest=GatewayConnectionBenchmark
+ **/
+public class GatewayConnectionBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 5_000;
+
+    private static final long SLOW_MILLIS = 1_000;
+
+    private static final long FAST_MILLIS = 5;
+
+    private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(4);
+
+    private HttpServer slowBackend;
+
+    private HttpServer fastBackend;
+
+    private ConnectionProvider clientPool;
+
+    private HttpClient client;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        slowBackend = stub(SLOW_MILLIS);
+        fastBackend = stub(FAST_MILLIS);
+        clientPool = ConnectionProvider.fixed("benchmark", CONCURRENT_REQUESTS * 2, 60_000);
+        client = HttpClient.create(clientPool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        clientPool.dispose();
+        slowBackend.stop(0);
+        fastBackend.stop(0);
+        responder.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Keeps 5k slow requests in flight on a fixed amount of threads")
+    public void measureConcurrentSlowRequests() {
+        try (ConfigurableApplicationContext gateway = startGateway(CONCURRENT_REQUESTS)) {
+            String slowUrl = "http://localhost:" + port(gateway) + "/trainings/slow";
+            measure(slowUrl, 100);
+            int threadsBefore = Thread.activeCount();
+
+            long[] latencies = measure(slowUrl, CONCURRENT_REQUESTS);
+
+            report("slow route", latencies);
+            System.out.printf("threads: %d before, %d after%n", threadsBefore, Thread.activeCount());
+        }
+    }
+
+    @Test
+    @DisplayName("Serves a fast route at full speed while the pool of a slow route is saturated")
+    public void measureRouteIsolation() {
+        try (ConfigurableApplicationContext gateway = startGateway(200)) {
+            String base = "http://localhost:" + port(gateway);
+            measure(base + "/accounts/fast", 100);
+
+            Mono<long[]> saturating = Mono.fromCallable(() -> measure(base + "/trainings/slow", 2_000))
+                    .subscribeOn(Schedulers.elastic());
+            long[][] results = Mono.zip(saturating,
+                    Mono.delay(Duration.ofMillis(SLOW_MILLIS / 2))
+                            .then(Mono.fromCallable(() -> measure(base + "/accounts/fast", 1_000))),
+                    (slow, fast) -> new long[][] {slow, fast})
+                    .block();
+
+            report("slow route", results[0]);
+            report("fast route", results[1]);
+            assertTrue(percentile(results[1], 0.99) < SLOW_MILLIS);
+        }
+    }
+
+    private ConfigurableApplicationContext startGateway(int slowRouteConnections) {
+        return new SpringApplicationBuilder(AccountGatewayApplication.class)
+                .properties(
+                        "spring.cloud.bootstrap.enabled=false",
+                        "spring.cloud.config.enabled=false",
+                        "eureka.client.enabled=false",
+                        "server.port=0",
+                        "spring.cloud.gateway.routes[0].id=trainer-service",
+                        "spring.cloud.gateway.routes[0].uri=http://localhost:" + slowBackend.getAddress().getPort(),
+                        "spring.cloud.gateway.routes[0].predicates[0]=Path=/trainings/**",
+                        "spring.cloud.gateway.routes[1].id=account-service",
+                        "spring.cloud.gateway.routes[1].uri=http://localhost:" + fastBackend.getAddress().getPort(),
+                        "spring.cloud.gateway.routes[1].predicates[0]=Path=/accounts/**",
+                        "gateway.route-clients.trainer-service.max-connections=" + slowRouteConnections,
+                        "gateway.route-clients.trainer-service.acquire-timeout-millis=60000",
+                        "gateway.route-clients.trainer-service.response-timeout-millis=60000",
+                        "gateway.route-clients.account-service.max-connections=" + CONCURRENT_REQUESTS,
+                        "security.edge.routes=none",
+                        "security.oauth2.resource.user-info-uri=http://localhost:1/mservicet/users/current",
+                        "security.internal-principal.secret=benchmark-secret")
+                .run();
+    }
+
+    private static int port(ConfigurableApplicationContext gateway) {
+        return gateway.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     *  Sends all requests at once and waits for all responses.
+     *  @return sorted latencies in nanos
+     **/
+    private long[] measure(String url, int requests) {
+        List<Long> latencies = Flux.range(0, requests)
+                .flatMap(i -> {
+                    long started = System.nanoTime();
+                    return client.get()
+                            .uri(url)
+                            .responseSingle((response, body) -> {
+                                assertEquals(200, response.status().code());
+                                return body.asString();
+                            })
+                            .map(body -> System.nanoTime() - started);
+                }, requests)
+                .collectList()
+                .block();
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static void report(String route, long[] latencies) {
+        System.out.printf("%-10s %5d requests, p50 %8.1f ms, p99 %8.1f ms, max %8.1f ms%n", route, latencies.length,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     *  Starts a backend answering every request after the delay, without holding a thread while it waits.
+     **/
+    private HttpServer stub(long delayMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS * 2);
+        server.createContext("/", exchange -> responder.schedule(() -> {
+            byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return null;
+        }, delayMillis, TimeUnit.MILLISECONDS));
+        server.start();
+        return server;
+    }
+}
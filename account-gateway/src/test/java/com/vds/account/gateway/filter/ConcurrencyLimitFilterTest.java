@@ -0,0 +1,107 @@
+package com.vds.account.gateway.filter;
+
+import com.vds.account.gateway.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class ConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry registry;
+
+    private ConcurrencyLimitFilter filter;
+
+    private final GatewayFilterChain slowBackend = exchange -> Mono.never();
+
+    private final GatewayFilterChain overloadedBackend = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    public void setup() {
+        ConcurrencyLimitProperties.ConcurrencyLimit limit = new ConcurrencyLimitProperties.ConcurrencyLimit();
+        limit.setInitialLimit(2);
+        limit.setMinLimit(1);
+        limit.setBackoffRatio(0.5);
+        limit.setRetryAfterSeconds(3);
+        registry = new SimpleMeterRegistry();
+        filter = new ConcurrencyLimitFilter(Map.of("account-auth", limit), registry);
+    }
+
+    @Test
+    @DisplayName("Sheds requests over the limit with 503 and Retry-After")
+    public void shouldShedExcessRequests() {
+        // given
+        Disposable first = filter.filter(exchange("account-auth"), slowBackend).subscribe();
+        Disposable second = filter.filter(exchange("account-auth"), slowBackend).subscribe();
+
+        // when
+        MockServerWebExchange exchange = exchange("account-auth");
+        filter.filter(exchange, slowBackend).block();
+
+        // then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+        assertEquals("3", exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, registry.get("gateway.concurrency.rejected").tag("route", "account-auth").counter().count(), 0);
+        assertEquals(2.0, registry.get("gateway.concurrency.in-flight").tag("route", "account-auth").gauge().value(), 0);
+
+        first.dispose();
+        second.dispose();
+        assertEquals(0.0, registry.get("gateway.concurrency.in-flight").tag("route", "account-auth").gauge().value(), 0);
+    }
+
+    @Test
+    @DisplayName("Shrinks the limit when the backend answers as overloaded")
+    public void shouldBackOffOnOverload() {
+        // when
+        filter.filter(exchange("account-auth"), overloadedBackend).block();
+
+        // then
+        assertEquals(1.0, registry.get("gateway.concurrency.limit").tag("route", "account-auth").gauge().value(), 0);
+    }
+
+    @Test
+    @DisplayName("Leaves routes without a limit untouched")
+    public void shouldSkipUnlimitedRoutes() {
+        // given
+        for (int i = 0; i != 10; i++) {
+            filter.filter(exchange("account-service"), slowBackend).subscribe();
+        }
+
+        // when
+        MockServerWebExchange exchange = exchange("account-service");
+        filter.filter(exchange, e -> {
+            e.getResponse().setStatusCode(HttpStatus.OK);
+            return Mono.empty();
+        }).block();
+
+        // then
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(0.0, registry.get("gateway.concurrency.rejected").counter().count(), 0);
+    }
+
+    private static MockServerWebExchange exchange(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/mservicet/users/current"));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id(routeId)
+                .uri("http://" + routeId)
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+}
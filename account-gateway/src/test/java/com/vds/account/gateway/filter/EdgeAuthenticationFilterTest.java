@@ -0,0 +1,158 @@
+package com.vds.account.gateway.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vds.account.gateway.security.EdgeTokenResolver;
+import com.vds.account.gateway.security.PrincipalSigner;
+import com.vds.account.gateway.security.RejectedTokenException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.ConnectException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class EdgeAuthenticationFilterTest {
+
+    private static final Map<String, Object> CLAIMS = Map.of(
+            "name", "account-service",
+            "authorities", List.of(),
+            "oauth2Request", Map.of("clientId", "account-service", "scope", List.of("server")));
+
+    @Mock
+    private EdgeTokenResolver tokenResolver;
+
+    private EdgeAuthenticationFilter filter;
+
+    private final AtomicReference<ServerWebExchange> forwarded = new AtomicReference<>();
+
+    private final GatewayFilterChain chain = exchange -> {
+        forwarded.set(exchange);
+        return Mono.empty();
+    };
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        PrincipalSigner principalSigner = new PrincipalSigner("test-secret", Duration.ofSeconds(30),
+                Clock.systemUTC(), new ObjectMapper());
+        filter = new EdgeAuthenticationFilter(Set.of("account-service"), tokenResolver, principalSigner,
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("Forwards a valid token as a signed internal principal instead of the token")
+    public void shouldForwardInternalPrincipal() {
+        // given
+        MockServerWebExchange exchange = exchange("account-service", MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        when(tokenResolver.resolve("token")).thenReturn(Mono.just(CLAIMS));
+
+        // when
+        filter.filter(exchange, chain).block();
+
+        // then
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        String principal = headers.getFirst(PrincipalSigner.HEADER);
+        assertNotNull(principal);
+        assertEquals(2, principal.split("\\.").length);
+        assertNull(headers.getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test
+    @DisplayName("Answers a rejected token with 401 without routing the request")
+    public void shouldRejectInvalidToken() {
+        // given
+        MockServerWebExchange exchange = exchange("account-service", MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        when(tokenResolver.resolve("token")).thenReturn(Mono.error(new RejectedTokenException("rejected")));
+
+        // when
+        filter.filter(exchange, chain).block();
+
+        // then
+        assertNull(forwarded.get());
+        assertEquals(HttpStatus.UNAUTHORIZED, exchange.getResponse().getStatusCode());
+        assertNotNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    @DisplayName("Forwards the token when account-auth can't be reached")
+    public void shouldForwardTokenWhenAuthIsUnavailable() {
+        // given
+        MockServerWebExchange exchange = exchange("account-service", MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        when(tokenResolver.resolve("token")).thenReturn(Mono.error(new ConnectException("connection refused")));
+
+        // when
+        filter.filter(exchange, chain).block();
+
+        // then
+        HttpHeaders headers = forwarded.get().getRequest().getHeaders();
+        assertEquals("Bearer token", headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertNull(headers.getFirst(PrincipalSigner.HEADER));
+    }
+
+    @Test
+    @DisplayName("Drops an internal principal sent by a client")
+    public void shouldDropClientPrincipal() {
+        // given
+        MockServerWebExchange exchange = exchange("account-service", MockServerHttpRequest.get("/accounts/name1")
+                .header(PrincipalSigner.HEADER, "forged.principal"));
+
+        // when
+        filter.filter(exchange, chain).block();
+
+        // then
+        assertNull(forwarded.get().getRequest().getHeaders().getFirst(PrincipalSigner.HEADER));
+    }
+
+    @Test
+    @DisplayName("Leaves routes that aren't protected untouched")
+    public void shouldSkipUnprotectedRoutes() {
+        // given
+        MockServerWebExchange exchange = exchange("account-auth", MockServerHttpRequest.get("/mservicet/users/current")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+
+        // when
+        filter.filter(exchange, chain).block();
+
+        // then
+        verify(tokenResolver, never()).resolve(anyString());
+        assertEquals("Bearer token", forwarded.get().getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    private static MockServerWebExchange exchange(String routeId, MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id(routeId)
+                .uri("http://" + routeId)
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+}
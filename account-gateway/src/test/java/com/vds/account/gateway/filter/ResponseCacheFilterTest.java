@@ -0,0 +1,202 @@
+package com.vds.account.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class ResponseCacheFilterTest {
+
+    private static final String BODY = "{\"name\":\"name1\"}";
+
+    private static final Map<String, Object> PRINCIPAL = Map.of(
+            "name", "account-service",
+            "oauth2Request", Map.of("clientId", "account-service", "scope", List.of("server")));
+
+    private ResponseCacheFilter filter;
+
+    private HttpStatus backendStatus;
+
+    private HttpHeaders backendHeaders;
+
+    private int backendCalls;
+
+    private String backendValidators;
+
+    private final GatewayFilterChain backend = exchange -> {
+        backendCalls++;
+        backendValidators = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(backendStatus);
+        response.getHeaders().putAll(backendHeaders);
+        byte[] body = backendStatus == HttpStatus.OK ? BODY.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    };
+
+    @BeforeEach
+    public void setup() {
+        filter = new ResponseCacheFilter(Set.of("account-service"), 1024 * 1024, 1024, Clock.systemUTC(),
+                new SimpleMeterRegistry());
+        backendStatus = HttpStatus.OK;
+        backendHeaders = new HttpHeaders();
+        backendHeaders.setCacheControl("max-age=60");
+        backendHeaders.setETag("\"v1\"");
+    }
+
+    @Test
+    @DisplayName("Serves a fresh response from the cache without calling the backend")
+    public void shouldServeFreshResponse() {
+        // given
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+
+        // when
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL);
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertEquals(1, backendCalls);
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals("\"v1\"", exchange.getResponse().getHeaders().getETag());
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Keeps headers set by earlier filters when serving a cached response")
+    public void shouldKeepHeadersOfEarlierFilters() {
+        // given
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+
+        // when
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL);
+        exchange.getResponse().getHeaders().setAccessControlAllowOrigin("http://localhost");
+        exchange.getResponse().getHeaders().setCacheControl("no-transform");
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertEquals(1, backendCalls);
+        assertEquals("http://localhost", exchange.getResponse().getHeaders().getAccessControlAllowOrigin());
+        assertEquals("max-age=60", exchange.getResponse().getHeaders().getCacheControl());
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Answers If-None-Match of a cached response with 304")
+    public void shouldAnswerNotModified() {
+        // given
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+
+        // when
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"v1\""), PRINCIPAL);
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertEquals(1, backendCalls);
+        assertEquals(HttpStatus.NOT_MODIFIED, exchange.getResponse().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Revalidates a stale response and serves it when the backend answers 304")
+    public void shouldRevalidateStaleResponse() {
+        // given
+        backendHeaders.setCacheControl("no-cache");
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+        backendStatus = HttpStatus.NOT_MODIFIED;
+
+        // when
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL);
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertEquals(2, backendCalls);
+        assertEquals("\"v1\"", backendValidators);
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        assertEquals(BODY, exchange.getResponse().getBodyAsString().block());
+    }
+
+    @Test
+    @DisplayName("Doesn't store responses the backend marks as no-store")
+    public void shouldNotStoreNoStoreResponse() {
+        // given
+        backendHeaders.setCacheControl("no-cache, no-store, max-age=0, must-revalidate");
+
+        // when
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+
+        // then
+        assertEquals(2, backendCalls);
+        assertNull(backendValidators);
+    }
+
+    @Test
+    @DisplayName("Keeps responses of different callers apart")
+    public void shouldKeyByPrincipal() {
+        // given
+        Map<String, Object> otherPrincipal = Map.of(
+                "name", "account-service",
+                "oauth2Request", Map.of("clientId", "account-service", "scope", List.of("ui")));
+
+        // when
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), PRINCIPAL), backend).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1"), otherPrincipal), backend).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1?page=2"), PRINCIPAL), backend).block();
+
+        // then
+        assertEquals(3, backendCalls);
+    }
+
+    @Test
+    @DisplayName("Bypasses the cache for tokens the edge couldn't resolve")
+    public void shouldBypassUnresolvedTokens() {
+        // when
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"), null), backend).block();
+        filter.filter(exchange(MockServerHttpRequest.get("/accounts/name1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token"), null), backend).block();
+
+        // then
+        assertEquals(2, backendCalls);
+    }
+
+    @Test
+    @DisplayName("Compares entity tags weakly")
+    public void shouldMatchWeakEtags() {
+        assertTrue(ResponseCacheFilter.matches("W/\"v1\", \"v2\"", "\"v1\""));
+        assertTrue(ResponseCacheFilter.matches("*", "\"v1\""));
+        assertFalse(ResponseCacheFilter.matches("\"v2\"", "\"v1\""));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request, Map<String, Object> principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("account-service")
+                .uri("http://account-service")
+                .predicate(e -> true)
+                .build());
+        if (principal != null) {
+            exchange.getAttributes().put(EdgeAuthenticationFilter.PRINCIPAL_ATTR, principal);
+        }
+        return exchange;
+    }
+}
@@ -0,0 +1,146 @@
+package com.vds.account.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class ResponseCompressionFilterTest {
+
+    private static final String CHUNK = "{\"name\":\"name1\",\"email\":\"name1@gmail.com\"},";
+
+    private SimpleMeterRegistry registry;
+
+    private ResponseCompressionFilter filter;
+
+    private HttpHeaders backendHeaders;
+
+    private int backendChunks;
+
+    private final GatewayFilterChain backend = exchange -> {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(backendHeaders);
+        return response.writeWith(Flux.range(0, backendChunks)
+                .map(i -> response.bufferFactory().wrap(CHUNK.getBytes(StandardCharsets.UTF_8))));
+    };
+
+    @BeforeEach
+    public void setup() {
+        registry = new SimpleMeterRegistry();
+        filter = new ResponseCompressionFilter(1024, List.of(MediaType.APPLICATION_JSON), 6, registry);
+        backendHeaders = new HttpHeaders();
+        backendHeaders.setContentType(MediaType.APPLICATION_JSON);
+        backendChunks = 500;
+    }
+
+    @Test
+    @DisplayName("Gzips a streamed response over the threshold and counts the saved bytes")
+    public void shouldCompressLargeResponse() throws IOException {
+        // given
+        MockServerWebExchange exchange = exchange("gzip, deflate");
+
+        // when
+        filter.filter(exchange, backend).block();
+
+        // then
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        assertEquals("gzip", headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(headers.getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        byte[] compressed = body(exchange);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertEquals(CHUNK.repeat(backendChunks), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        double bytesIn = registry.get("gateway.compression.bytes-in").tag("route", "account-service").counter().count();
+        double bytesSaved = registry.get("gateway.compression.bytes-saved").tag("route", "account-service").counter().count();
+        assertEquals(CHUNK.length() * backendChunks, bytesIn, 0);
+        assertEquals(bytesIn - compressed.length, bytesSaved, 0);
+    }
+
+    @Test
+    @DisplayName("Sends a response under the threshold as it is")
+    public void shouldSkipSmallResponse() {
+        // given
+        backendChunks = 3;
+        MockServerWebExchange exchange = exchange("gzip");
+
+        // when
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertNull(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(CHUNK.repeat(3), new String(body(exchange), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Passes through responses the backend has encoded already")
+    public void shouldSkipEncodedResponse() {
+        // given
+        backendHeaders.set(HttpHeaders.CONTENT_ENCODING, "br");
+        MockServerWebExchange exchange = exchange("gzip, br");
+
+        // when
+        filter.filter(exchange, backend).block();
+
+        // then
+        assertEquals("br", exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(CHUNK.length() * backendChunks, body(exchange).length);
+    }
+
+    @Test
+    @DisplayName("Compresses only for clients that accept gzip")
+    public void shouldNegotiateGzip() {
+        assertTrue(ResponseCompressionFilter.acceptsGzip(headers("deflate, gzip;q=0.5")));
+        assertTrue(ResponseCompressionFilter.acceptsGzip(headers("*")));
+        assertFalse(ResponseCompressionFilter.acceptsGzip(headers("gzip;q=0, br")));
+        assertFalse(ResponseCompressionFilter.acceptsGzip(new HttpHeaders()));
+    }
+
+    private static HttpHeaders headers(String acceptEncoding) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return headers;
+    }
+
+    private static byte[] body(MockServerWebExchange exchange) {
+        DataBuffer joined = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        DataBufferUtils.release(joined);
+        return bytes;
+    }
+
+    private static MockServerWebExchange exchange(String acceptEncoding) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/accounts/")
+                .header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding));
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id("account-service")
+                .uri("http://account-service")
+                .predicate(e -> true)
+                .build());
+        return exchange;
+    }
+}
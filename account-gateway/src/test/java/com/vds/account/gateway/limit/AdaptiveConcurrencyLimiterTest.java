@@ -0,0 +1,101 @@
+package com.vds.account.gateway.limit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    @DisplayName("Refuses requests over the limit without blocking")
+    public void shouldRefuseOverLimit() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 0.2, 0.9, 100);
+
+        // then
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        limiter.onIgnored();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    @DisplayName("Grows the limit while latency stays at the baseline and the limit is in use")
+    public void shouldGrowWhileLatencyIsStable() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 100, 2.0, 0.2, 0.9, 100);
+
+        // when
+        for (int i = 0; i != 200; i++) {
+            saturate(limiter);
+            limiter.onSuccess(BASELINE_NANOS);
+            release(limiter);
+        }
+
+        // then
+        assertEquals(100, limiter.getLimit());
+    }
+
+    @Test
+    @DisplayName("Shrinks the limit when latency grows over the tolerated baseline")
+    public void shouldShrinkWhenLatencyGrows() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100, 2.0, 0.2, 0.9, 100);
+        for (int i = 0; i != 20; i++) {
+            saturate(limiter);
+            limiter.onSuccess(BASELINE_NANOS);
+            release(limiter);
+        }
+        int stableLimit = limiter.getLimit();
+
+        // when
+        for (int i = 0; i != 20; i++) {
+            saturate(limiter);
+            limiter.onSuccess(BASELINE_NANOS * 10);
+            release(limiter);
+        }
+
+        // then
+        assertTrue(limiter.getLimit() < stableLimit / 2);
+    }
+
+    @Test
+    @DisplayName("Shrinks the limit multiplicatively on drops but never below the minimum")
+    public void shouldBackOffOnDrops() {
+        // given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 5, 100, 2.0, 0.2, 0.5, 100);
+
+        // when
+        limiter.tryAcquire();
+        limiter.onDropped();
+
+        // then
+        assertEquals(50, limiter.getLimit());
+        for (int i = 0; i != 10; i++) {
+            limiter.tryAcquire();
+            limiter.onDropped();
+        }
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.tryAcquire()) {
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter limiter) {
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnored();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.vds.account.gateway.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class EdgeTokenResolverTest {
+
+    private static final String USER_INFO = "{\"name\":\"account-service\",\"details\":{\"remoteAddress\":\"10.0.0.1\"},"
+            + "\"authorities\":[],\"oauth2Request\":{\"clientId\":\"account-service\",\"scope\":[\"server\"],"
+            + "\"grantType\":\"client_credentials\"}}";
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private volatile int status = 200;
+
+    private HttpServer accountAuth;
+
+    private EdgeTokenResolver tokenResolver;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        accountAuth = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        accountAuth.createContext("/mservicet/users/current", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = (status == 200 ? USER_INFO : "{\"error\":\"invalid_token\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        accountAuth.start();
+        tokenResolver = new EdgeTokenResolver(
+                "http://localhost:" + accountAuth.getAddress().getPort() + "/mservicet/users/current",
+                10, Duration.ofSeconds(1), Duration.ofSeconds(3), 100, Duration.ofSeconds(60), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tokenResolver.close();
+        accountAuth.stop(0);
+    }
+
+    @Test
+    @DisplayName("Resolves a token once and keeps only the claims services authorize by")
+    @SuppressWarnings("unchecked")
+    public void shouldResolveTokenOnce() {
+        // when
+        tokenResolver.resolve("token").block();
+        Map<String, Object> claims = tokenResolver.resolve("token").block();
+
+        // then
+        assertEquals(1, requests.get());
+        assertEquals("account-service", claims.get("name"));
+        assertFalse(claims.containsKey("details"));
+        Map<String, Object> request = (Map<String, Object>) claims.get("oauth2Request");
+        assertEquals(List.of("server"), request.get("scope"));
+        assertFalse(request.containsKey("grantType"));
+    }
+
+    @Test
+    @DisplayName("Remembers rejected tokens")
+    public void shouldRememberRejectedToken() {
+        // given
+        status = 401;
+
+        // then
+        Assertions.assertThrows(RejectedTokenException.class, () -> tokenResolver.resolve("token").block());
+        Assertions.assertThrows(RejectedTokenException.class, () -> tokenResolver.resolve("token").block());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    @DisplayName("Doesn't remember tokens account-auth failed to resolve")
+    public void shouldNotRememberFailedLookup() {
+        // given
+        status = 429;
+
+        // then
+        Assertions.assertThrows(WebClientResponseException.class, () -> tokenResolver.resolve("token").block());
+        Assertions.assertThrows(WebClientResponseException.class, () -> tokenResolver.resolve("token").block());
+        assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,29 @@
+package com.vds.account.client;
+
+import com.vds.account.domain.User;
+import com.vds.account.dto.UserCreationResult;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.util.List;
+
+/**
+ *  A feign client interface to communicate with auth service when users are created in bulk.
+ *  It is kept apart from AuthServiceClient under its own context id, so the long read timeout
+ *  batches require is configured for this client only.
+ **/
+@FeignClient(name = "account-auth", contextId = "account-auth-batch")
+public interface AuthServiceBatchClient {
+
+	/**
+	 *  Sends create users request to auth service. Users are created independently, the outcome of each one
+	 *  is reported in the same order as provided users.
+	 *  @param users list of users with login and password
+	 *  @return list of per user creation results
+	 **/
+	@RequestMapping(method = RequestMethod.POST, value = "/mservicet/users/batch", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE)
+	List<UserCreationResult> createUsers(List<User> users);
+
+}
@@ -0,0 +1,13 @@
+package com.vds.account.config;
+
+import com.vds.account.event.AccountCacheEvictionEvent;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *  Registers account cache evictions as bus events, so they are sent to and accepted from other replicas.
+ **/
+@Configuration
+@RemoteApplicationEventScan(basePackageClasses = AccountCacheEvictionEvent.class)
+public class AccountCacheConfig {
+}
@@ -0,0 +1,44 @@
+package com.vds.account.config;
+
+import com.vds.account.event.AccountEventTransport;
+import com.vds.account.event.RabbitAccountEventTransport;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *  Wires account events to the RabbitMQ broker shared with Spring Cloud Bus.
+ *  Consumers bind their own durable queues to the exchange and decode batches with AccountEventCodec.
+ **/
+@Configuration
+public class AccountEventConfig {
+
+	/**
+	 *  Durable topic exchange the account event batches are published to.
+	 *  @param exchange - name of the exchange
+	 *  @return TopicExchange instance, declared on the broker by RabbitAdmin
+	 **/
+	@Bean
+	public TopicExchange accountEventExchange(@Value("${accounts.events.exchange:account.events}") String exchange) {
+		return new TopicExchange(exchange, true, false);
+	}
+
+	/**
+	 *  Transport that waits for the publisher confirm of every batch.
+	 *  @param rabbitTemplate - template of the shared broker connection
+	 *  @param accountEventExchange - exchange to publish to
+	 *  @param routingKey - routing key of account event batches
+	 *  @param confirmTimeoutMillis - how long to wait for the broker to confirm a batch
+	 *  @return AccountEventTransport instance
+	 **/
+	@Bean
+	public AccountEventTransport accountEventTransport(RabbitTemplate rabbitTemplate,
+													   TopicExchange accountEventExchange,
+													   @Value("${accounts.events.routing-key:account.changed}") String routingKey,
+													   @Value("${accounts.events.confirm-timeout-millis:5000}") long confirmTimeoutMillis) {
+		return new RabbitAccountEventTransport(rabbitTemplate, accountEventExchange.getName(), routingKey,
+				confirmTimeoutMillis);
+	}
+}
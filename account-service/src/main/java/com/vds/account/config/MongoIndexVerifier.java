@@ -0,0 +1,133 @@
+package com.vds.account.config;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ *  Checks on startup that every query method of Mongo repositories can be served by an index.
+ *
+ *  Filtered fields are taken from derived method names or from the JSON of a Query annotation. A query is treated
+ *  as indexed when one of its fields is the leading field of an index of the collection. Depending on
+ *  mongodb.index-check the result is only logged (log), makes the startup fail (fail) or isn't checked at all (off).
+ **/
+@Component
+public class MongoIndexVerifier {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final ListableBeanFactory beanFactory;
+
+	private final MongoTemplate mongoTemplate;
+
+	private final String mode;
+
+	@Autowired
+	public MongoIndexVerifier(ListableBeanFactory beanFactory,
+							  MongoTemplate mongoTemplate,
+							  @Value("${mongodb.index-check:log}") String mode) {
+		this.beanFactory = beanFactory;
+		this.mongoTemplate = mongoTemplate;
+		this.mode = mode;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void verify() {
+		if ("off".equals(mode)) {
+			return;
+		}
+		List<String> unindexed = findUnindexedQueries();
+		if (unindexed.isEmpty()) {
+			log.info("all repository queries are backed by indexes");
+			return;
+		}
+		unindexed.forEach(query -> log.warn("repository query isn't backed by an index: {}", query));
+		if ("fail".equals(mode)) {
+			throw new IllegalStateException("repository queries aren't backed by indexes: " + unindexed);
+		}
+	}
+
+	/**
+	 *  Returns descriptions of repository query methods which can't use any index of their collection.
+	 *  @return list of "Repository.method [fields]" descriptions
+	 **/
+	public List<String> findUnindexedQueries() {
+		Repositories repositories = new Repositories(beanFactory);
+		List<String> unindexed = new ArrayList<>();
+		for (Class<?> domainType : repositories) {
+			MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+					.getPersistentEntity(domainType);
+			if (entity == null) {
+				continue;
+			}
+			RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+			Set<String> leadingFields = mongoTemplate.indexOps(domainType).getIndexInfo().stream()
+					.map(IndexInfo::getIndexFields)
+					.filter(fields -> !fields.isEmpty())
+					.map(fields -> fields.get(0).getKey())
+					.collect(Collectors.toSet());
+			leadingFields.add("_id");
+
+			for (Method method : information.getQueryMethods()) {
+				for (Set<String> fields : filteredFields(method, entity)) {
+					if (!fields.isEmpty() && fields.stream().noneMatch(leadingFields::contains)) {
+						unindexed.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName() + " " + fields);
+					}
+				}
+			}
+		}
+		return unindexed;
+	}
+
+	/**
+	 *  Returns sets of fields a query filters on. Each set stands for a branch of an or condition,
+	 *  which has to be indexed on its own.
+	 **/
+	private List<Set<String>> filteredFields(Method method, MongoPersistentEntity<?> entity) {
+		List<Set<String>> branches = new ArrayList<>();
+		Query query = method.getAnnotation(Query.class);
+		if (query != null && !query.value().isEmpty()) {
+			Document filter = Document.parse(query.value().replaceAll("\\?\\d+", "null"));
+			branches.add(new LinkedHashSet<>(filter.keySet()));
+			return branches;
+		}
+		PartTree tree = new PartTree(method.getName(), entity.getType());
+		for (PartTree.OrPart orPart : tree) {
+			Set<String> fields = new LinkedHashSet<>();
+			for (Part part : orPart) {
+				fields.add(fieldName(part.getProperty(), entity));
+			}
+			branches.add(fields);
+		}
+		return branches;
+	}
+
+	private String fieldName(PropertyPath path, MongoPersistentEntity<?> entity) {
+		MongoPersistentProperty property = entity.getPersistentProperty(path.getSegment());
+		String field = property != null ? property.getFieldName() : path.getSegment();
+		return path.hasNext() ? field + "." + path.next().toDotPath() : field;
+	}
+}
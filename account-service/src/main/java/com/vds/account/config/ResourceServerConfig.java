@@ -1,20 +1,37 @@
 package com.vds.account.config;
 
+import com.vds.account.service.security.CachingTokenServices;
+import com.vds.account.service.security.CoalescingTokenServices;
 import com.vds.account.service.security.CustomUserInfoTokenServices;
+import com.vds.account.service.security.InternalPrincipalFilter;
+import com.vds.account.service.security.InternalPrincipalVerifier;
+import com.vds.account.service.security.ReactiveTokenIntrospector;
+import com.vds.account.service.security.ReactiveUserInfoClient;
+import com.vds.account.service.security.SignedTokenServices;
+import com.vds.account.service.security.UserInfoClient;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.ResourceServerProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.cloud.security.oauth2.client.feign.OAuth2FeignRequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.oauth2.client.DefaultOAuth2ClientContext;
 import org.springframework.security.oauth2.client.OAuth2RestTemplate;
 import org.springframework.security.oauth2.client.token.grant.client.ClientCredentialsResourceDetails;
 import org.springframework.security.oauth2.config.annotation.web.configuration.EnableResourceServer;
 import org.springframework.security.oauth2.config.annotation.web.configuration.ResourceServerConfigurerAdapter;
+import org.springframework.security.oauth2.config.annotation.web.configurers.ResourceServerSecurityConfigurer;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.web.authentication.preauth.AbstractPreAuthenticatedProcessingFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.NegatedRequestMatcher;
+
+import java.time.Duration;
 
 /**
  *   Configuration class that overrides implementation to adjust the access rules and paths that are protected by
@@ -26,6 +43,9 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
 
     private final ResourceServerProperties sso;
 
+    @Autowired
+    private InternalPrincipalVerifier internalPrincipalVerifier;
+
     @Autowired
     public ResourceServerConfig(ResourceServerProperties sso) {
         this.sso = sso;
@@ -61,25 +81,119 @@ public class ResourceServerConfig extends ResourceServerConfigurerAdapter {
     }
 
     /**
-     *  Retruns an extended implementation of UserInfoTokenServices.
+     *  Pooled client used to resolve access tokens against the user info endpoint of account-auth.
+     *  @param maxConnections - max amount of pooled connections
+     *  @param maxConnectionsPerRoute - max amount of pooled connections per single host
+     *  @param connectTimeoutMillis - time to establish a connection or lease it from the pool
+     *  @param readTimeoutMillis - time to wait for the user info response
+     *  @return UserInfoClient instance
+     **/
+    @Bean(destroyMethod = "close")
+    public UserInfoClient userInfoClient(@Value("${security.user-info-client.max-connections:200}") int maxConnections,
+                                         @Value("${security.user-info-client.max-connections-per-route:50}") int maxConnectionsPerRoute,
+                                         @Value("${security.user-info-client.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                                         @Value("${security.user-info-client.read-timeout-millis:3000}") long readTimeoutMillis) {
+        return new UserInfoClient(maxConnections, maxConnectionsPerRoute,
+                Duration.ofMillis(connectTimeoutMillis), Duration.ofMillis(readTimeoutMillis));
+    }
+
+    /**
+     *  Retruns token services used to authenticate incoming requests.
+     *  In jwt mode tokens are verified locally with the public key of account-auth. Otherwise an extended
+     *  implementation of UserInfoTokenServices is wrapped into a local token cache and cache misses of the same token
+     *  are coalesced into a single user info request.
+     *  @param userInfoClient - client of the user info endpoint
+     *  @param meterRegistry - registry the cache statistics are published to
+     *  @param tokenMode - opaque or jwt
+     *  @param keyUri - token key endpoint of account-auth, used in jwt mode
+     *  @param keyRefreshSeconds - min interval between two fetches of the token key
+     *  @param maximumSize - max amount of cached tokens
+     *  @param ttlSeconds - how long a resolved token is served from the cache
+     *  @param rejectedTtlSeconds - how long a rejected token is served from the cache
      *  @return ResourceServerTokenServices instance
      **/
     @Bean
-    public ResourceServerTokenServices tokenServices() {
-        return new CustomUserInfoTokenServices(sso.getUserInfoUri(), sso.getClientId());
+    public ResourceServerTokenServices tokenServices(UserInfoClient userInfoClient,
+                                                     MeterRegistry meterRegistry,
+                                                     @Value("${security.token-mode:opaque}") String tokenMode,
+                                                     @Value("${security.jwt.key-uri:}") String keyUri,
+                                                     @Value("${security.jwt.key-refresh-seconds:60}") long keyRefreshSeconds,
+                                                     @Value("${security.token-cache.maximum-size:10000}") long maximumSize,
+                                                     @Value("${security.token-cache.ttl-seconds:60}") long ttlSeconds,
+                                                     @Value("${security.token-cache.rejected-ttl-seconds:5}") long rejectedTtlSeconds) {
+        if ("jwt".equals(tokenMode)) {
+            return new SignedTokenServices(keyUri, Duration.ofSeconds(keyRefreshSeconds));
+        }
+        CachingTokenServices tokenServices = new CachingTokenServices(
+                new CoalescingTokenServices(
+                        new CustomUserInfoTokenServices(sso.getUserInfoUri(), userInfoClient), meterRegistry),
+                maximumSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(rejectedTtlSeconds));
+        tokenServices.bindTo(meterRegistry);
+        return tokenServices;
+    }
+
+    /**
+     *  Non-blocking client of the user info endpoint, used by the reactive read path.
+     *  @param maxConnections - max amount of pooled connections
+     *  @param connectTimeoutMillis - time to establish a connection or lease it from the pool
+     *  @param readTimeoutMillis - time to wait for the user info response
+     *  @return ReactiveUserInfoClient instance
+     **/
+    @Bean(destroyMethod = "close")
+    public ReactiveUserInfoClient reactiveUserInfoClient(@Value("${security.user-info-client.reactive-max-connections:1000}") int maxConnections,
+                                                         @Value("${security.user-info-client.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                                                         @Value("${security.user-info-client.read-timeout-millis:3000}") long readTimeoutMillis) {
+        return new ReactiveUserInfoClient(maxConnections,
+                Duration.ofMillis(connectTimeoutMillis), Duration.ofMillis(readTimeoutMillis));
+    }
+
+    /**
+     *  Resolves access tokens of the reactive read path without blocking. Shares cache settings with token services.
+     *  @param reactiveUserInfoClient - non-blocking client of the user info endpoint
+     *  @param meterRegistry - registry the cache statistics are published to
+     *  @param maximumSize - max amount of cached tokens
+     *  @param ttlSeconds - how long a resolved token is served from the cache
+     *  @param rejectedTtlSeconds - how long a rejected token is served from the cache
+     *  @return ReactiveTokenIntrospector instance
+     **/
+    @Bean
+    public ReactiveTokenIntrospector reactiveTokenIntrospector(ReactiveUserInfoClient reactiveUserInfoClient,
+                                                               MeterRegistry meterRegistry,
+                                                               @Value("${security.token-cache.maximum-size:10000}") long maximumSize,
+                                                               @Value("${security.token-cache.ttl-seconds:60}") long ttlSeconds,
+                                                               @Value("${security.token-cache.rejected-ttl-seconds:5}") long rejectedTtlSeconds) {
+        ReactiveTokenIntrospector introspector = new ReactiveTokenIntrospector(sso.getUserInfoUri(), reactiveUserInfoClient,
+                maximumSize, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(rejectedTtlSeconds));
+        introspector.bindTo(meterRegistry);
+        return introspector;
     }
 
+    /**
+     *  Keeps the authentication set from an internal principal when the request carries no bearer token.
+     *  No session is created, so nothing but the request itself authenticates it.
+     *  @param resources - resource server configurer
+     **/
+    @Override
+    public void configure(ResourceServerSecurityConfigurer resources) {
+        resources.stateless(false);
+    }
 
     /**
      *  Configures HttpSecurity object with basic features:
      *  - which requests must be authanticated
      *  - csrf option
+     *  Reactive read path is left out of the filter chain, its handlers authorize requests without blocking.
+     *  Requests forwarded by account-gateway are authenticated by their internal principal header.
      *  @param http - instance of HttpSecurity to initialize
      *  @throws Exception instance
      **/
     @Override
     public void configure(HttpSecurity http) throws Exception {
-        http.authorizeRequests()
+        http.requestMatcher(new NegatedRequestMatcher(new AntPathRequestMatcher("/reactive/**")))
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .addFilterBefore(new InternalPrincipalFilter(internalPrincipalVerifier), AbstractPreAuthenticatedProcessingFilter.class)
+                .authorizeRequests()
                 .antMatchers("/" , "/demo").permitAll()
                 .anyRequest().authenticated();
     }
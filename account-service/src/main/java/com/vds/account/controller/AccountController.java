@@ -3,9 +3,14 @@ package com.vds.account.controller;
 import com.vds.account.domain.Account;
 import com.vds.account.domain.User;
 import com.vds.account.dto.AccountDto;
+import com.vds.account.dto.AccountPage;
+import com.vds.account.dto.AccountSearch;
 import com.vds.account.dto.mapper.AccountMapper;
+import com.vds.account.service.AccountExporter;
+import com.vds.account.service.AccountImporter;
 import com.vds.account.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,8 +19,13 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -32,6 +42,12 @@ public class AccountController {
 	@Autowired
 	private AccountMapper accountMapper;
 
+	@Autowired
+	private AccountImporter accountImporter;
+
+	@Autowired
+	private AccountExporter accountExporter;
+
 	/**
 	 *  Returns an Account instance found by name.
 	 *  @param name Strign value to make search by name possible
@@ -43,6 +59,39 @@ public class AccountController {
 		return new ResponseEntity<>(accountService.findAccountByName(name), HttpStatus.OK);
 	}
 
+	/**
+	 *  Returns a page of accounts ordered by the "by" field and email.
+	 *  @param by - name, createdDate or modifiedDate
+	 *  @param name - optional exact name to narrow the search to
+	 *  @param from - optional start of the by date period, inclusive
+	 *  @param to - optional end of the by date period, exclusive
+	 *  @param fields - account fields to return, all when omitted
+	 *  @param limit - page size
+	 *  @param continuation - token of the previous page
+	 *  @return page of accounts with a continuation token for the next page
+	 **/
+	@PreAuthorize("#oauth2.hasScope('server')")
+	@RequestMapping(path = "/search", method = RequestMethod.GET)
+	public ResponseEntity<AccountPage> searchAccounts(
+			@RequestParam(defaultValue = "name") String by,
+			@RequestParam(required = false) String name,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+			@RequestParam(required = false) List<String> fields,
+			@RequestParam(defaultValue = "50") int limit,
+			@RequestParam(required = false) String continuation) {
+		AccountSearch search = AccountSearch.builder()
+				.by(by)
+				.name(name)
+				.from(from)
+				.to(to)
+				.fields(fields)
+				.limit(limit)
+				.continuation(continuation)
+				.build();
+		return new ResponseEntity<>(accountService.searchAccounts(search), HttpStatus.OK);
+	}
+
 	/**
 	 *  Creates account by provided User instance.
 	 *  ToDo: change it once User instance will be replaced
@@ -55,4 +104,45 @@ public class AccountController {
 		User user = accountMapper.accountDtoToUser(accountDto);
 		return new ResponseEntity<>(accountService.create(account, user), HttpStatus.CREATED);
 	}
+
+	/**
+	 *  Creates accounts from newline delimited JSON, one account per line.
+	 *  Response is newline delimited JSON as well, with one result per imported line.
+	 *  @param request - request with NDJSON body of accounts
+	 *  @param response - response the import results are streamed to
+	 **/
+	@PreAuthorize("#oauth2.hasScope('server')")
+	@RequestMapping(path = "/batch", method = RequestMethod.POST, consumes = AccountImporter.NDJSON_VALUE)
+	public void importAccounts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(AccountImporter.NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		accountImporter.importAccounts(request.getInputStream(), response.getOutputStream());
+	}
+
+	/**
+	 *  Streams all accounts, or accounts modified since provided time, as NDJSON or CSV.
+	 *  @param format - ndjson or csv
+	 *  @param modifiedSince - optional lower bound of modified date, inclusive
+	 *  @param response - response the accounts are streamed to
+	 **/
+	@PreAuthorize("#oauth2.hasScope('server')")
+	@RequestMapping(path = "/export", method = RequestMethod.GET)
+	public void exportAccounts(@RequestParam(defaultValue = "ndjson") String format,
+							   @RequestParam(required = false)
+							   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date modifiedSince,
+							   HttpServletResponse response) throws IOException {
+		AccountExporter.Format exportFormat;
+		try {
+			exportFormat = AccountExporter.Format.valueOf(format.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("unsupported export format: " + format, e);
+		}
+		response.setStatus(HttpStatus.OK.value());
+		response.setContentType(exportFormat == AccountExporter.Format.CSV
+				? AccountExporter.CSV_VALUE : AccountImporter.NDJSON_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		response.setHeader("Content-Disposition", "attachment; filename=accounts." + format.toLowerCase());
+		accountExporter.export(exportFormat, modifiedSince, response.getOutputStream());
+	}
 }
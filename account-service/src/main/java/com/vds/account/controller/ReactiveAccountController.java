@@ -0,0 +1,142 @@
+package com.vds.account.controller;
+
+import com.vds.account.domain.Account;
+import com.vds.account.service.ReactiveAccountService;
+import com.vds.account.service.security.InternalPrincipalVerifier;
+import com.vds.account.service.security.ReactiveTokenIntrospector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ *  Non-blocking variant of the account lookup endpoints.
+ *
+ *  Handlers return Mono, so the servlet thread is released as soon as the lookup is started and the response is
+ *  written once both the token introspection and the Mongo query complete. These paths are excluded from the OAuth2
+ *  filter chain, which would resolve the token on the servlet thread, and are authorized here instead. Requests
+ *  forwarded by account-gateway are authorized by their internal principal header with no token lookup.
+ **/
+@RestController
+@RequestMapping("/reactive")
+public class ReactiveAccountController {
+
+	private static final String BEARER_PREFIX = "bearer ";
+
+	@Autowired
+	private ReactiveAccountService accountService;
+
+	@Autowired
+	private ReactiveTokenIntrospector tokenIntrospector;
+
+	@Autowired
+	private InternalPrincipalVerifier principalVerifier;
+
+	/**
+	 *  Returns accounts found by name.
+	 *  @param authorization - bearer token of the calling service
+	 *  @param principal - internal principal added by account-gateway
+	 *  @param name - account name to search by
+	 *  @return found Account entities
+	 **/
+	@RequestMapping(path = "/{name}", method = RequestMethod.GET)
+	public Mono<ResponseEntity<List<Account>>> getAccountByName(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = InternalPrincipalVerifier.HEADER, required = false) String principal,
+			@PathVariable String name) {
+		return authorize(authorization, principal, "server")
+				.then(Mono.defer(() -> accountService.findAccountByName(name).collectList()))
+				.map(accounts -> new ResponseEntity<>(accounts, HttpStatus.OK));
+	}
+
+	/**
+	 *  Returns an account found by email.
+	 *  @param authorization - bearer token of the calling service
+	 *  @param principal - internal principal added by account-gateway
+	 *  @param email - account email to search by
+	 *  @return found Account entity or 404 if there is none
+	 **/
+	@RequestMapping(path = "/email/{email:.+}", method = RequestMethod.GET)
+	public Mono<ResponseEntity<Account>> getAccountByEmail(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = InternalPrincipalVerifier.HEADER, required = false) String principal,
+			@PathVariable String email) {
+		return authorize(authorization, principal, "server")
+				.then(Mono.defer(() -> accountService.findAccountByEmail(email)))
+				.map(account -> new ResponseEntity<>(account, HttpStatus.OK))
+				.defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+	}
+
+	/**
+	 *  Returns accounts created within provided period.
+	 *  @param authorization - bearer token of the calling service
+	 *  @param principal - internal principal added by account-gateway
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
+	 *  @return found Account entities
+	 **/
+	@RequestMapping(path = "/created", method = RequestMethod.GET)
+	public Mono<ResponseEntity<List<Account>>> getAccountsByCreatedDate(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = InternalPrincipalVerifier.HEADER, required = false) String principal,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+		return authorize(authorization, principal, "server")
+				.then(Mono.defer(() -> accountService.findAccountByCreatedDate(from, to).collectList()))
+				.map(accounts -> new ResponseEntity<>(accounts, HttpStatus.OK));
+	}
+
+	/**
+	 *  Returns accounts modified within provided period.
+	 *  @param authorization - bearer token of the calling service
+	 *  @param principal - internal principal added by account-gateway
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
+	 *  @return found Account entities
+	 **/
+	@RequestMapping(path = "/modified", method = RequestMethod.GET)
+	public Mono<ResponseEntity<List<Account>>> getAccountsByModifiedDate(
+			@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+			@RequestHeader(name = InternalPrincipalVerifier.HEADER, required = false) String principal,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+		return authorize(authorization, principal, "server")
+				.then(Mono.defer(() -> accountService.findAccountByModifiedDate(from, to).collectList()))
+				.map(accounts -> new ResponseEntity<>(accounts, HttpStatus.OK));
+	}
+
+	/**
+	 *  Completes when the bearer token, or the internal principal if there is no token, is valid and grants the
+	 *  scope, fails with 401 or 403 otherwise.
+	 **/
+	private Mono<Void> authorize(String authorization, String principal, String scope) {
+		Mono<OAuth2Authentication> caller;
+		if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+			caller = tokenIntrospector.loadAuthentication(authorization.substring(BEARER_PREFIX.length()).trim());
+		} else if (principal != null) {
+			caller = Mono.fromCallable(() -> principalVerifier.verify(principal));
+		} else {
+			return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "bearer token must be provided"));
+		}
+		return caller
+				.onErrorMap(InvalidTokenException.class,
+						e -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "invalid access token"))
+				.filter(authentication -> authentication.getOAuth2Request().getScope().contains(scope))
+				.switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "insufficient scope")))
+				.then();
+	}
+}
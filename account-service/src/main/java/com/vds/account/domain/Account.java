@@ -1,10 +1,13 @@
 package com.vds.account.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
@@ -13,13 +16,19 @@ import java.util.Date;
  *  Account model entity that contains major information about account.
  **/
 @Document(collection = "accounts")
+@CompoundIndexes({
+		@CompoundIndex(name = "name_id", def = "{ 'name' : 1, '_id' : 1 }"),
+		@CompoundIndex(name = "createdDate_id", def = "{ 'createdDate' : 1, '_id' : 1 }"),
+		@CompoundIndex(name = "modifiedDate_id", def = "{ 'modifiedDate' : 1, '_id' : 1 }"),
+		@CompoundIndex(name = "provision_nextAttemptAt", def = "{ 'provision.nextAttemptAt' : 1 }", sparse = true),
+		@CompoundIndex(name = "outbox_nextAttemptAt", def = "{ 'outbox.nextAttemptAt' : 1 }", sparse = true)
+})
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
 public class Account {
 
-
 	private String name;
 
 	@Id
@@ -29,4 +38,16 @@ public class Account {
 
 	private Date modifiedDate;
 
+	/**
+	 *  User creation in auth service that hasn't been delivered yet, removed once it is.
+	 **/
+	@JsonIgnore
+	private PendingProvision provision;
+
+	/**
+	 *  Changes of the account that haven't been published yet, removed once they are.
+	 **/
+	@JsonIgnore
+	private EventOutbox outbox;
+
 }
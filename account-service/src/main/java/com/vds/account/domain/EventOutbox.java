@@ -0,0 +1,54 @@
+package com.vds.account.domain;
+
+import com.vds.account.event.AccountChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ *  Outbox embedded into an account: changes of the account that haven't been published yet.
+ *  Events are appended by the same write that changes the account and removed by AccountEventPublisher once the
+ *  broker has confirmed them, so a change is published if and only if it has been stored.
+ **/
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class EventOutbox {
+
+	private List<PendingEvent> events;
+
+	/**
+	 *  When the events may be claimed by a publisher next, unset while they are held back.
+	 **/
+	private Date nextAttemptAt;
+
+	/**
+	 *  Token of the publisher run that currently holds the events.
+	 **/
+	private String lease;
+
+	/**
+	 *  When the lease expires, so events of a crashed publisher run are claimed again.
+	 **/
+	private Date leasedUntil;
+
+	/**
+	 *  @param event - change to publish
+	 *  @param nextAttemptAt - when the change may be published, null to hold it back until it is released
+	 *  @return EventOutbox holding the single event
+	 **/
+	public static EventOutbox of(AccountChangeEvent event, Date nextAttemptAt) {
+		List<PendingEvent> events = new ArrayList<>();
+		events.add(PendingEvent.of(event));
+		return EventOutbox.builder()
+				.events(events)
+				.nextAttemptAt(nextAttemptAt)
+				.build();
+	}
+}
@@ -0,0 +1,30 @@
+package com.vds.account.domain;
+
+import com.vds.account.event.AccountChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ *  Account change kept in the outbox of the account until the broker has confirmed it.
+ **/
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PendingEvent {
+
+	/**
+	 *  Identifies the entry, so a publisher removes exactly the entries it has sent.
+	 **/
+	private String eventId;
+
+	private AccountChangeEvent event;
+
+	public static PendingEvent of(AccountChangeEvent event) {
+		return new PendingEvent(UUID.randomUUID().toString(), event);
+	}
+}
@@ -0,0 +1,38 @@
+package com.vds.account.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ *  Outbox entry embedded into an account: the user that still has to be created in auth service.
+ *  The password is kept sealed with SecretCipher until the user is delivered and the entry is removed.
+ **/
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PendingProvision {
+
+	private String username;
+
+	private String sealedPassword;
+
+	private int attempts;
+
+	/**
+	 *  When the entry may be claimed by a dispatcher next, unset once delivery has been given up.
+	 **/
+	private Date nextAttemptAt;
+
+	/**
+	 *  Token of the dispatcher run that currently holds the entry.
+	 **/
+	private String lease;
+
+	private String lastError;
+
+}
@@ -0,0 +1,27 @@
+package com.vds.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ *  Outcome of a single line of bulk account import.
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class AccountImportResult {
+
+    public enum Status { CREATED, EXISTS, INVALID, FAILED }
+
+    private long line;
+
+    private String email;
+
+    private Status status;
+
+    private String message;
+
+}
@@ -0,0 +1,25 @@
+package com.vds.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ *  A page of account search results. Items contain requested account fields only.
+ *  Continuation is an opaque token to request the next page with, it is null on the last page.
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class AccountPage {
+
+    private List<Map<String, Object>> items;
+
+    private String continuation;
+
+}
@@ -0,0 +1,35 @@
+package com.vds.account.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ *  Account search criteria. Results are ordered by the "by" field (name, createdDate or modifiedDate) and email.
+ *  Name narrows results to accounts with exactly this name, from and to narrow the by date to [from, to).
+ **/
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+@Builder
+public class AccountSearch {
+
+    private String by;
+
+    private String name;
+
+    private Date from;
+
+    private Date to;
+
+    private List<String> fields;
+
+    private int limit;
+
+    private String continuation;
+
+}
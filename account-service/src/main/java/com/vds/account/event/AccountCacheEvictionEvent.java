@@ -0,0 +1,27 @@
+package com.vds.account.event;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ *  Broadcast over Spring Cloud Bus when an account is changed, so every replica drops its cached copy.
+ **/
+public class AccountCacheEvictionEvent extends RemoteApplicationEvent {
+
+	private String email;
+
+	/**
+	 *  Used by Jackson when the event is received from the bus.
+	 **/
+	@SuppressWarnings("unused")
+	private AccountCacheEvictionEvent() {
+	}
+
+	public AccountCacheEvictionEvent(Object source, String originService, String email) {
+		super(source, originService);
+		this.email = email;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+}
@@ -0,0 +1,56 @@
+package com.vds.account.event;
+
+import com.vds.account.domain.Account;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ *  Change of a single account published to downstream consumers.
+ *  Created events carry the whole account. Updated events carry changed fields only, other fields are null.
+ **/
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class AccountChangeEvent {
+
+	public enum Type { CREATED, UPDATED }
+
+	private Type type;
+
+	private String email;
+
+	private String name;
+
+	private Date createdDate;
+
+	private Date modifiedDate;
+
+	/**
+	 *  Epoch millis of the change, lets consumers discard events older than their read model.
+	 **/
+	private long occurredAt;
+
+	public static AccountChangeEvent created(Account account) {
+		return of(Type.CREATED, account);
+	}
+
+	public static AccountChangeEvent updated(Account update) {
+		return of(Type.UPDATED, update);
+	}
+
+	private static AccountChangeEvent of(Type type, Account account) {
+		return AccountChangeEvent.builder()
+				.type(type)
+				.email(account.getEmail())
+				.name(account.getName())
+				.createdDate(account.getCreatedDate())
+				.modifiedDate(account.getModifiedDate())
+				.occurredAt(System.currentTimeMillis())
+				.build();
+	}
+}
@@ -0,0 +1,138 @@
+package com.vds.account.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ *  Compact binary encoding of account event batches, shared by the publisher and consumers.
+ *
+ *  batch := version:u8 count:varint event*
+ *  event := header:u8 occurredAt:i64 email:string [name:string] [createdDate:i64] [modifiedDate:i64]
+ *  string := length:varint utf-8 bytes
+ *
+ *  Bits 0-1 of the header hold the event type, bits 2-4 tell which optional fields follow. Numbers are big endian.
+ **/
+public final class AccountEventCodec {
+
+	public static final String CONTENT_TYPE = "application/vnd.vds.account-events.v1";
+
+	static final int VERSION = 1;
+
+	private static final int TYPE_MASK = 0b11;
+
+	private static final int HAS_NAME = 1 << 2;
+
+	private static final int HAS_CREATED_DATE = 1 << 3;
+
+	private static final int HAS_MODIFIED_DATE = 1 << 4;
+
+	private static final AccountChangeEvent.Type[] TYPES = AccountChangeEvent.Type.values();
+
+	private AccountEventCodec() {
+	}
+
+	public static byte[] encode(List<AccountChangeEvent> events) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + events.size() * 64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeByte(VERSION);
+			writeVarInt(out, events.size());
+			for (AccountChangeEvent event : events) {
+				int header = event.getType().ordinal()
+						| (event.getName() != null ? HAS_NAME : 0)
+						| (event.getCreatedDate() != null ? HAS_CREATED_DATE : 0)
+						| (event.getModifiedDate() != null ? HAS_MODIFIED_DATE : 0);
+				out.writeByte(header);
+				out.writeLong(event.getOccurredAt());
+				writeString(out, event.getEmail());
+				if (event.getName() != null) {
+					writeString(out, event.getName());
+				}
+				if (event.getCreatedDate() != null) {
+					out.writeLong(event.getCreatedDate().getTime());
+				}
+				if (event.getModifiedDate() != null) {
+					out.writeLong(event.getModifiedDate().getTime());
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	/**
+	 *  @param batch - bytes produced by encode
+	 *  @return events of the batch in publishing order
+	 *  @throws IllegalArgumentException if the batch is truncated or of an unknown version
+	 **/
+	public static List<AccountChangeEvent> decode(byte[] batch) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(batch))) {
+			int version = in.readUnsignedByte();
+			if (version != VERSION) {
+				throw new IllegalArgumentException("unsupported account event batch version " + version);
+			}
+			int count = readVarInt(in);
+			List<AccountChangeEvent> events = new ArrayList<>(count);
+			for (int i = 0; i != count; i++) {
+				int header = in.readUnsignedByte();
+				AccountChangeEvent event = new AccountChangeEvent();
+				event.setType(TYPES[header & TYPE_MASK]);
+				event.setOccurredAt(in.readLong());
+				event.setEmail(readString(in));
+				if ((header & HAS_NAME) != 0) {
+					event.setName(readString(in));
+				}
+				if ((header & HAS_CREATED_DATE) != 0) {
+					event.setCreatedDate(new Date(in.readLong()));
+				}
+				if ((header & HAS_MODIFIED_DATE) != 0) {
+					event.setModifiedDate(new Date(in.readLong()));
+				}
+				events.add(event);
+			}
+			return events;
+		} catch (IOException | ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("malformed account event batch", e);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("varint is too long");
+	}
+}
@@ -0,0 +1,177 @@
+package com.vds.account.event;
+
+import com.vds.account.domain.Account;
+import com.vds.account.domain.PendingEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ *  Relays account changes from the outbox embedded into accounts to the broker in batches.
+ *
+ *  An event is written by the same update that changes the account, so nothing is lost when the broker is down or
+ *  the instance stops: events stay in the outbox until the broker confirms them. Due outboxes are claimed with a
+ *  lease like provisions of UserProvisioningDispatcher, so concurrent instances don't send the same events and
+ *  a crashed run is picked up again once the lease expires. Only the sent events are removed after the confirm,
+ *  events appended in the meantime stay due for the next run. An event is delivered at least once: it is sent again
+ *  when its removal doesn't happen, consumers are expected to skip duplicates.
+ **/
+@Component
+public class AccountEventPublisher {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MongoTemplate mongoTemplate;
+
+	private final AccountEventTransport transport;
+
+	private final int batchSize;
+
+	private final long leaseMillis;
+
+	private final long retryBackoffMillis;
+
+	private final Counter published;
+
+	private final Counter failedSends;
+
+	@Autowired
+	public AccountEventPublisher(MongoTemplate mongoTemplate,
+								 AccountEventTransport transport,
+								 MeterRegistry registry,
+								 @Value("${accounts.events.batch-size:100}") int batchSize,
+								 @Value("${accounts.events.lease-millis:60000}") long leaseMillis,
+								 @Value("${accounts.events.retry-backoff-millis:1000}") long retryBackoffMillis) {
+		this.mongoTemplate = mongoTemplate;
+		this.transport = transport;
+		this.batchSize = batchSize;
+		this.leaseMillis = leaseMillis;
+		this.retryBackoffMillis = retryBackoffMillis;
+
+		this.published = Counter.builder("account.events.published")
+				.description("account events confirmed by the broker")
+				.register(registry);
+		this.failedSends = Counter.builder("account.events.failed-sends")
+				.description("batch sends that failed or weren't confirmed")
+				.register(registry);
+	}
+
+	/**
+	 *  Publishes due outboxes batch by batch until a batch isn't full.
+	 **/
+	@Scheduled(fixedDelayString = "${accounts.events.flush-interval-millis:200}")
+	public void publish() {
+		int claimed;
+		do {
+			claimed = publishBatch(new Date());
+		} while (claimed == batchSize);
+	}
+
+	/**
+	 *  Claims a batch of due outboxes and sends their events as one message.
+	 *  @param now - current time
+	 *  @return number of claimed outboxes
+	 **/
+	int publishBatch(Date now) {
+		String lease = UUID.randomUUID().toString();
+		List<Account> claimed = claim(now, lease);
+		if (claimed.isEmpty()) {
+			return 0;
+		}
+		List<Object> ids = claimed.stream().map(Account::getEmail).collect(Collectors.toList());
+
+		List<AccountChangeEvent> events = claimed.stream()
+				.flatMap(account -> account.getOutbox().getEvents().stream())
+				.map(PendingEvent::getEvent)
+				.sorted(Comparator.comparingLong(AccountChangeEvent::getOccurredAt))
+				.collect(Collectors.toList());
+		try {
+			transport.send(AccountEventCodec.encode(events), events.size());
+		} catch (RuntimeException e) {
+			failedSends.increment();
+			log.warn("failed to publish {} account events, retrying in {} ms", events.size(), retryBackoffMillis, e);
+			mongoTemplate.updateMulti(query(where("_id").in(ids).and("outbox.lease").is(lease)),
+					new Update()
+							.unset("outbox.lease")
+							.unset("outbox.leasedUntil")
+							.set("outbox.nextAttemptAt", new Date(now.getTime() + retryBackoffMillis)),
+					Account.class);
+			return claimed.size();
+		}
+
+		BulkOperations removals = mongoTemplate.bulkOps(BulkMode.UNORDERED, Account.class);
+		for (Account account : claimed) {
+			List<String> sent = account.getOutbox().getEvents().stream()
+					.map(PendingEvent::getEventId)
+					.collect(Collectors.toList());
+			removals.updateOne(query(where("_id").is(account.getEmail()).and("outbox.lease").is(lease)),
+					new Update()
+							.pull("outbox.events", new Document("eventId", new Document("$in", sent)))
+							.unset("outbox.lease")
+							.unset("outbox.leasedUntil"));
+		}
+		removals.execute();
+		mongoTemplate.updateMulti(query(where("_id").in(ids).and("outbox.events").size(0)),
+				new Update().unset("outbox"), Account.class);
+		published.increment(events.size());
+		return claimed.size();
+	}
+
+	/**
+	 *  Leases due outboxes to this run and returns the leased accounts with their outbox only.
+	 **/
+	private List<Account> claim(Date now, String lease) {
+		Query due = query(due(now)).limit(batchSize);
+		due.fields().include("_id");
+		List<Object> ids = mongoTemplate.find(due, Document.class, mongoTemplate.getCollectionName(Account.class))
+				.stream()
+				.map(document -> document.get("_id"))
+				.collect(Collectors.toList());
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		mongoTemplate.updateMulti(query(new Criteria().andOperator(where("_id").in(ids), due(now))),
+				new Update()
+						.set("outbox.lease", lease)
+						.set("outbox.leasedUntil", new Date(now.getTime() + leaseMillis)),
+				Account.class);
+
+		Query leased = query(where("_id").in(ids).and("outbox.lease").is(lease));
+		leased.fields().include("outbox");
+		return mongoTemplate.find(leased, Account.class);
+	}
+
+	/**
+	 *  Outboxes whose events are due and which aren't leased to a live run. A change appended while the outbox is
+	 *  leased makes it due at once, the lease keeps other runs away until the sent events are removed.
+	 **/
+	private static Criteria due(Date now) {
+		return where("outbox.nextAttemptAt").lte(now).orOperator(
+				where("outbox.leasedUntil").exists(false),
+				where("outbox.leasedUntil").lte(now));
+	}
+}
@@ -0,0 +1,15 @@
+package com.vds.account.event;
+
+/**
+ *  Delivers encoded account event batches to a broker.
+ **/
+public interface AccountEventTransport {
+
+	/**
+	 *  Sends a batch and returns once the broker has confirmed it.
+	 *  @param batch - batch encoded with AccountEventCodec
+	 *  @param eventCount - number of events in the batch
+	 *  @throws RuntimeException if the batch hasn't been sent or confirmed
+	 **/
+	void send(byte[] batch, int eventCount);
+}
@@ -0,0 +1,46 @@
+package com.vds.account.event;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+/**
+ *  Publishes account event batches to a topic exchange of the RabbitMQ broker used by Spring Cloud Bus.
+ *  Each batch is a persistent message sent on a dedicated channel that waits for the publisher confirm,
+ *  which requires publisher confirms to be enabled on the connection factory.
+ **/
+public class RabbitAccountEventTransport implements AccountEventTransport {
+
+	static final String EVENT_COUNT_HEADER = "event-count";
+
+	private final RabbitTemplate rabbitTemplate;
+
+	private final String exchange;
+
+	private final String routingKey;
+
+	private final long confirmTimeoutMillis;
+
+	public RabbitAccountEventTransport(RabbitTemplate rabbitTemplate, String exchange, String routingKey,
+									   long confirmTimeoutMillis) {
+		this.rabbitTemplate = rabbitTemplate;
+		this.exchange = exchange;
+		this.routingKey = routingKey;
+		this.confirmTimeoutMillis = confirmTimeoutMillis;
+	}
+
+	@Override
+	public void send(byte[] batch, int eventCount) {
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(AccountEventCodec.CONTENT_TYPE);
+		properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+		properties.setHeader(EVENT_COUNT_HEADER, eventCount);
+		Message message = new Message(batch, properties);
+		rabbitTemplate.invoke(operations -> {
+			operations.send(exchange, routingKey, message);
+			operations.waitForConfirmsOrDie(confirmTimeoutMillis);
+			return null;
+		});
+	}
+}
@@ -2,6 +2,7 @@ package com.vds.account.repository;
 
 import com.vds.account.domain.Account;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -11,14 +12,22 @@ import java.util.List;
  *  DAO layer for account model. Serves to exchange data between micro-service and related to it, db
  **/
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
 
 	List<Account> findByName(String name);
 
 	Account findByEmail(String email);
 
-	List<Account> findByCreatedDate(Date createDate);
-
-	List<Account> findByModifiedDate(Date modifiedDate);
+	/**
+	 *  Returns accounts created within [from, to).
+	 **/
+	@Query("{ 'createdDate' : { $gte : ?0, $lt : ?1 } }")
+	List<Account> findByCreatedDateBetween(Date from, Date to);
+
+	/**
+	 *  Returns accounts modified within [from, to).
+	 **/
+	@Query("{ 'modifiedDate' : { $gte : ?0, $lt : ?1 } }")
+	List<Account> findByModifiedDateBetween(Date from, Date to);
 
 }
@@ -0,0 +1,41 @@
+package com.vds.account.repository;
+
+import com.vds.account.domain.Account;
+import com.vds.account.event.AccountChangeEvent;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ *  Account DAO operations which can't be derived from method names.
+ **/
+public interface AccountRepositoryCustom {
+
+	/**
+	 *  Sets all non null fields of provided account on the stored document with the same email in one update.
+	 *  Email and created date are never changed. The event is appended to the outbox of the account by the same
+	 *  update, so it is published if and only if the change has been stored.
+	 *  @param update - account with changed fields
+	 *  @param event - change to publish
+	 *  @return number of matched documents, 0 when there is no account with such email
+	 **/
+	long updateFields(Account update, AccountChangeEvent event);
+
+	/**
+	 *  Returns a page of raw account documents matching the filter, ordered by the sort field and id.
+	 *  Paging seeks past the last returned key instead of skipping documents, so deep pages cost the same
+	 *  as the first one when an index on (sortField, _id) exists.
+	 *  @param filter - criteria documents have to match
+	 *  @param sortField - stored name of the field to order by
+	 *  @param afterValue - sort field value of the last document of the previous page
+	 *  @param afterId - id of the last document of the previous page, null for the first page
+	 *  @param fields - stored names of the fields to return, id and sort field are always returned
+	 *  @param limit - maximal number of returned documents
+	 *  @return list of documents
+	 **/
+	List<Document> findPage(Criteria filter, String sortField, Object afterValue, String afterId,
+							Collection<String> fields, int limit);
+
+}
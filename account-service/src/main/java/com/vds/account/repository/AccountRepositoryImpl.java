@@ -0,0 +1,68 @@
+package com.vds.account.repository;
+
+import com.vds.account.domain.Account;
+import com.vds.account.domain.PendingEvent;
+import com.vds.account.event.AccountChangeEvent;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ *  MongoTemplate based implementation of custom account DAO operations.
+ **/
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+
+	// provision and outbox are owned by their dispatchers and never changed by account updates
+	private static final Set<String> IMMUTABLE_FIELDS = Set.of("_id", "_class", "createdDate", "provision", "outbox");
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Override
+	public long updateFields(Account update, AccountChangeEvent event) {
+		Document changes = new Document();
+		mongoTemplate.getConverter().write(update, changes);
+
+		Update set = new Update();
+		changes.forEach((field, value) -> {
+			if (value != null && !IMMUTABLE_FIELDS.contains(field)) {
+				set.set(field, value);
+			}
+		});
+		set.push("outbox.events", PendingEvent.of(event));
+		set.min("outbox.nextAttemptAt", new Date());
+		return mongoTemplate.updateFirst(query(where("_id").is(update.getEmail())), set, Account.class)
+				.getMatchedCount();
+	}
+
+	@Override
+	public List<Document> findPage(Criteria filter, String sortField, Object afterValue, String afterId,
+								   Collection<String> fields, int limit) {
+		Criteria criteria = filter;
+		if (afterId != null) {
+			Criteria seek = new Criteria().orOperator(
+					where(sortField).gt(afterValue),
+					new Criteria().andOperator(where(sortField).is(afterValue), where("_id").gt(afterId)));
+			criteria = new Criteria().andOperator(filter, seek);
+		}
+
+		Query query = query(criteria)
+				.with(Sort.by(Sort.Order.asc(sortField), Sort.Order.asc("_id")))
+				.limit(limit);
+		fields.forEach(field -> query.fields().include(field));
+		query.fields().include(sortField);
+		return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Account.class));
+	}
+}
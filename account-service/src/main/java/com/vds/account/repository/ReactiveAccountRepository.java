@@ -0,0 +1,34 @@
+package com.vds.account.repository;
+
+import com.vds.account.domain.Account;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ *  Non-blocking DAO layer for account model. Mirrors read queries of AccountRepository for the reactive read path.
+ **/
+@Repository
+public interface ReactiveAccountRepository extends ReactiveMongoRepository<Account, String> {
+
+	Flux<Account> findByName(String name);
+
+	Mono<Account> findByEmail(String email);
+
+	/**
+	 *  Returns accounts created within [from, to).
+	 **/
+	@Query("{ 'createdDate' : { $gte : ?0, $lt : ?1 } }")
+	Flux<Account> findByCreatedDateBetween(Date from, Date to);
+
+	/**
+	 *  Returns accounts modified within [from, to).
+	 **/
+	@Query("{ 'modifiedDate' : { $gte : ?0, $lt : ?1 } }")
+	Flux<Account> findByModifiedDateBetween(Date from, Date to);
+
+}
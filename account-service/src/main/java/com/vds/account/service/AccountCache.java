@@ -0,0 +1,145 @@
+package com.vds.account.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vds.account.domain.Account;
+import com.vds.account.event.AccountCacheEvictionEvent;
+import com.vds.account.repository.AccountRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Read-through cache of accounts looked up by email.
+ *
+ *  Entries are bounded by size and TTL and hold an immutable copy of the account, a fresh Account is built on each
+ *  read, so callers can't change the cached state. Missing accounts aren't cached. Writers evict the account after
+ *  the write: the local entry is dropped immediately and an eviction is broadcast over the bus to other replicas,
+ *  which keeps their copies stale for the bus delivery time at most, and for the TTL if the broadcast is lost.
+ *  An eviction racing with a load of the same email waits for the load, so a value read before the write is not
+ *  left in the cache.
+ **/
+@Component
+public class AccountCache {
+
+	private final AccountRepository repository;
+
+	private final ApplicationEventPublisher applicationEventPublisher;
+
+	private final BusProperties busProperties;
+
+	private final Cache<String, CachedAccount> accounts;
+
+	private final Timer loads;
+
+	@Autowired
+	public AccountCache(AccountRepository repository,
+						ApplicationEventPublisher applicationEventPublisher,
+						BusProperties busProperties,
+						MeterRegistry registry,
+						@Value("${accounts.cache.maximum-size:10000}") long maximumSize,
+						@Value("${accounts.cache.ttl-seconds:300}") long ttlSeconds) {
+		this.repository = repository;
+		this.applicationEventPublisher = applicationEventPublisher;
+		this.busProperties = busProperties;
+		this.accounts = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+				.recordStats()
+				.build();
+
+		CaffeineCacheMetrics.monitor(registry, accounts, "accounts");
+		Gauge.builder("accounts.cache.hit-ratio", accounts, cache -> cache.stats().hitRate())
+				.description("share of account lookups served from the cache")
+				.register(registry);
+		this.loads = Timer.builder("accounts.cache.load")
+				.description("latency of account lookups that missed the cache")
+				.publishPercentiles(0.5, 0.99)
+				.register(registry);
+	}
+
+	/**
+	 *  Returns the cached account or loads it from the repository.
+	 *  @param email - email of the account
+	 *  @return a new Account instance or null if there is no such account
+	 **/
+	public Account get(String email) {
+		CachedAccount cached = accounts.get(email, key -> loads.record(() -> CachedAccount.of(repository.findByEmail(key))));
+		return cached != null ? cached.toAccount() : null;
+	}
+
+	/**
+	 *  Drops the account on this replica and broadcasts the eviction to others. Call it after the write is applied.
+	 *  @param email - email of the changed account
+	 **/
+	public void evict(String email) {
+		accounts.invalidate(email);
+		applicationEventPublisher.publishEvent(new AccountCacheEvictionEvent(this, busProperties.getId(), email));
+	}
+
+	/**
+	 *  Handles evictions received from the bus as well as the local ones echoed back by the bus.
+	 **/
+	@EventListener
+	public void onEviction(AccountCacheEvictionEvent event) {
+		accounts.invalidate(event.getEmail());
+	}
+
+	/**
+	 *  Immutable cached state of an account, dates are kept as epoch millis.
+	 **/
+	private static final class CachedAccount {
+
+		private static final long NO_DATE = Long.MIN_VALUE;
+
+		private final String name;
+
+		private final String email;
+
+		private final long createdDate;
+
+		private final long modifiedDate;
+
+		private CachedAccount(String name, String email, long createdDate, long modifiedDate) {
+			this.name = name;
+			this.email = email;
+			this.createdDate = createdDate;
+			this.modifiedDate = modifiedDate;
+		}
+
+		static CachedAccount of(Account account) {
+			if (account == null) {
+				return null;
+			}
+			return new CachedAccount(account.getName(), account.getEmail(),
+					toMillis(account.getCreatedDate()), toMillis(account.getModifiedDate()));
+		}
+
+		Account toAccount() {
+			return Account.builder()
+					.name(name)
+					.email(email)
+					.createdDate(toDate(createdDate))
+					.modifiedDate(toDate(modifiedDate))
+					.build();
+		}
+
+		private static long toMillis(Date date) {
+			return date != null ? date.getTime() : NO_DATE;
+		}
+
+		private static Date toDate(long millis) {
+			return millis != NO_DATE ? new Date(millis) : null;
+		}
+	}
+}
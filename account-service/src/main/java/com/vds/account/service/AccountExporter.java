@@ -0,0 +1,131 @@
+package com.vds.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vds.account.domain.Account;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ *  Exports accounts as NDJSON or CSV straight from a Mongo cursor.
+ *
+ *  Documents are read in cursor batches of a configured size and written to the output one by one, so only a
+ *  single batch is held in memory whatever the size of the collection. Writes block while a slow client drains
+ *  the response, and the cursor isn't advanced meanwhile, which keeps Mongo reads at the pace of the client.
+ **/
+@Service
+public class AccountExporter {
+
+	public enum Format { NDJSON, CSV }
+
+	public static final String CSV_VALUE = "text/csv";
+
+	static final String[] FIELDS = { "email", "name", "createdDate", "modifiedDate" };
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MongoTemplate mongoTemplate;
+
+	private final ObjectWriter writer;
+
+	private final int batchSize;
+
+	@Autowired
+	public AccountExporter(MongoTemplate mongoTemplate,
+						   ObjectMapper objectMapper,
+						   @Value("${accounts.export.batch-size:1000}") int batchSize) {
+		this.mongoTemplate = mongoTemplate;
+		this.writer = objectMapper.writer();
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 *  Writes all accounts, or accounts modified since provided time only, to the output.
+	 *  @param format - output format
+	 *  @param modifiedSince - optional lower bound of modified date, inclusive
+	 *  @param out - stream to write accounts to
+	 *  @return number of exported accounts
+	 **/
+	public long export(Format format, Date modifiedSince, OutputStream out) throws IOException {
+		Query query = modifiedSince != null ? Query.query(where("modifiedDate").gte(modifiedSince)) : new Query();
+		query.fields().include("name").include("createdDate").include("modifiedDate");
+		query.cursorBatchSize(batchSize);
+
+		BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+		if (format == Format.CSV) {
+			buffered.write((String.join(",", FIELDS) + "\n").getBytes(StandardCharsets.UTF_8));
+		}
+
+		long exported = 0;
+		try (CloseableIterator<Document> cursor = mongoTemplate.stream(query, Document.class,
+				mongoTemplate.getCollectionName(Account.class))) {
+			while (cursor.hasNext()) {
+				Map<String, Object> account = toAccount(cursor.next());
+				if (format == Format.CSV) {
+					writeCsv(buffered, account);
+				} else {
+					buffered.write(writer.writeValueAsBytes(account));
+					buffered.write('\n');
+				}
+				if (++exported % batchSize == 0) {
+					buffered.flush();
+				}
+			}
+		}
+		buffered.flush();
+		log.info("account export finished: {} accounts in {}", exported, format);
+		return exported;
+	}
+
+	private static Map<String, Object> toAccount(Document document) {
+		Map<String, Object> account = new LinkedHashMap<>();
+		account.put("email", document.get("_id"));
+		account.put("name", document.get("name"));
+		account.put("createdDate", document.get("createdDate"));
+		account.put("modifiedDate", document.get("modifiedDate"));
+		return account;
+	}
+
+	private static void writeCsv(OutputStream out, Map<String, Object> account) throws IOException {
+		StringBuilder line = new StringBuilder(128);
+		for (String field : FIELDS) {
+			if (line.length() > 0) {
+				line.append(',');
+			}
+			Object value = account.get(field);
+			if (value instanceof Date) {
+				line.append(((Date) value).toInstant());
+			} else if (value != null) {
+				line.append(csvEscape(value.toString()));
+			}
+		}
+		line.append('\n');
+		out.write(line.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String csvEscape(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,301 @@
+package com.vds.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.BulkWriteError;
+import com.vds.account.client.AuthServiceBatchClient;
+import com.vds.account.domain.Account;
+import com.vds.account.domain.EventOutbox;
+import com.vds.account.domain.PendingProvision;
+import com.vds.account.domain.User;
+import com.vds.account.dto.AccountDto;
+import com.vds.account.dto.AccountImportResult;
+import com.vds.account.dto.AccountImportResult.Status;
+import com.vds.account.dto.UserCreationResult;
+import com.vds.account.dto.mapper.AccountMapper;
+import com.vds.account.event.AccountChangeEvent;
+import com.vds.account.service.security.SecretCipher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ *  Imports accounts from a stream of newline delimited JSON, one AccountDto per line.
+ *
+ *  Lines are read and validated one by one and written in batches: accounts with an unordered Mongo bulk insert,
+ *  users with a single call to the batch endpoint of auth service. The outcome of each line is written to the output
+ *  as soon as its batch completes, so a client can follow progress of a long import.
+ *
+ *  Accounts are inserted with their user as a pending provision and their created event in the outbox, both held
+ *  back for the provision delay, so a crashed import is completed by UserProvisioningDispatcher and
+ *  AccountEventPublisher. Like the dispatcher, the importer counts a user reported as existing as created, since the
+ *  username is the idempotency key. When the batch call fails or leaves a user without result, whether auth service
+ *  has created it is unknown, so the provision is handed to the dispatcher at once instead of removing the account.
+ *  Only an account whose user auth service refused is removed again.
+ **/
+@Service
+public class AccountImporter {
+
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+
+	private static final int DUPLICATE_KEY_CODE = 11000;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MongoTemplate mongoTemplate;
+
+	private final AuthServiceBatchClient authClient;
+
+	private final SecretCipher secretCipher;
+
+	private final AccountMapper accountMapper;
+
+	private final Validator validator;
+
+	private final ObjectReader reader;
+
+	private final ObjectWriter writer;
+
+	private final int batchSize;
+
+	private final long provisionDelayMillis;
+
+	@Autowired
+	public AccountImporter(MongoTemplate mongoTemplate,
+						   AuthServiceBatchClient authClient,
+						   SecretCipher secretCipher,
+						   AccountMapper accountMapper,
+						   Validator validator,
+						   ObjectMapper objectMapper,
+						   @Value("${accounts.import.batch-size:1000}") int batchSize,
+						   @Value("${accounts.import.provision-delay-millis:300000}") long provisionDelayMillis) {
+		this.mongoTemplate = mongoTemplate;
+		this.authClient = authClient;
+		this.secretCipher = secretCipher;
+		this.accountMapper = accountMapper;
+		this.validator = validator;
+		this.reader = objectMapper.readerFor(AccountDto.class);
+		this.writer = objectMapper.writerFor(AccountImportResult.class);
+		this.batchSize = batchSize;
+		this.provisionDelayMillis = provisionDelayMillis;
+	}
+
+	/**
+	 *  Reads all accounts from the input and writes one result line per non blank input line.
+	 *  @param in - NDJSON stream of accounts
+	 *  @param out - NDJSON stream of AccountImportResult
+	 **/
+	public void importAccounts(InputStream in, OutputStream out) throws IOException {
+		BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+		List<Entry> batch = new ArrayList<>(batchSize);
+		long lineNumber = 0;
+		long imported = 0;
+		String line;
+		while ((line = lines.readLine()) != null) {
+			lineNumber++;
+			if (line.isBlank()) {
+				continue;
+			}
+			Entry entry = parse(lineNumber, line);
+			if (entry.result != null) {
+				write(out, entry.result);
+				continue;
+			}
+			batch.add(entry);
+			if (batch.size() == batchSize) {
+				imported += importBatch(batch, out);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			imported += importBatch(batch, out);
+		}
+		out.flush();
+		log.info("account import finished: {} of {} lines imported", imported, lineNumber);
+	}
+
+	private Entry parse(long lineNumber, String line) {
+		AccountDto accountDto;
+		try {
+			accountDto = reader.readValue(line);
+		} catch (IOException e) {
+			return Entry.rejected(result(lineNumber, null, Status.INVALID, "malformed json: " + e.getOriginalMessage()));
+		}
+
+		Account account = accountMapper.accountDtoToAccount(accountDto);
+		User user = accountMapper.accountDtoToUser(accountDto);
+		if (account.getEmail() == null || account.getEmail().isBlank()) {
+			return Entry.rejected(result(lineNumber, null, Status.INVALID, "email must be provided"));
+		}
+		Set<ConstraintViolation<User>> violations = validator.validate(user);
+		if (!violations.isEmpty()) {
+			String message = violations.stream()
+					.map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+					.sorted()
+					.collect(Collectors.joining(", "));
+			return Entry.rejected(result(lineNumber, account.getEmail(), Status.INVALID, message));
+		}
+		if (account.getCreatedDate() == null) {
+			account.setCreatedDate(new Date());
+		}
+		Date heldUntil = new Date(System.currentTimeMillis() + provisionDelayMillis);
+		account.setProvision(PendingProvision.builder()
+				.username(user.getUsername())
+				.sealedPassword(secretCipher.seal(user.getPassword()))
+				.nextAttemptAt(heldUntil)
+				.build());
+		account.setOutbox(EventOutbox.of(AccountChangeEvent.created(account), heldUntil));
+		return new Entry(lineNumber, account, user);
+	}
+
+	/**
+	 *  Inserts accounts of the batch, creates users for inserted ones and writes the outcome of every entry.
+	 *  @return number of imported accounts
+	 **/
+	private int importBatch(List<Entry> batch, OutputStream out) throws IOException {
+		List<Entry> inserted = insertAccounts(batch);
+		createUsers(inserted);
+
+		int imported = 0;
+		for (Entry entry : batch) {
+			write(out, entry.result);
+			if (entry.result.getStatus() == Status.CREATED) {
+				imported++;
+			}
+		}
+		out.flush();
+		return imported;
+	}
+
+	private List<Entry> insertAccounts(List<Entry> batch) {
+		List<Account> accounts = batch.stream().map(entry -> entry.account).collect(Collectors.toList());
+		Map<Integer, BulkWriteError> errors = new HashMap<>();
+		try {
+			mongoTemplate.bulkOps(BulkMode.UNORDERED, Account.class).insert(accounts).execute();
+		} catch (BulkOperationException e) {
+			e.getErrors().forEach(error -> errors.put(error.getIndex(), error));
+		}
+
+		List<Entry> inserted = new ArrayList<>(batch.size());
+		for (int i = 0; i != batch.size(); i++) {
+			Entry entry = batch.get(i);
+			BulkWriteError error = errors.get(i);
+			if (error == null) {
+				inserted.add(entry);
+			} else if (error.getCode() == DUPLICATE_KEY_CODE) {
+				entry.result = result(entry.line, entry.account.getEmail(), Status.EXISTS, "account already exists");
+			} else {
+				entry.result = result(entry.line, entry.account.getEmail(), Status.FAILED, error.getMessage());
+			}
+		}
+		return inserted;
+	}
+
+	private void createUsers(List<Entry> inserted) {
+		if (inserted.isEmpty()) {
+			return;
+		}
+		List<UserCreationResult> results;
+		try {
+			results = authClient.createUsers(inserted.stream().map(entry -> entry.user).collect(Collectors.toList()));
+		} catch (RuntimeException e) {
+			log.warn("failed to create {} users in auth service, handing them to the provisioning outbox",
+					inserted.size(), e);
+			results = null;
+		}
+
+		List<String> created = new ArrayList<>();
+		List<String> handedOver = new ArrayList<>();
+		List<String> orphaned = new ArrayList<>();
+		for (int i = 0; i != inserted.size(); i++) {
+			Entry entry = inserted.get(i);
+			UserCreationResult result = results != null && i < results.size() ? results.get(i) : null;
+			if (result == null) {
+				handedOver.add(entry.account.getEmail());
+				entry.result = result(entry.line, entry.account.getEmail(), Status.CREATED,
+						"user will be created in auth service in the background");
+			} else if (result.getStatus() == UserCreationResult.Status.FAILED) {
+				orphaned.add(entry.account.getEmail());
+				entry.result = result(entry.line, entry.account.getEmail(), Status.FAILED, result.getMessage());
+			} else {
+				created.add(entry.account.getEmail());
+				entry.result = result(entry.line, entry.account.getEmail(), Status.CREATED, null);
+			}
+		}
+		Date now = new Date();
+		if (!created.isEmpty()) {
+			mongoTemplate.updateMulti(query(where("_id").in(created)),
+					new Update().unset("provision").set("outbox.nextAttemptAt", now), Account.class);
+		}
+		if (!handedOver.isEmpty()) {
+			mongoTemplate.updateMulti(query(where("_id").in(handedOver)),
+					new Update().set("provision.nextAttemptAt", now).set("outbox.nextAttemptAt", now), Account.class);
+		}
+		if (!orphaned.isEmpty()) {
+			mongoTemplate.remove(query(where("_id").in(orphaned)), Account.class);
+		}
+	}
+
+	private void write(OutputStream out, AccountImportResult result) throws IOException {
+		out.write(writer.writeValueAsBytes(result));
+		out.write('\n');
+	}
+
+	private static AccountImportResult result(long line, String email, Status status, String message) {
+		return AccountImportResult.builder()
+				.line(line)
+				.email(email)
+				.status(status)
+				.message(message)
+				.build();
+	}
+
+	private static class Entry {
+
+		private final long line;
+
+		private final Account account;
+
+		private final User user;
+
+		private AccountImportResult result;
+
+		private Entry(long line, Account account, User user) {
+			this.line = line;
+			this.account = account;
+			this.user = user;
+		}
+
+		private static Entry rejected(AccountImportResult result) {
+			Entry entry = new Entry(result.getLine(), null, null);
+			entry.result = result;
+			return entry;
+		}
+	}
+}
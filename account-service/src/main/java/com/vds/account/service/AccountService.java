@@ -2,6 +2,8 @@ package com.vds.account.service;
 
 import com.vds.account.domain.Account;
 import com.vds.account.domain.User;
+import com.vds.account.dto.AccountPage;
+import com.vds.account.dto.AccountSearch;
 
 import java.util.Date;
 import java.util.List;
@@ -26,18 +28,27 @@ public interface AccountService {
 	Account findAccountByEmail(String email);
 
 	/**
-	 *  Looks for stored account by its created date
-	 *  @param createdDate - string value for search
+	 *  Looks for stored accounts created within provided period
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
 	 *  @return list of found accounts
 	 **/
-	List<Account> findAccountByCreatedDate(Date createdDate);
+	List<Account> findAccountByCreatedDate(Date from, Date to);
 
 	/**
-	 *  Looks for stored account by its modified date
-	 *  @param modifiedDate - string value for search
+	 *  Looks for stored accounts modified within provided period
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
 	 *  @return list of found accounts
 	 **/
-	List<Account> findAccountByModifiedDate(Date modifiedDate);
+	List<Account> findAccountByModifiedDate(Date from, Date to);
+
+	/**
+	 *  Returns a page of accounts matching the search, with requested fields only.
+	 *  @param search - search criteria with optional continuation token of the previous page
+	 *  @return page of found accounts and continuation token of the next page
+	 **/
+	AccountPage searchAccounts(AccountSearch search);
 
 	/**
 	 *  Creates new Account and returns it by provided User instance.
@@ -1,17 +1,33 @@
 package com.vds.account.service;
 
-import com.vds.account.client.AuthServiceClient;
 import com.vds.account.domain.Account;
+import com.vds.account.domain.EventOutbox;
+import com.vds.account.domain.PendingProvision;
 import com.vds.account.domain.User;
+import com.vds.account.dto.AccountPage;
+import com.vds.account.dto.AccountSearch;
+import com.vds.account.event.AccountChangeEvent;
 import com.vds.account.exception.AccountException;
 import com.vds.account.repository.AccountRepository;
+import com.vds.account.service.security.SecretCipher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  *  Service layer implementation to work with Account entities.
@@ -19,13 +35,26 @@ import java.util.List;
 @Service
 public class AccountServiceImpl implements AccountService {
 
+	static final int MAX_PAGE_SIZE = 500;
+
+	private static final Map<String, String> SEARCH_FIELDS = Map.of(
+			"name", "name",
+			"email", "_id",
+			"createdDate", "createdDate",
+			"modifiedDate", "modifiedDate");
+
+	private static final List<String> DEFAULT_SEARCH_FIELDS = List.of("name", "email", "createdDate", "modifiedDate");
+
 	private final Logger log = LoggerFactory.getLogger(getClass());
 
 	@Autowired
 	private AccountRepository repository;
 
 	@Autowired
-	private AuthServiceClient authClient;
+	private SecretCipher secretCipher;
+
+	@Autowired
+	private AccountCache accountCache;
 
 	@Override
 	public List<Account> findAccountByName(String name) {
@@ -40,39 +69,138 @@ public class AccountServiceImpl implements AccountService {
 		if(email.isEmpty() || email.isBlank()){
 			throw new IllegalArgumentException("provided email is empty or blank");
 		}
-		return repository.findByEmail(email);
+		return accountCache.get(email);
+	}
+
+	@Override
+	public List<Account> findAccountByCreatedDate(Date from, Date to) {
+		validatePeriod(from, to);
+		return repository.findByCreatedDateBetween(from, to);
 	}
 
 	@Override
-	public List<Account> findAccountByCreatedDate(Date createdDate) {
-		return repository.findByCreatedDate(createdDate);
+	public List<Account> findAccountByModifiedDate(Date from, Date to) {
+		validatePeriod(from, to);
+		return repository.findByModifiedDateBetween(from, to);
 	}
 
+	/**
+	 *  Searches accounts with keyset pagination over (by field, email), which is backed by compound indexes.
+	 *  Only requested fields are read from Mongo.
+	 **/
 	@Override
-	public List<Account> findAccountByModifiedDate(Date modifiedDate) { return repository.findByModifiedDate(modifiedDate); }
+	public AccountPage searchAccounts(AccountSearch search) {
+		String by = search.getBy() != null ? search.getBy() : "name";
+		if(!SEARCH_FIELDS.containsKey(by) || "email".equals(by)){
+			throw new IllegalArgumentException("accounts can't be searched by " + by);
+		}
+		if(search.getLimit() < 1 || search.getLimit() > MAX_PAGE_SIZE){
+			throw new IllegalArgumentException("page size must be between 1 and " + MAX_PAGE_SIZE);
+		}
+		List<String> fields = search.getFields() == null || search.getFields().isEmpty()
+				? DEFAULT_SEARCH_FIELDS : search.getFields();
+		Set<String> storedFields = new LinkedHashSet<>();
+		for (String field : fields) {
+			String storedField = SEARCH_FIELDS.get(field);
+			if(storedField == null){
+				throw new IllegalArgumentException("unknown account field " + field);
+			}
+			storedFields.add(storedField);
+		}
+
+		KeysetToken after = null;
+		if(search.getContinuation() != null){
+			after = KeysetToken.decode(search.getContinuation());
+			if(!by.equals(after.getBy())){
+				throw new IllegalArgumentException("continuation token belongs to a search by " + after.getBy());
+			}
+		}
+
+		List<Document> documents = repository.findPage(searchFilter(by, search), by,
+				after != null ? after.getValue() : null, after != null ? after.getId() : null,
+				storedFields, search.getLimit() + 1);
+
+		boolean hasNext = documents.size() > search.getLimit();
+		List<Document> page = hasNext ? documents.subList(0, search.getLimit()) : documents;
+		List<Map<String, Object>> items = new ArrayList<>(page.size());
+		for (Document document : page) {
+			Map<String, Object> item = new LinkedHashMap<>();
+			for (String field : fields) {
+				item.put(field, document.get(SEARCH_FIELDS.get(field)));
+			}
+			items.add(item);
+		}
+
+		String continuation = null;
+		if(hasNext){
+			Document last = page.get(page.size() - 1);
+			continuation = new KeysetToken(by, last.get(by), last.getString("_id")).encode();
+		}
+		return AccountPage.builder()
+				.items(items)
+				.continuation(continuation)
+				.build();
+	}
+
+	/**
+	 *  Documents without the ordering field can't be sought past, so they are excluded from the search.
+	 **/
+	private static Criteria searchFilter(String by, AccountSearch search) {
+		if("name".equals(by)){
+			return search.getName() != null ? where("name").is(search.getName()) : where("name").type(Type.STRING);
+		}
+		Criteria range = where(by).type(Type.DATE);
+		if(search.getFrom() != null){
+			range = range.gte(search.getFrom());
+		}
+		if(search.getTo() != null){
+			range = range.lt(search.getTo());
+		}
+		return range;
+	}
+
+	static void validatePeriod(Date from, Date to) {
+		if(from == null || to == null || !from.before(to)){
+			throw new IllegalArgumentException("provided period is empty or not set: " + from + " - " + to);
+		}
+	}
 
+	/**
+	 *  Inserts the account, so the email is claimed with no prior lookup: a concurrent or repeated registration
+	 *  fails on the unique id. The user to create in auth service is stored in the same document as a pending
+	 *  provision, which UserProvisioningDispatcher delivers in the background, and so is the created event,
+	 *  which AccountEventPublisher relays to the broker.
+	 **/
 	@Override
 	public Account create(Account account, User user) {
-		Account existing = repository.findByEmail(account.getEmail());
-		if(existing == null){
-			authClient.createUser(user);
-			Account savedAccount = repository.save(account);
-			log.info("new account has been created: " + savedAccount.getEmail());
-			return savedAccount;
-		} else {
-			throw new AccountException("account already exists: " + account.getEmail());
+		account.setProvision(PendingProvision.builder()
+				.username(user.getUsername())
+				.sealedPassword(secretCipher.seal(user.getPassword()))
+				.nextAttemptAt(new Date())
+				.build());
+		account.setOutbox(EventOutbox.of(AccountChangeEvent.created(account), new Date()));
+		Account savedAccount;
+		try {
+			savedAccount = repository.insert(account);
+		} catch (DuplicateKeyException e) {
+			throw new AccountException("account already exists: " + account.getEmail(), e);
 		}
+		log.info("new account has been created: " + savedAccount.getEmail());
+		return savedAccount;
 	}
 
+	/**
+	 *  Applies changed fields of the account and appends the updated event to its outbox with a single partial
+	 *  update, then evicts the cached account.
+	 **/
 	@Override
 	public Account saveChanges(Account update) {
-		Account account = repository.findByEmail(update.getEmail());
-		if(account == null){
+		update.setModifiedDate(new Date());
+		if(repository.updateFields(update, AccountChangeEvent.updated(update)) == 0){
 			throw new AccountException("can't find account with email " + update.getEmail());
-		} else {
-			update.setModifiedDate(new Date());
-			log.debug("account {} changes have been saved", update.getEmail());
-			return repository.save(update);
 		}
+		accountCache.evict(update.getEmail());
+		log.debug("account {} changes have been saved", update.getEmail());
+		return update;
 	}
 }
\ No newline at end of file
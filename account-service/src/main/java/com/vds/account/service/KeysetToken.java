@@ -0,0 +1,55 @@
+package com.vds.account.service;
+
+import org.bson.Document;
+import org.bson.json.JsonParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ *  Opaque continuation token of keyset pagination. It carries the ordering field and the key
+ *  (field value, id) of the last returned document, encoded as base64url of extended JSON.
+ **/
+final class KeysetToken {
+
+	private final String by;
+
+	private final Object value;
+
+	private final String id;
+
+	KeysetToken(String by, Object value, String id) {
+		this.by = by;
+		this.value = value;
+		this.id = id;
+	}
+
+	String getBy() {
+		return by;
+	}
+
+	Object getValue() {
+		return value;
+	}
+
+	String getId() {
+		return id;
+	}
+
+	String encode() {
+		String json = new Document("b", by).append("v", value).append("i", id).toJson();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static KeysetToken decode(String token) {
+		try {
+			Document key = Document.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+			if (key.getString("b") == null || key.getString("i") == null) {
+				throw new IllegalArgumentException("provided continuation token is invalid");
+			}
+			return new KeysetToken(key.getString("b"), key.get("v"), key.getString("i"));
+		} catch (IllegalArgumentException | JsonParseException | ClassCastException e) {
+			throw new IllegalArgumentException("provided continuation token is invalid", e);
+		}
+	}
+}
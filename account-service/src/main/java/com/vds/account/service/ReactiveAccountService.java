@@ -0,0 +1,43 @@
+package com.vds.account.service;
+
+import com.vds.account.domain.Account;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ *  Service layer interface of the non-blocking account read path.
+ **/
+public interface ReactiveAccountService {
+
+	/**
+	 *  Looks for stored account by its name.
+	 *  @param accountName - string value for search
+	 *  @return found accounts
+	 **/
+	Flux<Account> findAccountByName(String accountName);
+
+	/**
+	 *  Looks for stored account by its email
+	 *  @param email - string value for search
+	 *  @return found Account or empty Mono
+	 **/
+	Mono<Account> findAccountByEmail(String email);
+
+	/**
+	 *  Looks for stored accounts created within provided period
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
+	 *  @return found accounts
+	 **/
+	Flux<Account> findAccountByCreatedDate(Date from, Date to);
+
+	/**
+	 *  Looks for stored accounts modified within provided period
+	 *  @param from - start of the period, inclusive
+	 *  @param to - end of the period, exclusive
+	 *  @return found accounts
+	 **/
+	Flux<Account> findAccountByModifiedDate(Date from, Date to);
+}
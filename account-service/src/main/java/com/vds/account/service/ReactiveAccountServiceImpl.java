@@ -0,0 +1,53 @@
+package com.vds.account.service;
+
+import com.vds.account.domain.Account;
+import com.vds.account.repository.ReactiveAccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+/**
+ *  Service layer implementation of the non-blocking account read path.
+ *  Validation is the same as in AccountServiceImpl, invalid arguments are signalled as errors of the returned stream.
+ **/
+@Service
+public class ReactiveAccountServiceImpl implements ReactiveAccountService {
+
+	@Autowired
+	private ReactiveAccountRepository repository;
+
+	@Override
+	public Flux<Account> findAccountByName(String name) {
+		if(name.isEmpty() || name.isBlank()){
+			return Flux.error(new IllegalArgumentException("provided name is empty or blank"));
+		}
+		return repository.findByName(name);
+	}
+
+	@Override
+	public Mono<Account> findAccountByEmail(String email) {
+		if(email.isEmpty() || email.isBlank()){
+			return Mono.error(new IllegalArgumentException("provided email is empty or blank"));
+		}
+		return repository.findByEmail(email);
+	}
+
+	@Override
+	public Flux<Account> findAccountByCreatedDate(Date from, Date to) {
+		return Flux.defer(() -> {
+			AccountServiceImpl.validatePeriod(from, to);
+			return repository.findByCreatedDateBetween(from, to);
+		});
+	}
+
+	@Override
+	public Flux<Account> findAccountByModifiedDate(Date from, Date to) {
+		return Flux.defer(() -> {
+			AccountServiceImpl.validatePeriod(from, to);
+			return repository.findByModifiedDateBetween(from, to);
+		});
+	}
+}
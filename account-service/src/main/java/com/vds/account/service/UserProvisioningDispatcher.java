@@ -0,0 +1,243 @@
+package com.vds.account.service;
+
+import com.vds.account.client.AuthServiceBatchClient;
+import com.vds.account.domain.Account;
+import com.vds.account.domain.PendingProvision;
+import com.vds.account.domain.User;
+import com.vds.account.dto.UserCreationResult;
+import com.vds.account.service.security.SecretCipher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ *  Delivers users of newly created accounts to auth service from the outbox embedded into accounts.
+ *
+ *  Due entries are claimed with a lease: their next attempt is moved past the lease duration and marked with a
+ *  token of the run, so a crashed run is picked up again once the lease expires and concurrent instances don't
+ *  deliver the same batch. Claimed users are created with a single call to the batch endpoint of auth service.
+ *  The username is the idempotency key: a redelivered user is reported as existing, which counts as delivered.
+ *  Failed entries are retried with exponential backoff and given up after the configured number of attempts.
+ *  Each entry is opened on its own, so one which can't be opened fails alone and is left out of the call.
+ **/
+@Component
+public class UserProvisioningDispatcher {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final MongoTemplate mongoTemplate;
+
+	private final AuthServiceBatchClient authClient;
+
+	private final SecretCipher secretCipher;
+
+	private final int batchSize;
+
+	private final long leaseMillis;
+
+	private final int maxAttempts;
+
+	private final long initialBackoffMillis;
+
+	private final long maxBackoffMillis;
+
+	private final Counter delivered;
+
+	private final Counter retried;
+
+	private final Counter abandoned;
+
+	@Autowired
+	public UserProvisioningDispatcher(MongoTemplate mongoTemplate,
+									  AuthServiceBatchClient authClient,
+									  SecretCipher secretCipher,
+									  MeterRegistry registry,
+									  @Value("${accounts.provisioning.batch-size:100}") int batchSize,
+									  @Value("${accounts.provisioning.lease-millis:60000}") long leaseMillis,
+									  @Value("${accounts.provisioning.max-attempts:10}") int maxAttempts,
+									  @Value("${accounts.provisioning.initial-backoff-millis:1000}") long initialBackoffMillis,
+									  @Value("${accounts.provisioning.max-backoff-millis:300000}") long maxBackoffMillis) {
+		this.mongoTemplate = mongoTemplate;
+		this.authClient = authClient;
+		this.secretCipher = secretCipher;
+		this.batchSize = batchSize;
+		this.leaseMillis = leaseMillis;
+		this.maxAttempts = maxAttempts;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.maxBackoffMillis = maxBackoffMillis;
+		this.delivered = Counter.builder("provisioning.delivered")
+				.description("users created in auth service from the outbox")
+				.register(registry);
+		this.retried = Counter.builder("provisioning.retried")
+				.description("user creations scheduled for another attempt")
+				.register(registry);
+		this.abandoned = Counter.builder("provisioning.abandoned")
+				.description("user creations given up after the max amount of attempts")
+				.register(registry);
+	}
+
+	/**
+	 *  Delivers due entries batch by batch until a batch isn't full.
+	 **/
+	@Scheduled(fixedDelayString = "${accounts.provisioning.poll-interval-millis:500}")
+	public void dispatch() {
+		int dispatched;
+		do {
+			dispatched = dispatchBatch(new Date());
+		} while (dispatched == batchSize);
+	}
+
+	/**
+	 *  Claims a batch of due entries and delivers it.
+	 *  @param now - current time
+	 *  @return number of claimed entries
+	 **/
+	int dispatchBatch(Date now) {
+		String lease = UUID.randomUUID().toString();
+		List<Account> claimed = claim(now, lease);
+		if (claimed.isEmpty()) {
+			return 0;
+		}
+
+		List<Account> sendable = new ArrayList<>(claimed.size());
+		List<User> users = new ArrayList<>(claimed.size());
+		Map<String, String> failures = new HashMap<>();
+		for (Account account : claimed) {
+			try {
+				users.add(toUser(account.getProvision()));
+				sendable.add(account);
+			} catch (RuntimeException e) {
+				log.warn("user of account {} can't be prepared for auth service", account.getEmail(), e);
+				failures.put(account.getEmail(), e.getClass().getSimpleName() + ": " + e.getMessage());
+			}
+		}
+
+		if (!users.isEmpty()) {
+			List<UserCreationResult> results = null;
+			String failure = null;
+			try {
+				results = authClient.createUsers(users);
+			} catch (RuntimeException e) {
+				log.warn("failed to deliver {} users to auth service", users.size(), e);
+				failure = e.getClass().getSimpleName() + ": " + e.getMessage();
+			}
+			for (int i = 0; i != sendable.size(); i++) {
+				UserCreationResult result = results != null && i < results.size() ? results.get(i) : null;
+				if (result == null || result.getStatus() == UserCreationResult.Status.FAILED) {
+					failures.put(sendable.get(i).getEmail(), result != null ? result.getMessage() : failure);
+				}
+			}
+		}
+
+		List<String> deliveredIds = new ArrayList<>();
+		BulkOperations retries = mongoTemplate.bulkOps(BulkMode.UNORDERED, Account.class);
+		boolean retrying = false;
+		for (Account account : claimed) {
+			if (!failures.containsKey(account.getEmail())) {
+				deliveredIds.add(account.getEmail());
+			} else {
+				retries.updateOne(query(where("_id").is(account.getEmail()).and("provision.lease").is(lease)),
+						retryUpdate(account.getEmail(), account.getProvision(), failures.get(account.getEmail()), now));
+				retrying = true;
+			}
+		}
+		if (!deliveredIds.isEmpty()) {
+			mongoTemplate.updateMulti(query(where("_id").in(deliveredIds).and("provision.lease").is(lease)),
+					new Update().unset("provision"), Account.class);
+			delivered.increment(deliveredIds.size());
+		}
+		if (retrying) {
+			retries.execute();
+		}
+		return claimed.size();
+	}
+
+	/**
+	 *  Opens the sealed password of the entry, an entry which can't be opened or misses its username fails alone.
+	 **/
+	private User toUser(PendingProvision provision) {
+		if (provision.getUsername() == null || provision.getUsername().isBlank()) {
+			throw new IllegalArgumentException("provision has no username");
+		}
+		if (provision.getSealedPassword() == null) {
+			throw new IllegalArgumentException("provision has no sealed password");
+		}
+		return User.builder()
+				.username(provision.getUsername())
+				.password(secretCipher.open(provision.getSealedPassword()))
+				.build();
+	}
+
+	/**
+	 *  Leases due entries to this run and returns the leased accounts with their provision only.
+	 **/
+	private List<Account> claim(Date now, String lease) {
+		Query due = query(where("provision.nextAttemptAt").lte(now)).limit(batchSize);
+		due.fields().include("_id");
+		List<Object> ids = mongoTemplate.find(due, Document.class, mongoTemplate.getCollectionName(Account.class))
+				.stream()
+				.map(document -> document.get("_id"))
+				.collect(Collectors.toList());
+		if (ids.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		mongoTemplate.updateMulti(query(where("_id").in(ids).and("provision.nextAttemptAt").lte(now)),
+				new Update()
+						.set("provision.lease", lease)
+						.set("provision.nextAttemptAt", new Date(now.getTime() + leaseMillis)),
+				Account.class);
+
+		Query leased = query(where("_id").in(ids).and("provision.lease").is(lease));
+		leased.fields().include("provision");
+		return mongoTemplate.find(leased, Account.class);
+	}
+
+	private Update retryUpdate(String email, PendingProvision provision, String message, Date now) {
+		int attempts = provision.getAttempts() + 1;
+		Update update = new Update()
+				.set("provision.attempts", attempts)
+				.set("provision.lastError", message)
+				.unset("provision.lease");
+		if (attempts >= maxAttempts) {
+			log.error("user of account {} hasn't been created in auth service after {} attempts: {}",
+					email, attempts, message);
+			abandoned.increment();
+			return update.unset("provision.nextAttemptAt");
+		}
+		retried.increment();
+		return update.set("provision.nextAttemptAt", new Date(now.getTime() + backoffMillis(attempts)));
+	}
+
+	/**
+	 *  Exponential backoff with jitter, so entries failed together don't retry together.
+	 **/
+	long backoffMillis(int attempts) {
+		long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 30));
+		return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+	}
+}
@@ -0,0 +1,113 @@
+package com.vds.account.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Caching decorator for {@link ResourceServerTokenServices}.
+ *
+ *  Resolved authentications are kept in a bounded cache keyed by SHA-256 hash of the access token, so repeated
+ *  requests with the same bearer token don't reach account-auth at all. Rejected tokens are remembered for a much
+ *  shorter period, which protects account-auth from clients that keep retrying with an expired token.
+ *  The cache TTL is the upper bound of how long a revoked token is still accepted by this service.
+ **/
+public class CachingTokenServices implements ResourceServerTokenServices {
+
+	private final ResourceServerTokenServices delegate;
+
+	private final Cache<String, OAuth2Authentication> authentications;
+
+	private final Cache<String, Boolean> rejectedTokens;
+
+	public CachingTokenServices(ResourceServerTokenServices delegate,
+								long maximumSize,
+								Duration ttl,
+								Duration rejectedTtl) {
+		this.delegate = delegate;
+		this.authentications = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		this.rejectedTokens = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(rejectedTtl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 *  Registers hit, miss, eviction and size meters of both caches.
+	 *  @param registry - meter registry exposed by actuator
+	 **/
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, authentications, "token.authentications");
+		CaffeineCacheMetrics.monitor(registry, rejectedTokens, "token.rejections");
+	}
+
+	/**
+	 *  Returns cached authentication for the token or loads it through the delegate.
+	 *  A fresh OAuth2Authentication is handed out on each call, since the caller sets request specific details on it.
+	 *  @param accessToken - provided String value which represents token
+	 *  @return OAuth2Authentication - authentication for the access token.
+	 *  @throws InvalidTokenException if the token has been rejected recently or is rejected by the delegate
+	 **/
+	@Override
+	public OAuth2Authentication loadAuthentication(String accessToken)
+			throws AuthenticationException, InvalidTokenException {
+		String key = digest(accessToken);
+		if (rejectedTokens.getIfPresent(key) != null) {
+			throw new InvalidTokenException(accessToken);
+		}
+
+		OAuth2Authentication authentication = authentications.getIfPresent(key);
+		if (authentication == null) {
+			try {
+				authentication = delegate.loadAuthentication(accessToken);
+			} catch (InvalidTokenException e) {
+				rejectedTokens.put(key, Boolean.TRUE);
+				throw e;
+			}
+			authentications.put(key, authentication);
+		}
+		return new OAuth2Authentication(authentication.getOAuth2Request(), authentication.getUserAuthentication());
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		return delegate.readAccessToken(accessToken);
+	}
+
+	/**
+	 *  Drops all cached entries of the given token.
+	 *  @param accessToken - token to forget
+	 **/
+	public void evict(String accessToken) {
+		String key = digest(accessToken);
+		authentications.invalidate(key);
+		rejectedTokens.invalidate(key);
+	}
+
+	static String digest(String accessToken) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.vds.account.service.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ *  Single-flight decorator for {@link ResourceServerTokenServices}.
+ *
+ *  Concurrent loads of the same access token share one in-flight lookup: the first caller performs it on its own
+ *  thread, the others wait for its outcome and receive either the same authentication or the same failure.
+ *  A lookup is forgotten as soon as it completes, so nothing is cached by this class.
+ **/
+public class CoalescingTokenServices implements ResourceServerTokenServices {
+
+	private final ResourceServerTokenServices delegate;
+
+	private final ConcurrentMap<String, CompletableFuture<OAuth2Authentication>> inFlight = new ConcurrentHashMap<>();
+
+	private final Counter coalescedLookups;
+
+	public CoalescingTokenServices(ResourceServerTokenServices delegate, MeterRegistry registry) {
+		this.delegate = delegate;
+		this.coalescedLookups = Counter.builder("token.lookups.coalesced")
+				.description("Token lookups served by an already running lookup of the same token")
+				.register(registry);
+	}
+
+	/**
+	 *  Loads the credentials for the access token or joins a running load of the same token.
+	 *  @param accessToken - provided String value which represents token
+	 *  @return OAuth2Authentication - authentication for the access token.
+	 *  @throws AuthenticationException if the access token is expired
+	 *  @throws InvalidTokenException if the token isn't valid
+	 **/
+	@Override
+	public OAuth2Authentication loadAuthentication(String accessToken)
+			throws AuthenticationException, InvalidTokenException {
+		CompletableFuture<OAuth2Authentication> lookup = new CompletableFuture<>();
+		CompletableFuture<OAuth2Authentication> running = inFlight.putIfAbsent(accessToken, lookup);
+		if (running != null) {
+			coalescedLookups.increment();
+			return await(running);
+		}
+
+		try {
+			lookup.complete(delegate.loadAuthentication(accessToken));
+		} catch (Throwable e) {
+			// errors as well, otherwise callers waiting for the lookup would never wake up
+			lookup.completeExceptionally(e);
+		} finally {
+			inFlight.remove(accessToken, lookup);
+		}
+		return await(lookup);
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		return delegate.readAccessToken(accessToken);
+	}
+
+	private static OAuth2Authentication await(CompletableFuture<OAuth2Authentication> lookup) {
+		try {
+			return lookup.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
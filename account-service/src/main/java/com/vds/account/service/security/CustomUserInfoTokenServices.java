@@ -4,18 +4,18 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.AuthoritiesExtractor;
 import org.springframework.boot.autoconfigure.security.oauth2.resource.FixedAuthoritiesExtractor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.oauth2.client.OAuth2RestOperations;
-import org.springframework.security.oauth2.client.OAuth2RestTemplate;
-import org.springframework.security.oauth2.client.resource.BaseOAuth2ProtectedResourceDetails;
 import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -41,27 +41,21 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 
 	private final String userInfoEndpointUrl;
 
-	private final String clientId;
-
-	private OAuth2RestOperations restTemplate;
+	private final UserInfoClient userInfoClient;
 
 	private String tokenType = DefaultOAuth2AccessToken.BEARER_TYPE;
 
 	private AuthoritiesExtractor authoritiesExtractor = new FixedAuthoritiesExtractor();
 
-	public CustomUserInfoTokenServices(String userInfoEndpointUrl, String clientId) {
+	public CustomUserInfoTokenServices(String userInfoEndpointUrl, UserInfoClient userInfoClient) {
 		this.userInfoEndpointUrl = userInfoEndpointUrl;
-		this.clientId = clientId;
+		this.userInfoClient = userInfoClient;
 	}
 
 	public void setTokenType(String tokenType) {
 		this.tokenType = tokenType;
 	}
 
-	public void setRestTemplate(OAuth2RestOperations restTemplate) {
-		this.restTemplate = restTemplate;
-	}
-
 	public void setAuthoritiesExtractor(AuthoritiesExtractor authoritiesExtractor) {
 		this.authoritiesExtractor = authoritiesExtractor;
 	}
@@ -72,6 +66,7 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 	 *  @return OAuth2Authentication - authentication for the access token.
 	 *  @throws AuthenticationException if the access token is expired
 	 *  @throws InvalidTokenException if the token isn't valid
+	 *  @throws RestClientException if account-auth can't tell whether the token is valid
 	 **/
 	@Override
 	public OAuth2Authentication loadAuthentication(String accessToken)
@@ -81,15 +76,17 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 			logger.debug("userinfo returned error: " + map.get("error"));
 			throw new InvalidTokenException(accessToken);
 		}
-		return extractAuthentication(map);
+		return extractAuthentication(map, authoritiesExtractor);
 	}
 
 	/**
 	 *  Returns  OAuth2Authentication instance created by OAuth2Request and UsernamePasswordAuthenticationToken objects.
+	 *  Shared with {@link ReactiveTokenIntrospector}, so both read paths resolve the same authentication.
 	 *  @param map - container with principal and request data inside
+	 *  @param authoritiesExtractor - extracts granted authorities from the map
 	 *  @return OAuth2Authentication - authentication for the access token.
 	 **/
-	private OAuth2Authentication extractAuthentication(Map<String, Object> map) {
+	static OAuth2Authentication extractAuthentication(Map<String, Object> map, AuthoritiesExtractor authoritiesExtractor) {
 		Object principal = getPrincipal(map);
 		OAuth2Request request = getRequest(map);
 		List<GrantedAuthority> authorities = authoritiesExtractor.extractAuthorities(map);
@@ -104,7 +101,7 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 	 *  @param map - container with principal and request data inside
 	 *  @return - found principal instance or unknown string
 	 **/
-	private Object getPrincipal(Map<String, Object> map) {
+	private static Object getPrincipal(Map<String, Object> map) {
 		for (String key : PRINCIPAL_KEYS) {
 			if (map.containsKey(key)) {
 				return map.get(key);
@@ -119,7 +116,7 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 	 *  @return OAuth2Request instance
 	 **/
 	@SuppressWarnings({ "unchecked" })
-	private OAuth2Request getRequest(Map<String, Object> map) {
+	private static OAuth2Request getRequest(Map<String, Object> map) {
 		Map<String, Object> request = (Map<String, Object>) map.get("oauth2Request");
 
 		String clientId = (String) request.get("clientId");
@@ -142,33 +139,23 @@ public class CustomUserInfoTokenServices implements ResourceServerTokenServices
 
 	/**
 	 *  Returns Map container that contains body information provided by a request in its body.
+	 *  Only a 401 or 403 of account-auth means the token is rejected, it is turned into an error map then.
+	 *  Any other failure means account-auth couldn't answer, so it is propagated rather than taken for a rejection.
 	 *  @param path - String value to where current request has come
 	 *  @param accessToken - provided String value which represents token
 	 *  @return Map container with principal and request data inside
+	 *  @throws RestClientException if account-auth can't be reached or fails to respond
 	 **/
-	@SuppressWarnings({ "unchecked" })
 	private Map<String, Object> getMap(String path, String accessToken) {
 		logger.debug("Getting user info from: " + path);
 		try {
-			if (restTemplate == null) {
-				BaseOAuth2ProtectedResourceDetails resource = new BaseOAuth2ProtectedResourceDetails();
-				resource.setClientId(clientId);
-				restTemplate = new OAuth2RestTemplate(resource);
-			}
-			OAuth2AccessToken existingToken = restTemplate.getOAuth2ClientContext()
-					.getAccessToken();
-			if (existingToken == null || !accessToken.equals(existingToken.getValue())) {
-				DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(
-						accessToken);
-				token.setTokenType(tokenType);
-				restTemplate.getOAuth2ClientContext().setAccessToken(token);
+			return userInfoClient.getUserInfo(path, tokenType, accessToken);
+		} catch (HttpClientErrorException ex) {
+			if (ex.getStatusCode() != HttpStatus.UNAUTHORIZED && ex.getStatusCode() != HttpStatus.FORBIDDEN) {
+				throw ex;
 			}
-			return restTemplate.getForEntity(path, Map.class).getBody();
-		} catch (Exception ex) {
-			logger.info("Could not fetch user details: " + ex.getClass() + ", "
-					+ ex.getMessage());
-			return Collections.<String, Object>singletonMap("error",
-					"Could not fetch user details");
+			logger.debug("User info request rejected with " + ex.getStatusCode());
+			return Collections.<String, Object>singletonMap("error", ex.getStatusCode().getReasonPhrase());
 		}
 	}
 }
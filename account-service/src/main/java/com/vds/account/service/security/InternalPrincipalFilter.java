@@ -0,0 +1,44 @@
+package com.vds.account.service.security;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ *  Authenticates requests forwarded by account-gateway with a verified internal principal header.
+ *  A request with an invalid header stays unauthenticated. A bearer token, if sent as well, is still resolved by
+ *  the OAuth2 filter and takes precedence.
+ **/
+public class InternalPrincipalFilter extends OncePerRequestFilter {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final InternalPrincipalVerifier verifier;
+
+	public InternalPrincipalFilter(InternalPrincipalVerifier verifier) {
+		this.verifier = verifier;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String header = request.getHeader(InternalPrincipalVerifier.HEADER);
+		if (header != null) {
+			try {
+				SecurityContextHolder.getContext().setAuthentication(verifier.verify(header));
+			} catch (InvalidTokenException e) {
+				logger.debug("internal principal rejected: " + e.getMessage());
+				SecurityContextHolder.clearContext();
+			}
+		}
+		chain.doFilter(request, response);
+	}
+}
@@ -0,0 +1,101 @@
+package com.vds.account.service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.AuthoritiesExtractor;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.FixedAuthoritiesExtractor;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ *  Verifies the internal principal header added by account-gateway after it has validated the bearer token.
+ *
+ *  The value is the base64url JSON of the caller claims, in the shape of the user info response, a dot and the
+ *  base64url HMAC-SHA256 of the encoded claims with the key shared with the gateway. A verified header resolves to
+ *  the same authentication as the user info endpoint would, without a call to account-auth.
+ **/
+@Component
+public class InternalPrincipalVerifier {
+
+	public static final String HEADER = "X-Internal-Principal";
+
+	private static final String ALGORITHM = "HmacSHA256";
+
+	private final SecretKeySpec key;
+
+	private final Duration maxClockSkew;
+
+	private final Clock clock;
+
+	private final ObjectMapper objectMapper;
+
+	private final AuthoritiesExtractor authoritiesExtractor = new FixedAuthoritiesExtractor();
+
+	@Autowired
+	public InternalPrincipalVerifier(@Value("${security.internal-principal.secret}") String secret,
+									 @Value("${security.internal-principal.max-clock-skew-seconds:5}") long maxClockSkewSeconds,
+									 ObjectMapper objectMapper) {
+		this(secret, Duration.ofSeconds(maxClockSkewSeconds), Clock.systemUTC(), objectMapper);
+	}
+
+	public InternalPrincipalVerifier(String secret, Duration maxClockSkew, Clock clock, ObjectMapper objectMapper) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalArgumentException("security.internal-principal.secret must be configured");
+		}
+		this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+		this.maxClockSkew = maxClockSkew;
+		this.clock = clock;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 *  @param header - value of the internal principal header
+	 *  @return OAuth2Authentication of the caller
+	 *  @throws InvalidTokenException if the value is malformed, signed with another key or expired
+	 **/
+	@SuppressWarnings("unchecked")
+	public OAuth2Authentication verify(String header) {
+		int dot = header.indexOf('.');
+		if (dot < 0) {
+			throw new InvalidTokenException("malformed internal principal");
+		}
+		String encoded = header.substring(0, dot);
+		Map<String, Object> claims;
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			byte[] expected = mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII));
+			if (!MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(header.substring(dot + 1)))) {
+				throw new InvalidTokenException("internal principal signature doesn't match");
+			}
+			claims = objectMapper.readValue(Base64.getUrlDecoder().decode(encoded), Map.class);
+		} catch (IllegalArgumentException | IOException e) {
+			throw new InvalidTokenException("malformed internal principal");
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("internal principal can't be verified", e);
+		}
+
+		Object expiresAt = claims.get("exp");
+		if (!(expiresAt instanceof Number)
+				|| ((Number) expiresAt).longValue() + maxClockSkew.toMillis() < clock.millis()) {
+			throw new InvalidTokenException("internal principal has expired");
+		}
+		if (!(claims.get("oauth2Request") instanceof Map)) {
+			throw new InvalidTokenException("internal principal doesn't carry a client");
+		}
+		return CustomUserInfoTokenServices.extractAuthentication(claims, authoritiesExtractor);
+	}
+}
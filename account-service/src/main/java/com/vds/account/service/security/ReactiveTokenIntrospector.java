@@ -0,0 +1,122 @@
+package com.vds.account.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.AuthoritiesExtractor;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.FixedAuthoritiesExtractor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Non-blocking counterpart of the opaque token services chain used by the reactive read path.
+ *
+ *  Like {@link CachingTokenServices} resolved authentications and rejected tokens are cached by the SHA-256 hash of
+ *  the access token. The cache holds pending lookups rather than results, so concurrent misses of the same token
+ *  share a single user info request, which is what {@link CoalescingTokenServices} does for the blocking chain.
+ *  Tokens are always resolved with the user info endpoint, which accepts both opaque and signed tokens. Only 401
+ *  and 403 responses and error bodies reject a token, other failures are propagated and nothing is cached for them.
+ **/
+public class ReactiveTokenIntrospector {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final String userInfoEndpointUrl;
+
+	private final ReactiveUserInfoClient userInfoClient;
+
+	private final AuthoritiesExtractor authoritiesExtractor = new FixedAuthoritiesExtractor();
+
+	private final Cache<String, CompletableFuture<OAuth2Authentication>> authentications;
+
+	private final Cache<String, Boolean> rejectedTokens;
+
+	public ReactiveTokenIntrospector(String userInfoEndpointUrl,
+									 ReactiveUserInfoClient userInfoClient,
+									 long maximumSize,
+									 Duration ttl,
+									 Duration rejectedTtl) {
+		this.userInfoEndpointUrl = userInfoEndpointUrl;
+		this.userInfoClient = userInfoClient;
+		this.authentications = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		this.rejectedTokens = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.expireAfterWrite(rejectedTtl.toMillis(), TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+	}
+
+	/**
+	 *  Registers hit, miss, eviction and size meters of both caches.
+	 *  @param registry - meter registry exposed by actuator
+	 **/
+	public void bindTo(MeterRegistry registry) {
+		CaffeineCacheMetrics.monitor(registry, authentications, "token.reactive.authentications");
+		CaffeineCacheMetrics.monitor(registry, rejectedTokens, "token.reactive.rejections");
+	}
+
+	/**
+	 *  Returns cached authentication for the token or resolves it with the user info endpoint.
+	 *  @param accessToken - provided String value which represents token
+	 *  @return Mono of a fresh OAuth2Authentication, failed with InvalidTokenException if the token is rejected or
+	 *  with another exception if the user info endpoint can't be reached or fails
+	 **/
+	public Mono<OAuth2Authentication> loadAuthentication(String accessToken) {
+		String key = CachingTokenServices.digest(accessToken);
+		if (rejectedTokens.getIfPresent(key) != null) {
+			return Mono.error(new InvalidTokenException(accessToken));
+		}
+		CompletableFuture<OAuth2Authentication> lookup = authentications.get(key, k -> fetch(k, accessToken));
+		if (lookup.isCompletedExceptionally()) {
+			// failed before it was cached, so the completion callback couldn't drop it
+			authentications.asMap().remove(key, lookup);
+		}
+		return Mono.fromFuture(lookup)
+				.map(authentication -> new OAuth2Authentication(authentication.getOAuth2Request(),
+						authentication.getUserAuthentication()));
+	}
+
+	private CompletableFuture<OAuth2Authentication> fetch(String key, String accessToken) {
+		CompletableFuture<OAuth2Authentication> lookup = userInfoClient
+				.getUserInfo(userInfoEndpointUrl, DefaultOAuth2AccessToken.BEARER_TYPE, accessToken)
+				.onErrorMap(WebClientResponseException.class, e -> {
+					if (e.getStatusCode() != HttpStatus.UNAUTHORIZED && e.getStatusCode() != HttpStatus.FORBIDDEN) {
+						return e;
+					}
+					logger.info("Could not fetch user details: " + e.getClass() + ", " + e.getMessage());
+					return new InvalidTokenException(accessToken);
+				})
+				.map(map -> {
+					if (map.containsKey("error")) {
+						logger.debug("userinfo returned error: " + map.get("error"));
+						throw new InvalidTokenException(accessToken);
+					}
+					return CustomUserInfoTokenServices.extractAuthentication(map, authoritiesExtractor);
+				})
+				.toFuture();
+		lookup.whenComplete((authentication, e) -> {
+			if (e != null) {
+				authentications.asMap().remove(key, lookup);
+				if (e instanceof InvalidTokenException) {
+					rejectedTokens.put(key, Boolean.TRUE);
+				}
+			}
+		});
+		return lookup;
+	}
+}
@@ -0,0 +1,65 @@
+package com.vds.account.service.security;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ *  Non-blocking client of the user info endpoint exposed by account-auth.
+ *
+ *  Requests run on the shared Netty event loop, so a pending lookup doesn't hold any thread while account-auth
+ *  responds. Connections are kept alive in a bounded pool: when all of them are busy a lookup waits for a free one
+ *  for the connect timeout at most.
+ **/
+public class ReactiveUserInfoClient implements AutoCloseable {
+
+	private static final ParameterizedTypeReference<Map<String, Object>> USER_INFO_TYPE =
+			new ParameterizedTypeReference<Map<String, Object>>() {};
+
+	private final ConnectionProvider connectionProvider;
+
+	private final WebClient webClient;
+
+	private final Duration readTimeout;
+
+	public ReactiveUserInfoClient(int maxConnections, Duration connectTimeout, Duration readTimeout) {
+		this.connectionProvider = ConnectionProvider.fixed("user-info", maxConnections, connectTimeout.toMillis());
+		HttpClient httpClient = HttpClient.create(connectionProvider)
+				.tcpConfiguration(tcp -> tcp.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis()));
+		this.webClient = WebClient.builder()
+				.clientConnector(new ReactorClientHttpConnector(httpClient))
+				.build();
+		this.readTimeout = readTimeout;
+	}
+
+	/**
+	 *  Fetches user details of the given access token.
+	 *  @param url - user info endpoint
+	 *  @param tokenType - type of the token, e.g. Bearer
+	 *  @param accessToken - token to be resolved
+	 *  @return Mono of a map with principal and request data inside, failed if account-auth rejects the token
+	 **/
+	public Mono<Map<String, Object>> getUserInfo(String url, String tokenType, String accessToken) {
+		return webClient.get()
+				.uri(url)
+				.header(HttpHeaders.AUTHORIZATION, tokenType + " " + accessToken)
+				.accept(MediaType.APPLICATION_JSON)
+				.retrieve()
+				.bodyToMono(USER_INFO_TYPE)
+				.timeout(readTimeout);
+	}
+
+	@Override
+	public void close() {
+		connectionProvider.dispose();
+	}
+}
@@ -0,0 +1,82 @@
+package com.vds.account.service.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ *  Seals secrets that have to be stored for a short while, e.g. passwords of users waiting to be created in auth
+ *  service. AES-GCM with a key derived from a configured secret: a sealed value can't be read or altered without it.
+ **/
+@Component
+public class SecretCipher {
+
+	private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+	private static final int IV_LENGTH = 12;
+
+	private static final int TAG_BITS = 128;
+
+	private final SecureRandom random = new SecureRandom();
+
+	private final SecretKeySpec key;
+
+	@Autowired
+	public SecretCipher(@Value("${accounts.provisioning.secret}") String secret) {
+		if (secret == null || secret.isBlank()) {
+			throw new IllegalArgumentException("accounts.provisioning.secret must be configured");
+		}
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+			this.key = new SecretKeySpec(digest, "AES");
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 *  @param plain - secret to seal
+	 *  @return base64 encoded iv followed by the cipher text
+	 **/
+	public String seal(String plain) {
+		byte[] iv = new byte[IV_LENGTH];
+		random.nextBytes(iv);
+		try {
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+			byte[] sealed = cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8));
+			return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + sealed.length)
+					.put(iv)
+					.put(sealed)
+					.array());
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("secret can't be sealed", e);
+		}
+	}
+
+	/**
+	 *  @param sealed - value returned by seal
+	 *  @return the original secret
+	 *  @throws IllegalArgumentException if the value was sealed with another key or has been altered
+	 **/
+	public String open(String sealed) {
+		byte[] bytes = Base64.getDecoder().decode(sealed);
+		try {
+			Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+			cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, IV_LENGTH));
+			return new String(cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH), StandardCharsets.UTF_8);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("sealed secret can't be opened", e);
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.vds.account.service.security;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.DefaultTokenServices;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.web.client.RestOperations;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *  Verifies signed self-contained tokens issued by account-auth in process.
+ *
+ *  The public key is fetched once from the token_key endpoint and kept in memory, so a request costs a signature
+ *  check and no network call. When a token can't be verified and the key is older than the refresh interval, the
+ *  key is fetched again once, which covers a restart of account-auth with a newly generated key pair.
+ *  Key fetches are guarded by a lock rather than a monitor, so a virtual thread waiting for the key endpoint doesn't
+ *  pin its carrier thread.
+ **/
+public class SignedTokenServices implements ResourceServerTokenServices {
+
+	private final Log logger = LogFactory.getLog(getClass());
+
+	private final String keyUri;
+
+	private final RestOperations restTemplate;
+
+	private final long keyRefreshIntervalNanos;
+
+	private volatile DefaultTokenServices delegate;
+
+	private volatile long keyFetchedAt;
+
+	private final ReentrantLock keyLock = new ReentrantLock();
+
+	public SignedTokenServices(String keyUri, Duration keyRefreshInterval) {
+		this(keyUri, keyRefreshInterval, createRestTemplate());
+	}
+
+	public SignedTokenServices(String keyUri, Duration keyRefreshInterval, RestOperations restTemplate) {
+		this.keyUri = keyUri;
+		this.keyRefreshIntervalNanos = keyRefreshInterval.toNanos();
+		this.restTemplate = restTemplate;
+	}
+
+	/**
+	 *  Verifies the signature of the access token and extracts authentication stored inside it.
+	 *  @param accessToken - provided String value which represents token
+	 *  @return OAuth2Authentication - authentication for the access token.
+	 *  @throws AuthenticationException if the access token is expired
+	 *  @throws InvalidTokenException if the token isn't valid
+	 **/
+	@Override
+	public OAuth2Authentication loadAuthentication(String accessToken)
+			throws AuthenticationException, InvalidTokenException {
+		DefaultTokenServices tokenServices = getTokenServices();
+		try {
+			return tokenServices.loadAuthentication(accessToken);
+		} catch (InvalidTokenException e) {
+			DefaultTokenServices refreshed = refreshKeyIfStale(tokenServices);
+			if (refreshed == tokenServices) {
+				throw e;
+			}
+			return refreshed.loadAuthentication(accessToken);
+		}
+	}
+
+	@Override
+	public OAuth2AccessToken readAccessToken(String accessToken) {
+		return getTokenServices().readAccessToken(accessToken);
+	}
+
+	private DefaultTokenServices getTokenServices() {
+		DefaultTokenServices tokenServices = delegate;
+		if (tokenServices == null) {
+			keyLock.lock();
+			try {
+				tokenServices = delegate;
+				if (tokenServices == null) {
+					tokenServices = createTokenServices();
+				}
+			} finally {
+				keyLock.unlock();
+			}
+		}
+		return tokenServices;
+	}
+
+	private DefaultTokenServices refreshKeyIfStale(DefaultTokenServices current) {
+		keyLock.lock();
+		try {
+			if (delegate != current || System.nanoTime() - keyFetchedAt < keyRefreshIntervalNanos) {
+				return delegate;
+			}
+			return createTokenServices();
+		} catch (RuntimeException e) {
+			logger.info("Could not refresh token key: " + e.getClass() + ", " + e.getMessage());
+			keyFetchedAt = System.nanoTime();
+			return current;
+		} finally {
+			keyLock.unlock();
+		}
+	}
+
+	@SuppressWarnings({ "unchecked" })
+	private DefaultTokenServices createTokenServices() {
+		logger.debug("Getting token key from: " + keyUri);
+		Map<String, Object> key = restTemplate.getForObject(keyUri, Map.class);
+		if (key == null || !key.containsKey("value")) {
+			throw new IllegalStateException("token key endpoint returned no key: " + keyUri);
+		}
+
+		JwtAccessTokenConverter converter = new JwtAccessTokenConverter();
+		converter.setVerifierKey((String) key.get("value"));
+		try {
+			converter.afterPropertiesSet();
+		} catch (Exception e) {
+			throw new IllegalStateException("token key can't be used for verification", e);
+		}
+
+		DefaultTokenServices tokenServices = new DefaultTokenServices();
+		tokenServices.setTokenStore(new JwtTokenStore(converter));
+		keyFetchedAt = System.nanoTime();
+		delegate = tokenServices;
+		return tokenServices;
+	}
+
+	private static RestOperations createRestTemplate() {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(1000);
+		requestFactory.setReadTimeout(3000);
+		return new RestTemplate(requestFactory);
+	}
+}
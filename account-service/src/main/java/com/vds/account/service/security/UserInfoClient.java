@@ -0,0 +1,73 @@
+package com.vds.account.service.security;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Thread safe client of the user info endpoint exposed by account-auth.
+ *
+ *  Connections are kept alive in a bounded pool and the access token travels as a header of each single request,
+ *  so concurrent lookups never share any mutable state.
+ **/
+public class UserInfoClient implements AutoCloseable {
+
+	private final CloseableHttpClient httpClient;
+
+	private final RestTemplate restTemplate;
+
+	public UserInfoClient(int maxConnections, int maxConnectionsPerRoute, Duration connectTimeout, Duration readTimeout) {
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+
+		RequestConfig requestConfig = RequestConfig.custom()
+				.setConnectTimeout((int) connectTimeout.toMillis())
+				.setConnectionRequestTimeout((int) connectTimeout.toMillis())
+				.setSocketTimeout((int) readTimeout.toMillis())
+				.build();
+
+		this.httpClient = HttpClients.custom()
+				.setConnectionManager(connectionManager)
+				.setDefaultRequestConfig(requestConfig)
+				.setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+				.evictExpiredConnections()
+				.evictIdleConnections(30, TimeUnit.SECONDS)
+				.build();
+		this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+	}
+
+	/**
+	 *  Fetches user details of the given access token.
+	 *  @param url - user info endpoint
+	 *  @param tokenType - type of the token, e.g. Bearer
+	 *  @param accessToken - token to be resolved
+	 *  @return Map container with principal and request data inside
+	 **/
+	@SuppressWarnings({ "unchecked" })
+	public Map<String, Object> getUserInfo(String url, String tokenType, String accessToken) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.AUTHORIZATION, tokenType + " " + accessToken);
+		headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+		return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), Map.class).getBody();
+	}
+
+	@Override
+	public void close() throws IOException {
+		httpClient.close();
+	}
+}
@@ -0,0 +1,214 @@
+package com.vds.account.config;
+
+import com.mongodb.MongoClientOptions;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vds.account.AccountApplication;
+import com.vds.account.domain.Account;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.util.factory.AccountFactory;
+import com.vds.execution.PinnedThreadReporter;
+import com.vds.execution.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ *  Compares the platform worker pool with virtual threads under 10k concurrent account lookups.
+ *
+ *  The application is started once per execution mode on an embedded Tomcat with the embedded Mongo. Every request
+ *  goes through the OAuth2 filter chain with a token that hasn't been seen before, so the request thread blocks on
+ *  the user info call to a local stub of account-auth, which answers after a fixed delay, and then on the Mongo query.
+ *  The platform mode runs requests on the default Tomcat worker pool, the virtual mode starts a virtual thread per
+ *  request. Pinning sites met on the request path are printed by {@link PinnedThreadReporter} of the virtual mode.
+ *  Requires Java 21.
+ *
+ *  Not part of the regular test run, start it explicitly with: mvn test -Dtest=ExecutionModeBenchmark
+ *  It keeps about 2 x 10k sockets open, check ulimit -n before running it.
+ **/
+public class ExecutionModeBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 10_000;
+
+    private static final int ACCOUNTS = 1000;
+
+    private static final long AUTH_DELAY_MILLIS = 20;
+
+    private static final String USER_INFO_PATH = "/mservicet/users/current";
+
+    private HttpServer authStub;
+
+    private ExecutorService stubExecutor;
+
+    private ScheduledExecutorService stubScheduler;
+
+    private ConnectionProvider connectionProvider;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    @BeforeEach
+    public void setup() throws Exception {
+        byte[] userInfo = ("{\"name\":\"account-service\",\"oauth2Request\":{\"clientId\":\"account-service\",\"scope\":[\"server\"]}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        stubScheduler = Executors.newScheduledThreadPool(4);
+        authStub = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENT_REQUESTS);
+        authStub.createContext(USER_INFO_PATH, exchange ->
+                stubScheduler.schedule(() -> respond(exchange, userInfo), AUTH_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        stubExecutor = Executors.newFixedThreadPool(4);
+        authStub.setExecutor(stubExecutor);
+        authStub.start();
+
+        connectionProvider = ConnectionProvider.fixed("benchmark", CONCURRENT_REQUESTS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionProvider.dispose();
+        authStub.stop(0);
+        stubExecutor.shutdownNow();
+        stubScheduler.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Measures latency and throughput of platform and virtual threads under 10k concurrent account lookups")
+    public void compareExecutionModes() throws Exception {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads aren't available on this JDK");
+
+        try (ConfigurableApplicationContext platform = start("platform")) {
+            WebClient client = clientOf(platform);
+            measure(client);
+            report("platform", measure(client));
+        }
+
+        try (ConfigurableApplicationContext virtual = start("virtual")) {
+            WebClient client = clientOf(virtual);
+            PinnedThreadReporter reporter = virtual.getBean(PinnedThreadReporter.class);
+            measure(client);
+            reporter.collect();
+            report("virtual", measure(client));
+            reporter.collect().forEach(site -> System.out.printf("pinned %d times for %d ms at %s%n",
+                    site.getCount(), site.getTotal().toMillis(), site.getFrame()));
+        }
+    }
+
+    /**
+     *  Starts the application in the execution mode with enough user info connections and Mongo waiters for all
+     *  concurrent requests, and stores the accounts looked up by the benchmark.
+     **/
+    private ConfigurableApplicationContext start(String mode) {
+        MongoClientOptions mongoOptions = MongoClientOptions.builder()
+                .threadsAllowedToBlockForConnectionMultiplier(CONCURRENT_REQUESTS / 100)
+                .build();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AccountApplication.class)
+                .initializers(initialized -> initialized.getBeanFactory().registerSingleton("benchmarkMongoOptions", mongoOptions))
+                .run("--server.port=0",
+                        "--execution.mode=" + mode,
+                        "--server.tomcat.max-connections=" + 2 * CONCURRENT_REQUESTS,
+                        "--security.oauth2.resource.user-info-uri=http://localhost:" + authStub.getAddress().getPort() + USER_INFO_PATH,
+                        "--security.user-info-client.max-connections=" + CONCURRENT_REQUESTS,
+                        "--security.user-info-client.max-connections-per-route=" + CONCURRENT_REQUESTS);
+
+        AccountRepository repository = context.getBean(AccountRepository.class);
+        repository.deleteAll();
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i != ACCOUNTS; i++) {
+            accounts.add(AccountFactory.createAccount("name" + i, "name" + i + "@gmail.com", new Date(), null));
+        }
+        repository.insert(accounts);
+        return context;
+    }
+
+    private WebClient clientOf(ConfigurableApplicationContext context) {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+    }
+
+    private Result measure(WebClient client) {
+        long started = System.nanoTime();
+        List<Long> requests = Flux.range(0, CONCURRENT_REQUESTS)
+                .flatMap(i -> {
+                    long submitted = System.nanoTime();
+                    return client.get()
+                            .uri("/{name}", "name" + (i % ACCOUNTS))
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer token" + tokens.incrementAndGet())
+                            .retrieve()
+                            .bodyToMono(String.class)
+                            .map(body -> System.nanoTime() - submitted);
+                }, CONCURRENT_REQUESTS)
+                .collectList()
+                .block();
+        long[] latencies = new long[CONCURRENT_REQUESTS];
+        for (int i = 0; i != CONCURRENT_REQUESTS; i++) {
+            latencies[i] = requests.get(i);
+        }
+        Arrays.sort(latencies);
+        return new Result(latencies, System.nanoTime() - started);
+    }
+
+    private static void report(String mode, Result result) {
+        System.out.printf("%-8s %6.0f req/s, p50 %8.1f ms, p99 %8.1f ms, max %8.1f ms%n", mode,
+                CONCURRENT_REQUESTS / (result.elapsedNanos / 1_000_000_000.0),
+                percentile(result.latencies, 0.50), percentile(result.latencies, 0.99),
+                result.latencies[result.latencies.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static class Result {
+
+        private final long[] latencies;
+
+        private final long elapsedNanos;
+
+        private Result(long[] latencies, long elapsedNanos) {
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.vds.account.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataMongoTest
+public class MongoIndexVerifierTest {
+
+    @Autowired
+    private ListableBeanFactory beanFactory;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @AfterEach
+    public void restoreIndexes() {
+        mongoTemplate.indexOps("accounts").ensureIndex(new Index()
+                .on("name", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("name_id"));
+    }
+
+    @Test
+    @DisplayName("Finds no unindexed repository queries with declared indexes")
+    public void shouldFindNoUnindexedQueries() {
+        // when
+        List<String> unindexed = new MongoIndexVerifier(beanFactory, mongoTemplate, "fail").findUnindexedQueries();
+
+        // then
+        assertTrue(unindexed.toString(), unindexed.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Fails startup check when a repository query can't use any index")
+    public void shouldFailWhenIndexIsMissing() {
+        // given
+        IndexOperations indexOps = mongoTemplate.indexOps("accounts");
+        indexOps.dropIndex("name_id");
+        MongoIndexVerifier verifier = new MongoIndexVerifier(beanFactory, mongoTemplate, "fail");
+
+        // then
+        assertTrue(verifier.findUnindexedQueries().contains("AccountRepository.findByName [name]"));
+        assertThrows(IllegalStateException.class, verifier::verify);
+    }
+}
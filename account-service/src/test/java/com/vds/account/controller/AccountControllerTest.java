@@ -2,12 +2,16 @@ package com.vds.account.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.vds.account.domain.Account;
+import com.vds.account.dto.AccountPage;
 import com.vds.account.dto.mapper.AccountMapper;
+import com.vds.account.service.AccountExporter;
+import com.vds.account.service.AccountImporter;
 import com.vds.account.service.AccountService;
 import com.vds.account.util.factory.AccountFactory;
 import com.sun.security.auth.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -20,13 +24,18 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -44,6 +53,12 @@ public class AccountControllerTest {
 	@Mock
 	private AccountMapper accountMapper;
 
+	@Mock
+	private AccountImporter accountImporter;
+
+	@Mock
+	private AccountExporter accountExporter;
+
 	private MockMvc mockMvc;
 
 	@BeforeEach
@@ -90,4 +105,40 @@ public class AccountControllerTest {
 				.andExpect(jsonPath("$.modifiedDate").value(account.getModifiedDate()))
 				.andExpect(status().isCreated());
 	}
+
+	@Test
+	@DisplayName("Streams bulk import of accounts provided as newline delimited json")
+	public void shouldImportAccounts() throws Exception {
+		mockMvc.perform(post("/batch")
+				.contentType(AccountImporter.NDJSON_VALUE)
+				.content("{\"name\":\"name1\",\"email\":\"name1@gmail.com\",\"password\":\"password\"}\n"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(AccountImporter.NDJSON_VALUE));
+
+		verify(accountImporter, times(1)).importAccounts(any(), any());
+	}
+
+	@Test
+	@DisplayName("Searches accounts page by page")
+	public void shouldSearchAccounts() throws Exception {
+		when(accountService.searchAccounts(any())).thenReturn(AccountPage.builder()
+				.items(List.of(Map.of("email", "name1@gmail.com")))
+				.continuation("token")
+				.build());
+
+		mockMvc.perform(get("/search").param("by", "name").param("fields", "email").param("limit", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[0].email").value("name1@gmail.com"))
+				.andExpect(jsonPath("$.continuation").value("token"));
+	}
+
+	@Test
+	@DisplayName("Streams export of accounts as csv")
+	public void shouldExportAccounts() throws Exception {
+		mockMvc.perform(get("/export").param("format", "csv").param("modifiedSince", "2019-01-01T00:00:00.000Z"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(AccountExporter.CSV_VALUE));
+
+		verify(accountExporter, times(1)).export(eq(AccountExporter.Format.CSV), any(), any());
+	}
 }
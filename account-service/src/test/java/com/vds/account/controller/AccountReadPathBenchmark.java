@@ -0,0 +1,208 @@
+package com.vds.account.controller;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vds.account.domain.Account;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.util.factory.AccountFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *  Compares how many concurrent requests the blocking and the reactive read path sustain at the same p99 latency.
+ *
+ *  Both endpoints run in the application on an embedded Tomcat with its default worker pool and look accounts up in
+ *  the embedded Mongo. Bearer tokens are resolved against a local stub of account-auth which answers after a fixed
+ *  delay without holding a thread. Every request carries a token that hasn't been seen before, so each one pays for
+ *  token introspection and the Mongo query, like the first request of a client does. Requests are issued by a
+ *  non-blocking client with enough pooled connections, so the thread model of the endpoint is the only difference.
+ *
+ *  Not part of the regular test run, start it explicitly with: mvn test -Dtest=AccountReadPathBenchmark
+ *  The highest concurrency level keeps about 2 x 1600 sockets open, check ulimit -n before running it.
+ **/
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "security.user-info-client.max-connections=1600",
+        "security.user-info-client.max-connections-per-route=1600",
+        "security.user-info-client.reactive-max-connections=1600"
+})
+public class AccountReadPathBenchmark {
+
+    private static final long AUTH_DELAY_MILLIS = 20;
+
+    private static final long P99_BUDGET_MILLIS = 100;
+
+    private static final int[] CONCURRENCY_LEVELS = { 100, 200, 400, 800, 1600 };
+
+    private static final int ROUNDS = 5;
+
+    private static final int ACCOUNTS = 1000;
+
+    private static final String USER_INFO_PATH = "/mservicet/users/current";
+
+    private static final String USER_INFO_URI_PROPERTY = "security.oauth2.resource.user-info-uri";
+
+    private static HttpServer authStub;
+
+    private static ExecutorService stubExecutor;
+
+    private static ScheduledExecutorService stubScheduler;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AccountRepository repository;
+
+    private ConnectionProvider connectionProvider;
+
+    private WebClient client;
+
+    private final AtomicLong tokens = new AtomicLong();
+
+    /**
+     *  Starts the account-auth stub before the application context is created, so the context picks up its address.
+     **/
+    @BeforeAll
+    public static void startAuthStub() throws Exception {
+        byte[] userInfo = ("{\"name\":\"account-service\",\"oauth2Request\":{\"clientId\":\"account-service\",\"scope\":[\"server\"]}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        stubScheduler = Executors.newScheduledThreadPool(4);
+        authStub = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        authStub.createContext(USER_INFO_PATH, exchange ->
+                stubScheduler.schedule(() -> respond(exchange, userInfo), AUTH_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        stubExecutor = Executors.newFixedThreadPool(4);
+        authStub.setExecutor(stubExecutor);
+        authStub.start();
+        System.setProperty(USER_INFO_URI_PROPERTY, "http://localhost:" + authStub.getAddress().getPort() + USER_INFO_PATH);
+    }
+
+    @AfterAll
+    public static void stopAuthStub() {
+        System.clearProperty(USER_INFO_URI_PROPERTY);
+        authStub.stop(0);
+        stubExecutor.shutdownNow();
+        stubScheduler.shutdownNow();
+    }
+
+    @BeforeEach
+    public void setup() {
+        repository.deleteAll();
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i != ACCOUNTS; i++) {
+            accounts.add(AccountFactory.createAccount("name" + i, "name" + i + "@gmail.com", new Date(), null));
+        }
+        repository.insert(accounts);
+
+        int maxConnections = CONCURRENCY_LEVELS[CONCURRENCY_LEVELS.length - 1];
+        connectionProvider = ConnectionProvider.fixed("benchmark", maxConnections);
+        client = WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionProvider.dispose();
+        repository.deleteAll();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) {
+        try {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @DisplayName("Measures concurrency the blocking and the reactive read path sustain at the same p99 latency")
+    public void compareSustainedConcurrency() {
+        measure("/{name}", CONCURRENCY_LEVELS[0]);
+        measure("/reactive/{name}", CONCURRENCY_LEVELS[0]);
+
+        int blockingSustained = 0;
+        int reactiveSustained = 0;
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            long[] blocking = measure("/{name}", concurrency);
+            long[] reactive = measure("/reactive/{name}", concurrency);
+            report("blocking", concurrency, blocking);
+            report("reactive", concurrency, reactive);
+            if (percentile(blocking, 0.99) <= P99_BUDGET_MILLIS) {
+                blockingSustained = concurrency;
+            }
+            if (percentile(reactive, 0.99) <= P99_BUDGET_MILLIS) {
+                reactiveSustained = concurrency;
+            }
+        }
+        System.out.printf("p99 within %d ms: blocking sustains %d, reactive sustains %d concurrent requests%n",
+                P99_BUDGET_MILLIS, blockingSustained, reactiveSustained);
+    }
+
+    private long[] measure(String path, int concurrency) {
+        long[] latencies = new long[concurrency * ROUNDS];
+        for (int round = 0; round != ROUNDS; round++) {
+            List<Long> requests = Flux.range(0, concurrency)
+                    .flatMap(i -> {
+                        long start = System.nanoTime();
+                        return client.get()
+                                .uri(path, "name" + (i % ACCOUNTS))
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer token" + tokens.incrementAndGet())
+                                .retrieve()
+                                .bodyToMono(String.class)
+                                .map(body -> System.nanoTime() - start);
+                    }, concurrency)
+                    .collectList()
+                    .block();
+            for (int i = 0; i != concurrency; i++) {
+                latencies[round * concurrency + i] = requests.get(i);
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String model, int concurrency, long[] sortedLatencies) {
+        System.out.printf("%-8s %5d concurrent: p50 %7.1f ms, p99 %7.1f ms, max %7.1f ms%n", model, concurrency,
+                percentile(sortedLatencies, 0.50), percentile(sortedLatencies, 0.99),
+                sortedLatencies[sortedLatencies.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+}
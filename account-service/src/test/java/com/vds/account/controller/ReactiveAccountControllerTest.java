@@ -0,0 +1,212 @@
+package com.vds.account.controller;
+
+import com.vds.account.domain.Account;
+import com.vds.account.service.ReactiveAccountService;
+import com.vds.account.service.security.InternalPrincipalVerifier;
+import com.vds.account.service.security.ReactiveTokenIntrospector;
+import com.vds.account.util.factory.AccountFactory;
+import com.vds.account.util.factory.TokenFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class ReactiveAccountControllerTest {
+
+	@InjectMocks
+	private ReactiveAccountController accountController;
+
+	@Mock
+	private ReactiveAccountService accountService;
+
+	@Mock
+	private ReactiveTokenIntrospector tokenIntrospector;
+
+	@Mock
+	private InternalPrincipalVerifier principalVerifier;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	public void setup() {
+		initMocks(this);
+		this.mockMvc = MockMvcBuilders.standaloneSetup(accountController).build();
+	}
+
+	@Test
+	@DisplayName("Looks for account by name without blocking")
+	public void shouldGetAccountByName() throws Exception {
+		// given
+		Account account = AccountFactory.createAccount("name1", "name1@gmail.com", new Date(), null);
+		when(tokenIntrospector.loadAuthentication("token"))
+				.thenReturn(Mono.just(TokenFactory.createAuthentication("account-service", "account-service", "server")));
+		when(accountService.findAccountByName("name1")).thenReturn(Flux.just(account));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/name1").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name").value(account.getName()))
+				.andExpect(jsonPath("$[0].email").value(account.getEmail()));
+	}
+
+	@Test
+	@DisplayName("Looks for account by email without blocking")
+	public void shouldGetAccountByEmail() throws Exception {
+		// given
+		Account account = AccountFactory.createAccount("name1", "name1@gmail.com", new Date(), null);
+		when(tokenIntrospector.loadAuthentication("token"))
+				.thenReturn(Mono.just(TokenFactory.createAuthentication("account-service", "account-service", "server")));
+		when(accountService.findAccountByEmail("name1@gmail.com")).thenReturn(Mono.just(account));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/email/name1@gmail.com").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value(account.getEmail()));
+	}
+
+	@Test
+	@DisplayName("Responds with 404 when there is no account with provided email")
+	public void shouldNotFindAbsentEmail() throws Exception {
+		// given
+		when(tokenIntrospector.loadAuthentication("token"))
+				.thenReturn(Mono.just(TokenFactory.createAuthentication("account-service", "account-service", "server")));
+		when(accountService.findAccountByEmail("absent@gmail.com")).thenReturn(Mono.empty());
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/email/absent@gmail.com").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	@DisplayName("Looks for accounts created within provided period without blocking")
+	public void shouldGetAccountsByCreatedDate() throws Exception {
+		// given
+		Date from = Date.from(Instant.parse("2017-07-14T00:00:00Z"));
+		Date to = Date.from(Instant.parse("2017-07-15T00:00:00Z"));
+		Account account = AccountFactory.createAccount("name1", "name1@gmail.com", from, null);
+		when(tokenIntrospector.loadAuthentication("token"))
+				.thenReturn(Mono.just(TokenFactory.createAuthentication("account-service", "account-service", "server")));
+		when(accountService.findAccountByCreatedDate(from, to)).thenReturn(Flux.just(account));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/created")
+				.param("from", "2017-07-14T00:00:00.000Z")
+				.param("to", "2017-07-15T00:00:00.000Z")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].email").value(account.getEmail()));
+	}
+
+	@Test
+	@DisplayName("Rejects requests without a bearer token")
+	public void shouldRejectMissingToken() throws Exception {
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/name1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isUnauthorized());
+		verify(tokenIntrospector, never()).loadAuthentication(any());
+		verify(accountService, never()).findAccountByName(any());
+	}
+
+	@Test
+	@DisplayName("Rejects invalid tokens")
+	public void shouldRejectInvalidToken() throws Exception {
+		// given
+		when(tokenIntrospector.loadAuthentication("expired"))
+				.thenReturn(Mono.error(new InvalidTokenException("expired")));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/name1").header(HttpHeaders.AUTHORIZATION, "Bearer expired"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	@DisplayName("Rejects tokens without server scope")
+	public void shouldRejectTokenWithoutServerScope() throws Exception {
+		// given
+		when(tokenIntrospector.loadAuthentication("token"))
+				.thenReturn(Mono.just(TokenFactory.createAuthentication("name1@gmail.com", "browser", "ui")));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/name1").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isForbidden());
+		verify(accountService, never()).findAccountByName(any());
+	}
+
+	@Test
+	@DisplayName("Authorizes requests forwarded by the gateway by their internal principal")
+	public void shouldAuthorizeInternalPrincipal() throws Exception {
+		// given
+		Account account = AccountFactory.createAccount("name1", "name1@gmail.com", new Date(), null);
+		when(principalVerifier.verify("principal"))
+				.thenReturn(TokenFactory.createAuthentication("account-service", "account-service", "server"));
+		when(accountService.findAccountByName("name1")).thenReturn(Flux.just(account));
+
+		// when
+		MvcResult result = mockMvc.perform(get("/reactive/name1").header(InternalPrincipalVerifier.HEADER, "principal"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// then
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].email").value(account.getEmail()));
+		verify(tokenIntrospector, never()).loadAuthentication(any());
+	}
+}
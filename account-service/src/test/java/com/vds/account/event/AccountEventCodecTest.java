@@ -0,0 +1,61 @@
+package com.vds.account.event;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class AccountEventCodecTest {
+
+    @Test
+    @DisplayName("Decodes encoded batches with optional fields left out")
+    public void shouldRoundTripBatch() {
+        // given
+        AccountChangeEvent created = AccountChangeEvent.builder()
+                .type(AccountChangeEvent.Type.CREATED)
+                .email("name1@gmail.com")
+                .name("имя1")
+                .createdDate(new Date(1_000))
+                .occurredAt(2_000)
+                .build();
+        AccountChangeEvent updated = AccountChangeEvent.builder()
+                .type(AccountChangeEvent.Type.UPDATED)
+                .email("name2@gmail.com")
+                .modifiedDate(new Date(3_000))
+                .occurredAt(4_000)
+                .build();
+
+        // when
+        byte[] batch = AccountEventCodec.encode(List.of(created, updated));
+        List<AccountChangeEvent> decoded = AccountEventCodec.decode(batch);
+
+        // then
+        assertEquals(List.of(created, updated), decoded);
+        assertNull(decoded.get(1).getName());
+        assertTrue(batch.length < 80);
+    }
+
+    @Test
+    @DisplayName("Refuses truncated batches and unknown versions")
+    public void shouldRejectMalformedBatch() {
+        // given
+        byte[] batch = AccountEventCodec.encode(List.of(AccountChangeEvent.builder()
+                .type(AccountChangeEvent.Type.CREATED)
+                .email("name1@gmail.com")
+                .build()));
+        byte[] unknownVersion = batch.clone();
+        unknownVersion[0] = (byte) (AccountEventCodec.VERSION + 1);
+
+        // then
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> AccountEventCodec.decode(Arrays.copyOf(batch, batch.length - 3)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> AccountEventCodec.decode(unknownVersion));
+    }
+}
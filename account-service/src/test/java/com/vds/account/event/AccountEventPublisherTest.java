@@ -0,0 +1,147 @@
+package com.vds.account.event;
+
+import com.vds.account.domain.Account;
+import com.vds.account.domain.EventOutbox;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.util.factory.AccountFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@DataMongoTest
+public class AccountEventPublisherTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository repository;
+
+    private final InMemoryAccountEventTransport broker = new InMemoryAccountEventTransport();
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AccountEventPublisher publisher;
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        repository.deleteAll();
+    }
+
+    private AccountEventPublisher publisher(AccountEventTransport transport) {
+        return new AccountEventPublisher(mongoTemplate, transport, registry, 10, 60_000, 1_000);
+    }
+
+    private void saveCreatedAccount(String email, Date nextAttemptAt) {
+        Account account = AccountFactory.createAccount("name", email, new Date(), null);
+        account.setOutbox(EventOutbox.of(AccountChangeEvent.created(account), nextAttemptAt));
+        repository.insert(account);
+    }
+
+    @Test
+    @DisplayName("Publishes due events in one batch and removes the published outboxes")
+    public void shouldPublishDueEvents() throws Exception {
+        // given
+        Date now = new Date();
+        publisher = publisher(broker);
+        saveCreatedAccount("name1@gmail.com", now);
+        saveCreatedAccount("name2@gmail.com", now);
+        saveCreatedAccount("name3@gmail.com", null);
+
+        // when
+        int claimed = publisher.publishBatch(now);
+
+        // then
+        List<AccountChangeEvent> batch = broker.nextBatch(1_000);
+        assertEquals(2, claimed);
+        assertEquals(2, batch.size());
+        assertTrue(batch.stream().allMatch(event -> event.getType() == AccountChangeEvent.Type.CREATED));
+        assertNull(repository.findById("name1@gmail.com").get().getOutbox());
+        assertNull(repository.findById("name2@gmail.com").get().getOutbox());
+        assertEquals(1, repository.findById("name3@gmail.com").get().getOutbox().getEvents().size());
+        assertEquals(2, registry.get("account.events.published").counter().count(), 0);
+    }
+
+    @Test
+    @DisplayName("Keeps events of an unconfirmed batch and publishes them after the backoff")
+    public void shouldKeepEventsOfUnconfirmedBatch() throws Exception {
+        // given
+        Date now = new Date();
+        publisher = publisher(broker);
+        saveCreatedAccount("name1@gmail.com", now);
+        broker.refuseConfirms(1);
+
+        // when
+        publisher.publishBatch(now);
+        int beforeBackoff = publisher.publishBatch(now);
+        EventOutbox outbox = repository.findById("name1@gmail.com").get().getOutbox();
+        int afterBackoff = publisher.publishBatch(new Date(now.getTime() + 1_000));
+
+        // then
+        assertEquals(0, beforeBackoff);
+        assertEquals(1, outbox.getEvents().size());
+        assertNull(outbox.getLease());
+        assertTrue(outbox.getNextAttemptAt().after(now));
+        assertEquals(1, afterBackoff);
+        assertEquals("name1@gmail.com", broker.nextBatch(1_000).get(0).getEmail());
+        assertNull(repository.findById("name1@gmail.com").get().getOutbox());
+        assertEquals(1, registry.get("account.events.failed-sends").counter().count(), 0);
+    }
+
+    @Test
+    @DisplayName("Doesn't publish outboxes leased by another run")
+    public void shouldSkipLeasedOutboxes() throws Exception {
+        // given
+        Date now = new Date();
+        saveCreatedAccount("name1@gmail.com", now);
+        publisher = publisher((batch, eventCount) -> {
+            assertEquals(0, publisher.publishBatch(now));
+            broker.send(batch, eventCount);
+        });
+
+        // when
+        publisher.publishBatch(now);
+
+        // then
+        assertEquals(1, broker.getSends());
+        assertEquals(1, broker.nextBatch(1_000).size());
+        assertNull(repository.findById("name1@gmail.com").get().getOutbox());
+    }
+
+    @Test
+    @DisplayName("Keeps a change stored while its outbox is being published")
+    public void shouldKeepEventAppendedDuringPublishing() throws Exception {
+        // given
+        Date now = new Date();
+        saveCreatedAccount("name1@gmail.com", now);
+        Account update = Account.builder().email("name1@gmail.com").name("changed").build();
+        publisher = publisher((batch, eventCount) -> {
+            repository.updateFields(update, AccountChangeEvent.updated(update));
+            broker.send(batch, eventCount);
+        });
+
+        // when
+        publisher.publishBatch(now);
+
+        // then
+        EventOutbox outbox = repository.findById("name1@gmail.com").get().getOutbox();
+        assertEquals(AccountChangeEvent.Type.CREATED, broker.nextBatch(1_000).get(0).getType());
+        assertEquals(1, outbox.getEvents().size());
+        assertEquals(AccountChangeEvent.Type.UPDATED, outbox.getEvents().get(0).getEvent().getType());
+        assertNull(outbox.getLease());
+        assertEquals(1, publisher.publishBatch(new Date()));
+        assertEquals("changed", broker.nextBatch(1_000).get(0).getName());
+        assertNull(repository.findById("name1@gmail.com").get().getOutbox());
+    }
+}
@@ -0,0 +1,49 @@
+package com.vds.account.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *  Broker stand-in for tests: keeps confirmed batches in memory and can refuse to confirm a number of sends.
+ **/
+public class InMemoryAccountEventTransport implements AccountEventTransport {
+
+    private final BlockingQueue<byte[]> confirmed = new LinkedBlockingQueue<>();
+
+    private final AtomicInteger unconfirmedSends = new AtomicInteger();
+
+    private final AtomicInteger sends = new AtomicInteger();
+
+    @Override
+    public void send(byte[] batch, int eventCount) {
+        sends.incrementAndGet();
+        if (unconfirmedSends.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+            throw new IllegalStateException("broker didn't confirm the batch");
+        }
+        confirmed.add(batch);
+    }
+
+    public void refuseConfirms(int count) {
+        unconfirmedSends.set(count);
+    }
+
+    public int getSends() {
+        return sends.get();
+    }
+
+    /**
+     *  Waits for the next confirmed batch and decodes it.
+     **/
+    public List<AccountChangeEvent> nextBatch(long timeoutMillis) throws InterruptedException {
+        byte[] batch = confirmed.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        return batch != null ? AccountEventCodec.decode(batch) : new ArrayList<>();
+    }
+
+    public boolean isEmpty() {
+        return confirmed.isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package com.vds.account.event;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.amqp.AmqpTimeoutException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitOperations;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class RabbitAccountEventTransportTest {
+
+    private static final long CONFIRM_TIMEOUT_MILLIS = 5_000;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RabbitOperations operations;
+
+    private RabbitAccountEventTransport transport;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        when(rabbitTemplate.invoke(any())).thenAnswer(invocation ->
+                invocation.<RabbitOperations.OperationsCallback<?>>getArgument(0).doInRabbit(operations));
+        transport = new RabbitAccountEventTransport(rabbitTemplate, "account.events", "account.changed",
+                CONFIRM_TIMEOUT_MILLIS);
+    }
+
+    @Test
+    @DisplayName("Sends a batch as a persistent message and waits for its confirm on the same channel")
+    public void shouldSendPersistentBatchAndWaitForConfirm() {
+        // given
+        byte[] batch = { 1, 2, 3 };
+
+        // when
+        transport.send(batch, 2);
+
+        // then
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(operations, times(1)).send(eq("account.events"), eq("account.changed"), message.capture());
+        verify(operations, times(1)).waitForConfirmsOrDie(CONFIRM_TIMEOUT_MILLIS);
+        assertArrayEquals(batch, message.getValue().getBody());
+        assertEquals(MessageDeliveryMode.PERSISTENT, message.getValue().getMessageProperties().getDeliveryMode());
+        assertEquals(AccountEventCodec.CONTENT_TYPE, message.getValue().getMessageProperties().getContentType());
+        assertEquals(2, (int) message.getValue().getMessageProperties()
+                .getHeader(RabbitAccountEventTransport.EVENT_COUNT_HEADER));
+    }
+
+    @Test
+    @DisplayName("Fails the send when the broker doesn't confirm the batch")
+    public void shouldFailUnconfirmedSend() {
+        // given
+        doThrow(new AmqpTimeoutException("no confirm")).when(operations).waitForConfirmsOrDie(anyLong());
+
+        // then
+        assertThrows(AmqpTimeoutException.class, () -> transport.send(new byte[] { 1 }, 1));
+    }
+}
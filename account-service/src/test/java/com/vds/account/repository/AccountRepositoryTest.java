@@ -1,20 +1,34 @@
 package com.vds.account.repository;
 
 import com.vds.account.domain.Account;
+import com.vds.account.event.AccountChangeEvent;
 import com.vds.account.util.factory.AccountFactory;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 @DataMongoTest
 public class AccountRepositoryTest {
@@ -133,7 +147,8 @@ public class AccountRepositoryTest {
 
 		// when
 		accounts.forEach(repository::save);
-		List<Account> foundAccounts = repository.findByCreatedDate(expectedCreatedDate);
+		List<Account> foundAccounts = repository.findByCreatedDateBetween(expectedCreatedDate,
+				new Date(expectedCreatedDate.getTime() + 1));
 
 		// then
 		assertNotNull(foundAccounts);
@@ -164,7 +179,8 @@ public class AccountRepositoryTest {
 
 		// when
 		accounts.forEach(repository::save);
-		List<Account> foundAccounts = repository.findByModifiedDate(expectedModifiedDate);
+		List<Account> foundAccounts = repository.findByModifiedDateBetween(expectedModifiedDate,
+				new Date(expectedModifiedDate.getTime() + 1));
 
 		// then
 		assertNotNull(foundAccounts);
@@ -177,4 +193,101 @@ public class AccountRepositoryTest {
 			assertEquals(accounts.get(i).getModifiedDate(), foundAccounts.get(i).getModifiedDate());
 		}
 	}
-}
\ No newline at end of file
+
+	@ParameterizedTest
+	@MethodSource("provideCommonAccounts")
+	@DisplayName("Fails to insert an account with already stored email")
+	public void shouldFailToInsertDuplicatedAccount(Account account) {
+		// given
+		repository.insert(account);
+
+		// then
+		Assertions.assertThrows(DuplicateKeyException.class, () -> repository.insert(account));
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideCommonAccounts")
+	@DisplayName("Updates only provided fields of stored account")
+	public void shouldUpdateProvidedFields(Account account) {
+		// given
+		repository.insert(account);
+		Date modifiedDate = new Date();
+		Account update = AccountFactory.createAccount(account.getName() + "_updated", account.getEmail(), null, modifiedDate);
+
+		// when
+		long matched = repository.updateFields(update, AccountChangeEvent.updated(update));
+
+		// then
+		assertEquals(1, matched);
+		Account foundAccount = repository.findByEmail(account.getEmail());
+		assertEquals(update.getName(), 			foundAccount.getName());
+		assertEquals(account.getCreatedDate(), 	foundAccount.getCreatedDate());
+		assertEquals(modifiedDate, 				foundAccount.getModifiedDate());
+		assertEquals(AccountChangeEvent.Type.UPDATED, foundAccount.getOutbox().getEvents().get(0).getEvent().getType());
+		assertNotNull(foundAccount.getOutbox().getNextAttemptAt());
+	}
+
+	@ParameterizedTest
+	@MethodSource("provideCommonAccounts")
+	@DisplayName("Reports no match when updated account isn't stored")
+	public void shouldNotMatchMissingAccount(Account account) {
+		// when
+		long matched = repository.updateFields(account, AccountChangeEvent.updated(account));
+
+		// then
+		assertEquals(0, matched);
+		assertEquals(0, repository.count());
+	}
+
+	@Test
+	@DisplayName("Returns accounts created within half-open period only")
+	public void shouldFindAccountsCreatedWithinPeriod() {
+		// given
+		final long start = 1_500_000_000_000L;
+		repository.save(AccountFactory.createAccount("name1", "name1@gmail.com", new Date(start - 1), null));
+		repository.save(AccountFactory.createAccount("name2", "name2@gmail.com", new Date(start), null));
+		repository.save(AccountFactory.createAccount("name3", "name3@gmail.com", new Date(start + 999), null));
+		repository.save(AccountFactory.createAccount("name4", "name4@gmail.com", new Date(start + 1000), null));
+
+		// when
+		List<Account> foundAccounts = repository.findByCreatedDateBetween(new Date(start), new Date(start + 1000));
+
+		// then
+		assertEquals(2, foundAccounts.size());
+		assertEquals(Set.of("name2@gmail.com", "name3@gmail.com"),
+				foundAccounts.stream().map(Account::getEmail).collect(Collectors.toSet()));
+	}
+
+	@Test
+	@DisplayName("Pages through accounts by seeking past the last returned key")
+	public void shouldPageThroughAccountsByKeyset() {
+		// given
+		for (int i = 0; i != 25; i++) {
+			repository.save(AccountFactory.createAccount("name" + (i % 3), String.format("name%02d@gmail.com", i), new Date(), null));
+		}
+		List<String> seen = new ArrayList<>();
+		String afterId = null;
+		Object afterValue = null;
+
+		// when
+		List<Document> page;
+		do {
+			page = repository.findPage(where("name").type(Type.STRING), "name", afterValue, afterId, List.of("name"), 10);
+			for (Document document : page) {
+				seen.add(document.getString("name") + "/" + document.getString("_id"));
+			}
+			if (!page.isEmpty()) {
+				afterValue = page.get(page.size() - 1).get("name");
+				afterId = page.get(page.size() - 1).getString("_id");
+			}
+		} while (page.size() == 10);
+
+		// then
+		assertEquals(25, seen.size());
+		assertEquals(25, new HashSet<>(seen).size());
+		List<String> sorted = new ArrayList<>(seen);
+		Collections.sort(sorted);
+		assertEquals(sorted, seen);
+		assertNull(page.get(0).get("createdDate"));
+	}
+}
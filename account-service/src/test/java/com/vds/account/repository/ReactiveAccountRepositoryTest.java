@@ -0,0 +1,65 @@
+package com.vds.account.repository;
+
+import com.vds.account.domain.Account;
+import com.vds.account.util.factory.AccountFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@DataMongoTest
+public class ReactiveAccountRepositoryTest {
+
+	@Autowired
+	private AccountRepository repository;
+
+	@Autowired
+	private ReactiveAccountRepository reactiveRepository;
+
+	@AfterEach
+	public void clearRecordsInDb(){
+		repository.deleteAll();
+	}
+
+	@Test
+	@DisplayName("Reads accounts stored by the blocking repository")
+	public void shouldFindAccountsByNameAndEmail(){
+		// given
+		repository.save(AccountFactory.createAccount("name1", "name1@gmail.com", new Date(), null));
+		repository.save(AccountFactory.createAccount("name1", "name2@gmail.com", new Date(), null));
+
+		// when
+		List<Account> byName = reactiveRepository.findByName("name1").collectList().block();
+		Account byEmail = reactiveRepository.findByEmail("name2@gmail.com").block();
+		Account missing = reactiveRepository.findByEmail("name3@gmail.com").block();
+
+		// then
+		assertEquals(2, byName.size());
+		assertEquals("name2@gmail.com", byEmail.getEmail());
+		assertNull(missing);
+	}
+
+	@Test
+	@DisplayName("Finds accounts created within a period")
+	public void shouldFindAccountsByCreatedDate(){
+		// given
+		long now = System.currentTimeMillis();
+		repository.save(AccountFactory.createAccount("name1", "name1@gmail.com", new Date(now - 2_000), null));
+		repository.save(AccountFactory.createAccount("name2", "name2@gmail.com", new Date(now), null));
+
+		// when
+		List<Account> found = reactiveRepository.findByCreatedDateBetween(new Date(now - 1_000), new Date(now + 1_000))
+				.collectList().block();
+
+		// then
+		assertEquals(1, found.size());
+		assertEquals("name2@gmail.com", found.get(0).getEmail());
+	}
+}
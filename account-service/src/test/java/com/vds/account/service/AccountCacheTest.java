@@ -0,0 +1,115 @@
+package com.vds.account.service;
+
+import com.vds.account.domain.Account;
+import com.vds.account.event.AccountCacheEvictionEvent;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.util.factory.AccountFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class AccountCacheTest {
+
+    private static final String EMAIL = "name1@gmail.com";
+
+    @Mock
+    private AccountRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AccountCache accountCache;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        BusProperties busProperties = new BusProperties();
+        busProperties.setId("account-service:0:test");
+        accountCache = new AccountCache(repository, applicationEventPublisher, busProperties, registry, 100, 60);
+    }
+
+    @Test
+    @DisplayName("Loads account once and serves copies of it from the cache")
+    public void shouldServeCachedCopies() {
+        // given
+        Account account = AccountFactory.createAccount("name1", EMAIL, new Date(), null);
+        when(repository.findByEmail(EMAIL)).thenReturn(account);
+
+        // when
+        Account first = accountCache.get(EMAIL);
+        first.setName("changed by caller");
+        Account second = accountCache.get(EMAIL);
+
+        // then
+        verify(repository, times(1)).findByEmail(EMAIL);
+        assertNotSame(first, second);
+        assertEquals(account.getName(), second.getName());
+        assertEquals(account.getCreatedDate(), second.getCreatedDate());
+        assertNull(second.getModifiedDate());
+        assertEquals(0.5, registry.get("accounts.cache.hit-ratio").gauge().value(), 0);
+        assertEquals(1, registry.get("accounts.cache.load").timer().count());
+    }
+
+    @Test
+    @DisplayName("Doesn't cache missing accounts")
+    public void shouldNotCacheMissingAccount() {
+        // when
+        accountCache.get(EMAIL);
+        Account account = accountCache.get(EMAIL);
+
+        // then
+        assertNull(account);
+        verify(repository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Reloads evicted account and broadcasts the eviction over the bus")
+    public void shouldEvictAndBroadcast() {
+        // given
+        when(repository.findByEmail(EMAIL)).thenReturn(AccountFactory.createAccount("name1", EMAIL, new Date(), null));
+        accountCache.get(EMAIL);
+
+        // when
+        accountCache.evict(EMAIL);
+        accountCache.get(EMAIL);
+
+        // then
+        ArgumentCaptor<AccountCacheEvictionEvent> eviction = ArgumentCaptor.forClass(AccountCacheEvictionEvent.class);
+        verify(applicationEventPublisher, times(1)).publishEvent(eviction.capture());
+        assertEquals(EMAIL, eviction.getValue().getEmail());
+        assertEquals("account-service:0:test", eviction.getValue().getOriginService());
+        verify(repository, times(2)).findByEmail(EMAIL);
+    }
+
+    @Test
+    @DisplayName("Drops account when an eviction is received from another replica")
+    public void shouldEvictOnRemoteEvent() {
+        // given
+        when(repository.findByEmail(EMAIL)).thenReturn(AccountFactory.createAccount("name1", EMAIL, new Date(), null));
+        accountCache.get(EMAIL);
+
+        // when
+        accountCache.onEviction(new AccountCacheEvictionEvent(this, "account-service:1:other", EMAIL));
+        accountCache.get(EMAIL);
+
+        // then
+        verify(repository, times(2)).findByEmail(EMAIL);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vds.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.util.factory.AccountFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@DataMongoTest
+public class AccountExporterTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository repository;
+
+    private AccountExporter exporter;
+
+    @BeforeEach
+    public void setup() {
+        exporter = new AccountExporter(mongoTemplate, mapper, 2);
+        repository.save(AccountFactory.createAccount("name1", "name1@gmail.com", new Date(1_000), null));
+        repository.save(AccountFactory.createAccount("name2", "name2@gmail.com", new Date(2_000), new Date(5_000)));
+        repository.save(AccountFactory.createAccount("name, \"3\"", "name3@gmail.com", new Date(3_000), new Date(9_000)));
+    }
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Exports all accounts as newline delimited json")
+    public void shouldExportAccountsAsNdjson() throws Exception {
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = exporter.export(AccountExporter.Format.NDJSON, null, out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, exported);
+        assertEquals(3, lines.length);
+        for (String line : lines) {
+            Map<?, ?> account = mapper.readValue(line, Map.class);
+            assertTrue(account.get("email").toString().endsWith("@gmail.com"));
+            assertEquals(4, account.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Exports accounts modified since provided time as csv")
+    public void shouldExportModifiedAccountsAsCsv() throws Exception {
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = exporter.export(AccountExporter.Format.CSV, new Date(9_000), out);
+
+        // then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, exported);
+        assertEquals("email,name,createdDate,modifiedDate", lines[0]);
+        assertEquals("name3@gmail.com,\"name, \"\"3\"\"\",1970-01-01T00:00:03Z,1970-01-01T00:00:09Z", lines[1]);
+    }
+}
@@ -0,0 +1,183 @@
+package com.vds.account.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vds.account.client.AuthServiceBatchClient;
+import com.vds.account.domain.Account;
+import com.vds.account.domain.User;
+import com.vds.account.dto.AccountImportResult;
+import com.vds.account.dto.UserCreationResult;
+import com.vds.account.dto.mapper.AccountMapper;
+import com.vds.account.event.AccountChangeEvent;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.service.security.SecretCipher;
+import com.vds.account.util.factory.AccountFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+@DataMongoTest
+public class AccountImporterTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository repository;
+
+    @Mock
+    private AuthServiceBatchClient authClient;
+
+    private final SecretCipher secretCipher = new SecretCipher("test-secret");
+
+    private AccountImporter importer;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        importer = new AccountImporter(mongoTemplate, authClient, secretCipher,
+                Mappers.getMapper(AccountMapper.class), Validation.buildDefaultValidatorFactory().getValidator(), mapper,
+                2, 60_000);
+        when(authClient.createUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            return users.stream()
+                    .map(user -> UserCreationResult.builder()
+                            .username(user.getUsername())
+                            .status(status(user.getUsername()))
+                            .build())
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        repository.deleteAll();
+    }
+
+    private List<AccountImportResult> runImport(String... lines) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        importer.importAccounts(new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8)), out);
+
+        List<AccountImportResult> results = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(mapper.readValue(line, AccountImportResult.class));
+        }
+        return results;
+    }
+
+    private static UserCreationResult.Status status(String username) {
+        if (username.startsWith("taken")) {
+            return UserCreationResult.Status.EXISTS;
+        }
+        return username.startsWith("refused") ? UserCreationResult.Status.FAILED : UserCreationResult.Status.CREATED;
+    }
+
+    private static String line(String name, String email, String password) {
+        return "{\"name\":\"" + name + "\",\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+
+    @Test
+    @DisplayName("Imports all valid lines in batches")
+    public void shouldImportAccountsInBatches() throws Exception {
+        // when
+        List<AccountImportResult> results = runImport(
+                line("name1", "name1@gmail.com", "password1"),
+                line("name2", "name2@gmail.com", "password2"),
+                "",
+                line("name3", "name3@gmail.com", "password3"));
+
+        // then
+        assertEquals(3, results.size());
+        results.forEach(result -> assertEquals(AccountImportResult.Status.CREATED, result.getStatus()));
+        assertEquals(4, results.get(2).getLine());
+        assertEquals(3, repository.count());
+        verify(authClient, times(2)).createUsers(anyList());
+        repository.findAll().forEach(account -> {
+            assertEquals(1, account.getOutbox().getEvents().size());
+            assertEquals(AccountChangeEvent.Type.CREATED, account.getOutbox().getEvents().get(0).getEvent().getType());
+            assertFalse(account.getOutbox().getNextAttemptAt().after(new Date()));
+            assertNull(account.getProvision());
+        });
+    }
+
+    @Test
+    @DisplayName("Reports invalid lines and already existing accounts without failing the others")
+    public void shouldReportFailedLines() throws Exception {
+        // given
+        repository.save(AccountFactory.createAccount("name1", "name1@gmail.com", new Date(), null));
+
+        // when
+        List<AccountImportResult> results = runImport(
+                "{not json",
+                line("name1", "name1@gmail.com", "password1"),
+                line("name2", "name2@gmail.com", "short"),
+                line("name3", "name3@gmail.com", "password3"));
+
+        // then
+        assertEquals(4, results.size());
+        assertEquals(AccountImportResult.Status.INVALID, results.get(0).getStatus());
+        assertEquals(AccountImportResult.Status.INVALID, results.get(1).getStatus());
+        assertEquals(AccountImportResult.Status.EXISTS,  results.get(2).getStatus());
+        assertEquals(AccountImportResult.Status.CREATED, results.get(3).getStatus());
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    @DisplayName("Removes imported accounts whose users auth service refused and keeps already existing users")
+    public void shouldRemoveAccountsOfRefusedUsers() throws Exception {
+        // when
+        List<AccountImportResult> results = runImport(
+                line("name1", "refused1@gmail.com", "password1"),
+                line("name2", "taken2@gmail.com", "password2"));
+
+        // then
+        assertEquals(AccountImportResult.Status.FAILED,  results.get(0).getStatus());
+        assertEquals(AccountImportResult.Status.CREATED, results.get(1).getStatus());
+        assertFalse(repository.existsById("refused1@gmail.com"));
+        assertNull(repository.findById("taken2@gmail.com").get().getProvision());
+    }
+
+    @Test
+    @DisplayName("Hands users to the provisioning outbox when the batch call fails")
+    public void shouldHandOverUsersWhenBatchCallFails() throws Exception {
+        // given
+        doThrow(new IllegalStateException("read timed out")).when(authClient).createUsers(anyList());
+
+        // when
+        List<AccountImportResult> results = runImport(line("name1", "name1@gmail.com", "password1"));
+
+        // then
+        assertEquals(AccountImportResult.Status.CREATED, results.get(0).getStatus());
+        Account account = repository.findById("name1@gmail.com").get();
+        assertEquals("name1@gmail.com", account.getProvision().getUsername());
+        assertEquals("password1", secretCipher.open(account.getProvision().getSealedPassword()));
+        assertFalse(account.getProvision().getNextAttemptAt().after(new Date()));
+        assertFalse(account.getOutbox().getNextAttemptAt().after(new Date()));
+    }
+}
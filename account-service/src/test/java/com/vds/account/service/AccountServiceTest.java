@@ -1,12 +1,17 @@
 package com.vds.account.service;
 
-import com.vds.account.client.AuthServiceClient;
 import com.vds.account.domain.Account;
 import com.vds.account.domain.User;
+import com.vds.account.dto.AccountPage;
+import com.vds.account.dto.AccountSearch;
 import com.vds.account.dto.mapper.AccountMapper;
+import com.vds.account.event.AccountChangeEvent;
+import com.vds.account.exception.AccountException;
 import com.vds.account.repository.AccountRepository;
+import com.vds.account.service.security.SecretCipher;
 import com.vds.account.util.factory.AccountFactory;
 import org.apache.commons.lang.RandomStringUtils;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,14 +22,21 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.dao.DuplicateKeyException;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
@@ -42,7 +54,10 @@ public class AccountServiceTest {
     private AccountMapper accountMapper;
 
     @Mock
-    private AuthServiceClient authClient;
+    private SecretCipher secretCipher;
+
+    @Mock
+    private AccountCache accountCache;
 
     @BeforeEach
     public void setup() { initMocks(this); }
@@ -68,7 +83,7 @@ public class AccountServiceTest {
                 .build();
 
         // when
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account savedAccount = accountService.create(account, user);
 
         // then
@@ -78,7 +93,51 @@ public class AccountServiceTest {
         assertNotNull(savedAccount.getCreatedDate());
         assertNull(savedAccount.getModifiedDate());
 
-        verify(repository, times(1)).save(account);
+        verify(repository, times(1)).insert(argThat((Account inserted) -> {
+            AccountChangeEvent event = inserted.getOutbox().getEvents().get(0).getEvent();
+            return event.getType() == AccountChangeEvent.Type.CREATED && account.getEmail().equals(event.getEmail())
+                    && inserted.getOutbox().getNextAttemptAt() != null;
+        }));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCommonAccounts")
+    @DisplayName("Throws AccountException when account with the same email already exists")
+    public void shouldFailWhenAccountAlreadyExists(Account account) {
+        // given
+        User user = User.builder().
+                username(account.getName())
+                .password(RandomStringUtils.randomAlphabetic(10))
+                .build();
+
+        // when
+        when(repository.insert(account)).thenThrow(new DuplicateKeyException("duplicate key"));
+
+        // then
+        Assertions.assertThrows(AccountException.class, () -> accountService.create(account, user));
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCommonAccounts")
+    @DisplayName("Stores user creation as a pending provision of the account instead of calling auth service")
+    public void shouldStorePendingProvision(Account account) {
+        // given
+        User user = User.builder().
+                username(account.getName())
+                .password(RandomStringUtils.randomAlphabetic(10))
+                .build();
+
+        // when
+        when(secretCipher.seal(user.getPassword())).thenReturn("sealed");
+        when(repository.insert(account)).thenReturn(account);
+        Account savedAccount = accountService.create(account, user);
+
+        // then
+        assertEquals(user.getUsername(), savedAccount.getProvision().getUsername());
+        assertEquals("sealed", savedAccount.getProvision().getSealedPassword());
+        assertEquals(0, savedAccount.getProvision().getAttempts());
+        assertNotNull(savedAccount.getProvision().getNextAttemptAt());
+        verify(repository, times(1)).insert(account);
     }
 
     @ParameterizedTest
@@ -94,20 +153,35 @@ public class AccountServiceTest {
         final String updatePrefix = "_updated";
 
         // when
-        when(repository.findByEmail(account.getEmail())).thenReturn(null);
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account createdAccount = accountService.create(account, user);
 
         createdAccount.setName(createdAccount.getName() + updatePrefix);
 
-        when(repository.findByEmail(createdAccount.getEmail())).thenReturn(createdAccount);
+        when(repository.updateFields(eq(createdAccount), any())).thenReturn(1L);
         Account updatedAccount = accountService.saveChanges(createdAccount);
 
         // then
         assertNotNull(updatedAccount);
         assertEquals(updatedAccount.getName(), 	 createdAccount.getName());
+        assertNotNull(updatedAccount.getModifiedDate());
+
+        verify(repository, times(1)).insert(account);
+        verify(repository, times(1)).updateFields(eq(account), argThat(event ->
+                event.getType() == AccountChangeEvent.Type.UPDATED && account.getEmail().equals(event.getEmail())));
+        verify(repository, never()).findByEmail(any());
+        verify(accountCache, times(1)).evict(account.getEmail());
+    }
+
+    @ParameterizedTest
+    @MethodSource("provideCommonAccounts")
+    @DisplayName("Throws AccountException when updated account doesn't exist")
+    public void shouldFailWhenUpdatedAccountNotFound(Account account) {
+        // when
+        when(repository.updateFields(eq(account), any())).thenReturn(0L);
 
-        verify(repository, times(2)).save(account);
+        // then
+        Assertions.assertThrows(AccountException.class, () -> accountService.saveChanges(account));
     }
 
 
@@ -123,7 +197,7 @@ public class AccountServiceTest {
         final int expectedFoundAccounts = 1;
 
         // when
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account savedAccount = accountService.create(account, user);
         when(repository.findByName(account.getName())).thenReturn(List.of(savedAccount));
         List<Account> foundAccounts = accountService.findAccountByName(account.getName());
@@ -160,7 +234,7 @@ public class AccountServiceTest {
         assertEquals(foundAccounts.get(1).getName(), accounts.get(1).getName());
     }
 
-    @org.junit.jupiter.api.Test
+    @Test
     @DisplayName("Throws IllegalArgumentException when looks for account by empty string name")
     public void shouldFailWhenFindAccountByNameWithEmptyNameValue() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> accountService.findAccountByName(""));
@@ -175,11 +249,11 @@ public class AccountServiceTest {
                 username(account.getName())
                 .password(RandomStringUtils.randomAlphabetic(10))
                 .build();
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account savedAccount = accountService.create(account, user);
 
         // when
-        when(repository.findByEmail(account.getEmail())).thenReturn(savedAccount);
+        when(accountCache.get(account.getEmail())).thenReturn(savedAccount);
         Account foundAccount = accountService.findAccountByEmail(account.getEmail());
 
         assertNotNull(foundAccount);
@@ -189,7 +263,7 @@ public class AccountServiceTest {
         assertEquals(foundAccount.getModifiedDate(), savedAccount.getModifiedDate());
     }
 
-    @org.junit.jupiter.api.Test
+    @Test
     @DisplayName("Throws IllegalArgumentException when looks for account by empty string email")
     public void shouldFailWhenFindAccountByEmailWithEmptyEmailValue() {
         Assertions.assertThrows(IllegalArgumentException.class, () -> accountService.findAccountByEmail(""));
@@ -211,12 +285,14 @@ public class AccountServiceTest {
                 .password(RandomStringUtils.randomAlphabetic(10))
                 .build();
         final int expectedFoundAccounts = 1;
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account savedAccount = accountService.create(account, user);
 
         // when
-        when(repository.findByCreatedDate(account.getCreatedDate())).thenReturn(List.of(savedAccount));
-        List<Account> foundAccounts = accountService.findAccountByCreatedDate(account.getCreatedDate());
+        Date from = account.getCreatedDate();
+        Date to = new Date(from.getTime() + 1000);
+        when(repository.findByCreatedDateBetween(from, to)).thenReturn(List.of(savedAccount));
+        List<Account> foundAccounts = accountService.findAccountByCreatedDate(from, to);
 
         assertNotNull(foundAccounts);
         assertEquals(expectedFoundAccounts, foundAccounts.size());
@@ -237,12 +313,14 @@ public class AccountServiceTest {
                 .password(RandomStringUtils.randomAlphabetic(10))
                 .build();
         final int expectedFoundAccounts = 1;
-        when(repository.save(account)).thenReturn(account);
+        when(repository.insert(account)).thenReturn(account);
         Account savedAccount = accountService.create(account, user);
 
         // when
-        when(repository.findByModifiedDate(account.getModifiedDate())).thenReturn(List.of(savedAccount));
-        List<Account> foundAccounts = accountService.findAccountByModifiedDate(account.getModifiedDate());
+        Date from = new Date();
+        Date to = new Date(from.getTime() + 1000);
+        when(repository.findByModifiedDateBetween(from, to)).thenReturn(List.of(savedAccount));
+        List<Account> foundAccounts = accountService.findAccountByModifiedDate(from, to);
 
         assertNotNull(foundAccounts);
         assertEquals(expectedFoundAccounts, foundAccounts.size());
@@ -253,4 +331,49 @@ public class AccountServiceTest {
         assertEquals(foundAccounts.get(0).getModifiedDate(), savedAccount.getModifiedDate());
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("Throws IllegalArgumentException when looks for accounts within empty period")
+    public void shouldFailWhenFindAccountByCreatedDateWithEmptyPeriod() {
+        Date date = new Date();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> accountService.findAccountByCreatedDate(date, date));
+    }
+
+    @Test
+    @DisplayName("Returns requested fields of found accounts and continuation token of the next page")
+    public void shouldSearchAccountsPageByPage() {
+        // given
+        Document first = new Document("_id", "name1@gmail.com").append("name", "name");
+        Document second = new Document("_id", "name2@gmail.com").append("name", "name");
+        Document third = new Document("_id", "name3@gmail.com").append("name", "name");
+        when(repository.findPage(any(), eq("name"), isNull(), isNull(), any(), eq(3))).thenReturn(List.of(first, second, third));
+        when(repository.findPage(any(), eq("name"), eq("name"), eq("name2@gmail.com"), any(), eq(3))).thenReturn(List.of(third));
+        AccountSearch search = AccountSearch.builder().by("name").name("name").fields(List.of("email")).limit(2).build();
+
+        // when
+        AccountPage firstPage = accountService.searchAccounts(search);
+        search.setContinuation(firstPage.getContinuation());
+        AccountPage secondPage = accountService.searchAccounts(search);
+
+        // then
+        assertEquals(2, firstPage.getItems().size());
+        assertEquals(Map.of("email", "name1@gmail.com"), firstPage.getItems().get(0));
+        assertNotNull(firstPage.getContinuation());
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals("name3@gmail.com", secondPage.getItems().get(0).get("email"));
+        assertNull(secondPage.getContinuation());
+    }
+
+    @Test
+    @DisplayName("Throws IllegalArgumentException when continuation token is tampered with")
+    public void shouldFailWhenContinuationTokenIsInvalid() {
+        AccountSearch search = AccountSearch.builder().by("name").limit(10).continuation("not-a-token").build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> accountService.searchAccounts(search));
+    }
+
+    @Test
+    @DisplayName("Throws IllegalArgumentException when unknown field is requested")
+    public void shouldFailWhenUnknownFieldRequested() {
+        AccountSearch search = AccountSearch.builder().by("name").fields(List.of("password")).limit(10).build();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> accountService.searchAccounts(search));
+    }
+}
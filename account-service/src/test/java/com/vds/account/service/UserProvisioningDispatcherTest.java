@@ -0,0 +1,198 @@
+package com.vds.account.service;
+
+import com.vds.account.client.AuthServiceBatchClient;
+import com.vds.account.domain.Account;
+import com.vds.account.domain.PendingProvision;
+import com.vds.account.domain.User;
+import com.vds.account.dto.UserCreationResult;
+import com.vds.account.repository.AccountRepository;
+import com.vds.account.service.security.SecretCipher;
+import com.vds.account.util.factory.AccountFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+@DataMongoTest
+public class UserProvisioningDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AccountRepository repository;
+
+    @Mock
+    private AuthServiceBatchClient authClient;
+
+    private final SecretCipher secretCipher = new SecretCipher("test-secret");
+
+    private UserProvisioningDispatcher dispatcher;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        dispatcher = new UserProvisioningDispatcher(mongoTemplate, authClient, secretCipher, new SimpleMeterRegistry(),
+                10, 60_000, MAX_ATTEMPTS, 1_000, 10_000);
+    }
+
+    @AfterEach
+    public void clearRecordsInDb() {
+        repository.deleteAll();
+    }
+
+    private void savePendingAccount(String email, String password, Date nextAttemptAt) {
+        Account account = AccountFactory.createAccount("name", email, new Date(), null);
+        account.setProvision(PendingProvision.builder()
+                .username(email)
+                .sealedPassword(secretCipher.seal(password))
+                .nextAttemptAt(nextAttemptAt)
+                .build());
+        repository.insert(account);
+    }
+
+    private static UserCreationResult result(String username, UserCreationResult.Status status) {
+        return UserCreationResult.builder().username(username).status(status).build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Delivers due users in one batch and removes delivered provisions")
+    public void shouldDeliverDueProvisions() {
+        // given
+        Date now = new Date();
+        savePendingAccount("name1@gmail.com", "password1", now);
+        savePendingAccount("name2@gmail.com", "password2", now);
+        savePendingAccount("name3@gmail.com", "password3", new Date(now.getTime() + 60_000));
+        when(authClient.createUsers(anyList())).thenReturn(List.of(
+                result("name1@gmail.com", UserCreationResult.Status.CREATED),
+                result("name2@gmail.com", UserCreationResult.Status.EXISTS)));
+
+        // when
+        int dispatched = dispatcher.dispatchBatch(now);
+
+        // then
+        ArgumentCaptor<List<User>> users = ArgumentCaptor.forClass(List.class);
+        verify(authClient, times(1)).createUsers(users.capture());
+        assertEquals(2, dispatched);
+        assertEquals(2, users.getValue().size());
+        assertTrue(users.getValue().stream().anyMatch(user -> "password1".equals(user.getPassword())));
+        assertNull(repository.findById("name1@gmail.com").get().getProvision());
+        assertNull(repository.findById("name2@gmail.com").get().getProvision());
+        assertNotNull(repository.findById("name3@gmail.com").get().getProvision());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Fails only the entry whose password can't be opened and delivers the rest of the batch")
+    public void shouldFailOnlyUnopenableProvision() {
+        // given
+        Date now = new Date();
+        savePendingAccount("name1@gmail.com", "password1", now);
+        Account altered = AccountFactory.createAccount("name", "name2@gmail.com", new Date(), null);
+        altered.setProvision(PendingProvision.builder()
+                .username("name2@gmail.com")
+                .sealedPassword(new SecretCipher("another-secret").seal("password2"))
+                .nextAttemptAt(now)
+                .build());
+        repository.insert(altered);
+        when(authClient.createUsers(anyList())).thenReturn(List.of(
+                result("name1@gmail.com", UserCreationResult.Status.CREATED)));
+
+        // when
+        int dispatched = dispatcher.dispatchBatch(now);
+
+        // then
+        ArgumentCaptor<List<User>> users = ArgumentCaptor.forClass(List.class);
+        verify(authClient, times(1)).createUsers(users.capture());
+        assertEquals(2, dispatched);
+        assertEquals(1, users.getValue().size());
+        assertEquals("name1@gmail.com", users.getValue().get(0).getUsername());
+        assertNull(repository.findById("name1@gmail.com").get().getProvision());
+        PendingProvision provision = repository.findById("name2@gmail.com").get().getProvision();
+        assertEquals(1, provision.getAttempts());
+        assertTrue(provision.getLastError().contains("sealed secret can't be opened"));
+    }
+
+    @Test
+    @DisplayName("Schedules a failed delivery for a later attempt")
+    public void shouldRetryFailedDeliveryWithBackoff() {
+        // given
+        Date now = new Date();
+        savePendingAccount("name1@gmail.com", "password1", now);
+        when(authClient.createUsers(anyList())).thenThrow(new IllegalStateException("auth service is unavailable"));
+
+        // when
+        dispatcher.dispatchBatch(now);
+        int redispatched = dispatcher.dispatchBatch(now);
+
+        // then
+        PendingProvision provision = repository.findById("name1@gmail.com").get().getProvision();
+        assertEquals(0, redispatched);
+        assertEquals(1, provision.getAttempts());
+        assertNull(provision.getLease());
+        assertTrue(provision.getLastError().contains("auth service is unavailable"));
+        assertTrue(provision.getNextAttemptAt().after(now));
+    }
+
+    @Test
+    @DisplayName("Gives up a delivery after max attempts")
+    public void shouldAbandonProvisionAfterMaxAttempts() {
+        // given
+        savePendingAccount("name1@gmail.com", "password1", new Date());
+        when(authClient.createUsers(anyList())).thenReturn(List.of(
+                result("name1@gmail.com", UserCreationResult.Status.FAILED)));
+
+        // when
+        for (int i = 0; i != MAX_ATTEMPTS + 1; i++) {
+            dispatcher.dispatchBatch(new Date(System.currentTimeMillis() + 3_600_000L * i));
+        }
+
+        // then
+        PendingProvision provision = repository.findById("name1@gmail.com").get().getProvision();
+        verify(authClient, times(MAX_ATTEMPTS)).createUsers(anyList());
+        assertEquals(MAX_ATTEMPTS, provision.getAttempts());
+        assertNull(provision.getNextAttemptAt());
+    }
+
+    @Test
+    @DisplayName("Doesn't deliver entries leased by another run")
+    public void shouldSkipLeasedProvisions() {
+        // given
+        Date now = new Date();
+        savePendingAccount("name1@gmail.com", "password1", now);
+        when(authClient.createUsers(anyList())).thenAnswer(invocation -> {
+            assertEquals(0, dispatcher.dispatchBatch(now));
+            return List.of(result("name1@gmail.com", UserCreationResult.Status.CREATED));
+        });
+
+        // when
+        dispatcher.dispatchBatch(now);
+
+        // then
+        verify(authClient, times(1)).createUsers(any());
+        assertNull(repository.findById("name1@gmail.com").get().getProvision());
+    }
+}
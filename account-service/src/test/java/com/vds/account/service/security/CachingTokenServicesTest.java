@@ -0,0 +1,112 @@
+package com.vds.account.service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class CachingTokenServicesTest {
+
+    private static final String TOKEN = "0b9a6f1c-2d4e-4f8a-9c3b-5e7d1a2b3c4d";
+
+    @Mock
+    private ResourceServerTokenServices delegate;
+
+    private CachingTokenServices tokenServices;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        tokenServices = new CachingTokenServices(delegate, 100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        tokenServices.bindTo(new SimpleMeterRegistry());
+    }
+
+    private static OAuth2Authentication createAuthentication(String principal) {
+        OAuth2Request request = new OAuth2Request(null, "browser", null, true, Set.of("ui"),
+                null, null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(principal, "N/A", Collections.emptyList()));
+    }
+
+    @Test
+    @DisplayName("Resolves a token through the delegate only once")
+    public void shouldServeRepeatedLookupsFromCache() {
+        // given
+        when(delegate.loadAuthentication(TOKEN)).thenReturn(createAuthentication("name1@gmail.com"));
+
+        // when
+        OAuth2Authentication first = tokenServices.loadAuthentication(TOKEN);
+        OAuth2Authentication second = tokenServices.loadAuthentication(TOKEN);
+
+        // then
+        assertEquals("name1@gmail.com", first.getPrincipal());
+        assertEquals("name1@gmail.com", second.getPrincipal());
+        assertNotSame(first, second);
+        verify(delegate, times(1)).loadAuthentication(TOKEN);
+    }
+
+    @Test
+    @DisplayName("Remembers rejected tokens")
+    public void shouldCacheRejectedTokens() {
+        // given
+        when(delegate.loadAuthentication(TOKEN)).thenThrow(new InvalidTokenException(TOKEN));
+
+        // when
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenServices.loadAuthentication(TOKEN));
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenServices.loadAuthentication(TOKEN));
+
+        // then
+        verify(delegate, times(1)).loadAuthentication(TOKEN);
+    }
+
+    @Test
+    @DisplayName("Doesn't remember tokens account-auth failed to resolve")
+    public void shouldNotCacheFailedLookups() {
+        // given
+        when(delegate.loadAuthentication(TOKEN))
+                .thenThrow(new ResourceAccessException("connection refused"))
+                .thenReturn(createAuthentication("name1@gmail.com"));
+
+        // when
+        Assertions.assertThrows(ResourceAccessException.class, () -> tokenServices.loadAuthentication(TOKEN));
+        OAuth2Authentication authentication = tokenServices.loadAuthentication(TOKEN);
+
+        // then
+        assertEquals("name1@gmail.com", authentication.getPrincipal());
+        verify(delegate, times(2)).loadAuthentication(TOKEN);
+    }
+
+    @Test
+    @DisplayName("Loads a token again once it has been evicted")
+    public void shouldReloadEvictedToken() {
+        // given
+        when(delegate.loadAuthentication(TOKEN)).thenReturn(createAuthentication("name1@gmail.com"));
+
+        // when
+        tokenServices.loadAuthentication(TOKEN);
+        tokenServices.evict(TOKEN);
+        tokenServices.loadAuthentication(TOKEN);
+
+        // then
+        verify(delegate, times(2)).loadAuthentication(TOKEN);
+    }
+}
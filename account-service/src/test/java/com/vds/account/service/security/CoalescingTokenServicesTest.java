@@ -0,0 +1,153 @@
+package com.vds.account.service.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class CoalescingTokenServicesTest {
+
+    private static final String TOKEN = "0b9a6f1c-2d4e-4f8a-9c3b-5e7d1a2b3c4d";
+
+    private static final int PARALLEL_CALLS = 20;
+
+    @Mock
+    private ResourceServerTokenServices delegate;
+
+    private SimpleMeterRegistry registry;
+
+    private CoalescingTokenServices tokenServices;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        registry = new SimpleMeterRegistry();
+        tokenServices = new CoalescingTokenServices(delegate, registry);
+        callers = Executors.newFixedThreadPool(PARALLEL_CALLS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private List<Future<OAuth2Authentication>> fireParallelLookups(CountDownLatch release) throws Exception {
+        List<Future<OAuth2Authentication>> lookups = new ArrayList<>();
+        for (int i = 0; i != PARALLEL_CALLS; i++) {
+            lookups.add(callers.submit(() -> tokenServices.loadAuthentication(TOKEN)));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.counter("token.lookups.coalesced").count() < PARALLEL_CALLS - 1
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        return lookups;
+    }
+
+    @Test
+    @DisplayName("Shares one lookup between parallel calls with the same token")
+    public void shouldCoalesceParallelLookups() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        OAuth2Authentication authentication = new OAuth2Authentication(
+                new OAuth2Request(null, "browser", null, true, Set.of("ui"), null, null, null, null),
+                new UsernamePasswordAuthenticationToken("name1@gmail.com", "N/A", Collections.emptyList()));
+        when(delegate.loadAuthentication(TOKEN)).thenAnswer(invocation -> {
+            release.await();
+            return authentication;
+        });
+
+        // when
+        List<Future<OAuth2Authentication>> lookups = fireParallelLookups(release);
+
+        // then
+        for (Future<OAuth2Authentication> lookup : lookups) {
+            assertSame(authentication, lookup.get());
+        }
+        verify(delegate, times(1)).loadAuthentication(TOKEN);
+        assertEquals(PARALLEL_CALLS - 1, registry.counter("token.lookups.coalesced").count(), 0);
+    }
+
+    @Test
+    @DisplayName("Hands the same failure to every caller of a shared lookup")
+    public void shouldShareFailureOfCoalescedLookup() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        InvalidTokenException failure = new InvalidTokenException(TOKEN);
+        when(delegate.loadAuthentication(TOKEN)).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        });
+
+        // when
+        List<Future<OAuth2Authentication>> lookups = fireParallelLookups(release);
+
+        // then
+        for (Future<OAuth2Authentication> lookup : lookups) {
+            try {
+                lookup.get();
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+                continue;
+            }
+            fail("lookup must fail");
+        }
+        verify(delegate, times(1)).loadAuthentication(TOKEN);
+    }
+
+    @Test
+    @DisplayName("Wakes up callers of a shared lookup that failed with an error")
+    public void shouldShareErrorOfCoalescedLookup() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError failure = new StackOverflowError();
+        when(delegate.loadAuthentication(TOKEN)).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        });
+
+        // when
+        List<Future<OAuth2Authentication>> lookups = fireParallelLookups(release);
+
+        // then
+        for (Future<OAuth2Authentication> lookup : lookups) {
+            try {
+                lookup.get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+                continue;
+            }
+            fail("lookup must fail");
+        }
+        verify(delegate, times(1)).loadAuthentication(TOKEN);
+    }
+}
@@ -0,0 +1,73 @@
+package com.vds.account.service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vds.account.util.factory.TokenFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InternalPrincipalVerifierTest {
+
+    private static final String SECRET = "test-secret";
+
+    private static final long NOW = 1_600_000_000_000L;
+
+    private final InternalPrincipalVerifier verifier = new InternalPrincipalVerifier(SECRET, Duration.ofSeconds(5),
+            Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC), new ObjectMapper());
+
+    @Test
+    @DisplayName("Resolves a signed principal into the authentication of the caller")
+    public void shouldVerifySignedPrincipal() throws Exception {
+        // given
+        String principal = TokenFactory.createInternalPrincipal(SECRET, "account-service", "account-service",
+                "server", NOW + 30_000);
+
+        // when
+        OAuth2Authentication authentication = verifier.verify(principal);
+
+        // then
+        assertEquals("account-service", authentication.getName());
+        assertEquals("account-service", authentication.getOAuth2Request().getClientId());
+        assertTrue(authentication.getOAuth2Request().getScope().contains("server"));
+    }
+
+    @Test
+    @DisplayName("Rejects principals signed with another key or altered")
+    public void shouldRejectForgedPrincipal() throws Exception {
+        // given
+        String foreign = TokenFactory.createInternalPrincipal("other-secret", "account-service", "account-service",
+                "server", NOW + 30_000);
+        String genuine = TokenFactory.createInternalPrincipal(SECRET, "browser", "browser", "ui", NOW + 30_000);
+        String elevated = TokenFactory.createInternalPrincipal(SECRET, "browser", "browser", "server", NOW + 30_000);
+        String altered = elevated.substring(0, elevated.indexOf('.')) + genuine.substring(genuine.indexOf('.'));
+
+        // then
+        Assertions.assertThrows(InvalidTokenException.class, () -> verifier.verify(foreign));
+        Assertions.assertThrows(InvalidTokenException.class, () -> verifier.verify(altered));
+        Assertions.assertThrows(InvalidTokenException.class, () -> verifier.verify("not a principal"));
+    }
+
+    @Test
+    @DisplayName("Rejects principals expired for longer than the allowed clock skew")
+    public void shouldRejectExpiredPrincipal() throws Exception {
+        // given
+        String withinSkew = TokenFactory.createInternalPrincipal(SECRET, "account-service", "account-service",
+                "server", NOW - 1_000);
+        String expired = TokenFactory.createInternalPrincipal(SECRET, "account-service", "account-service",
+                "server", NOW - 10_000);
+
+        // then
+        verifier.verify(withinSkew);
+        Assertions.assertThrows(InvalidTokenException.class, () -> verifier.verify(expired));
+    }
+}
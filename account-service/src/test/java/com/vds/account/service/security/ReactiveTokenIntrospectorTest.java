@@ -0,0 +1,128 @@
+package com.vds.account.service.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReactiveTokenIntrospectorTest {
+
+    private HttpServer userInfoStub;
+
+    private ExecutorService stubExecutor;
+
+    private ReactiveUserInfoClient userInfoClient;
+
+    private ReactiveTokenIntrospector introspector;
+
+    private final AtomicInteger userInfoRequests = new AtomicInteger();
+
+    /**
+     *  Starts a slow local stub of /users/current that echoes the bearer token back as principal name
+     *  and rejects the "expired" token. Lookups of the "unavailable" token fail with 503.
+     **/
+    @BeforeEach
+    public void setup() throws Exception {
+        userInfoStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        userInfoStub.createContext("/mservicet/users/current", exchange -> {
+            userInfoRequests.incrementAndGet();
+            String token = exchange.getRequestHeaders().getFirst("Authorization").substring("Bearer ".length());
+            if ("expired".equals(token)) {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            if ("unavailable".equals(token)) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"name\":\"" + token + "\",\"oauth2Request\":{\"clientId\":\"browser\",\"scope\":[\"ui\"]}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubExecutor = Executors.newFixedThreadPool(8);
+        userInfoStub.setExecutor(stubExecutor);
+        userInfoStub.start();
+
+        String userInfoUri = "http://localhost:" + userInfoStub.getAddress().getPort() + "/mservicet/users/current";
+        userInfoClient = new ReactiveUserInfoClient(16, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        introspector = new ReactiveTokenIntrospector(userInfoUri, userInfoClient, 100,
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userInfoClient.close();
+        userInfoStub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Resolves concurrent lookups of the same token with a single user info request")
+    public void shouldCoalesceConcurrentLookups() {
+        // when
+        List<OAuth2Authentication> authentications = Flux.range(0, 50)
+                .flatMap(i -> introspector.loadAuthentication("token1"))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        // then
+        assertEquals(50, authentications.size());
+        authentications.forEach(authentication -> assertEquals("token1", authentication.getName()));
+        assertEquals(1, userInfoRequests.get());
+    }
+
+    @Test
+    @DisplayName("Remembers rejected tokens")
+    public void shouldCacheRejectedTokens() {
+        // when
+        for (int i = 0; i != 3; i++) {
+            Mono<OAuth2Authentication> lookup = introspector.loadAuthentication("expired");
+            Assertions.assertThrows(InvalidTokenException.class, () -> lookup.block(Duration.ofSeconds(5)));
+        }
+
+        // then
+        assertEquals(1, userInfoRequests.get());
+    }
+
+    @Test
+    @DisplayName("Propagates user info failures without remembering the token as rejected")
+    public void shouldNotCacheFailedLookups() {
+        // when
+        for (int i = 0; i != 2; i++) {
+            Mono<OAuth2Authentication> lookup = introspector.loadAuthentication("unavailable");
+            Assertions.assertThrows(WebClientResponseException.class, () -> lookup.block(Duration.ofSeconds(5)));
+        }
+
+        // then
+        assertEquals(2, userInfoRequests.get());
+    }
+}
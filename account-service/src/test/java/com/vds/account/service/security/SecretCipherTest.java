@@ -0,0 +1,42 @@
+package com.vds.account.service.security;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class SecretCipherTest {
+
+    private final SecretCipher cipher = new SecretCipher("test-secret");
+
+    @Test
+    @DisplayName("Opens sealed secrets")
+    public void shouldOpenSealedSecret() {
+        // when
+        String first = cipher.seal("password1");
+        String second = cipher.seal("password1");
+
+        // then
+        assertNotEquals(first, second);
+        assertEquals("password1", cipher.open(first));
+        assertEquals("password1", cipher.open(second));
+    }
+
+    @Test
+    @DisplayName("Refuses secrets sealed with another key or altered")
+    public void shouldRejectForeignOrAlteredSecret() {
+        // given
+        String sealed = cipher.seal("password1");
+        byte[] altered = Base64.getDecoder().decode(sealed);
+        altered[altered.length - 1] ^= 1;
+
+        // then
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new SecretCipher("other-secret").open(sealed));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> cipher.open(Base64.getEncoder().encodeToString(altered)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.vds.account.service.security;
+
+import com.vds.account.util.factory.TokenFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.web.client.RestOperations;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class SignedTokenServicesTest {
+
+    private static final String KEY_URI = "http://account-auth/mservicet/oauth/token_key";
+
+    @Mock
+    private RestOperations restTemplate;
+
+    private JwtAccessTokenConverter signer;
+
+    private SignedTokenServices tokenServices;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        initMocks(this);
+        signer = TokenFactory.createSigner();
+        when(restTemplate.getForObject(eq(KEY_URI), eq(Map.class))).thenReturn(signer.getKey());
+        tokenServices = new SignedTokenServices(KEY_URI, Duration.ofMinutes(1), restTemplate);
+    }
+
+    @Test
+    @DisplayName("Verifies signed tokens with a once fetched public key")
+    public void shouldVerifyTokensLocally() {
+        // given
+        String first = TokenFactory.createSignedToken(signer,
+                TokenFactory.createAuthentication("name1@gmail.com", "browser", "ui"));
+        String second = TokenFactory.createSignedToken(signer,
+                TokenFactory.createAuthentication("name2@gmail.com", "browser", "ui"));
+
+        // when
+        OAuth2Authentication firstAuthentication = tokenServices.loadAuthentication(first);
+        OAuth2Authentication secondAuthentication = tokenServices.loadAuthentication(second);
+
+        // then
+        assertEquals("name1@gmail.com", firstAuthentication.getName());
+        assertEquals("name2@gmail.com", secondAuthentication.getName());
+        assertEquals("browser", firstAuthentication.getOAuth2Request().getClientId());
+        assertTrue(firstAuthentication.getOAuth2Request().getScope().contains("ui"));
+        verify(restTemplate, times(1)).getForObject(eq(KEY_URI), eq(Map.class));
+    }
+
+    @Test
+    @DisplayName("Rejects tokens signed by an unknown key")
+    public void shouldRejectForeignSignature() throws Exception {
+        // given
+        String foreign = TokenFactory.createSignedToken(TokenFactory.createSigner(),
+                TokenFactory.createAuthentication("name1@gmail.com", "browser", "ui"));
+
+        // then
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenServices.loadAuthentication(foreign));
+    }
+}
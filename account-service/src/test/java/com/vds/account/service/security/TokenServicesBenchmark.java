@@ -0,0 +1,122 @@
+package com.vds.account.service.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vds.account.util.factory.TokenFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.provider.token.ResourceServerTokenServices;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ *  Compares per request authentication latency of the remote user info mode and the local jwt verification mode.
+ *  Both modes talk to a local stub of account-auth, so the numbers show the cost of the extra network hop
+ *  without any real auth server work behind it.
+ *
+ *  Not part of the regular test run, start it explicitly with: mvn test -Dtest=TokenServicesBenchmark
+ **/
+public class TokenServicesBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+
+    private static final int MEASURED_ITERATIONS = 10_000;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private HttpServer authStub;
+
+    private ExecutorService stubExecutor;
+
+    private UserInfoClient userInfoClient;
+
+    private JwtAccessTokenConverter signer;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        signer = TokenFactory.createSigner();
+        byte[] tokenKey = mapper.writeValueAsBytes(signer.getKey());
+        byte[] userInfo = ("{\"name\":\"name1@gmail.com\",\"oauth2Request\":{\"clientId\":\"browser\",\"scope\":[\"ui\"]}}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        authStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        authStub.createContext("/mservicet/users/current", exchange -> respond(exchange, userInfo));
+        authStub.createContext("/mservicet/oauth/token_key", exchange -> respond(exchange, tokenKey));
+        stubExecutor = Executors.newFixedThreadPool(8);
+        authStub.setExecutor(stubExecutor);
+        authStub.start();
+
+        userInfoClient = new UserInfoClient(16, 16, Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        userInfoClient.close();
+        authStub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String stubUrl(String path) {
+        return "http://localhost:" + authStub.getAddress().getPort() + path;
+    }
+
+    @Test
+    @DisplayName("Measures authentication latency of remote and local token verification")
+    public void compareAuthenticationLatency() {
+        String token = TokenFactory.createSignedToken(signer,
+                TokenFactory.createAuthentication("name1@gmail.com", "browser", "ui"));
+
+        ResourceServerTokenServices remote = new CustomUserInfoTokenServices(
+                stubUrl("/mservicet/users/current"), userInfoClient);
+        ResourceServerTokenServices local = new SignedTokenServices(
+                stubUrl("/mservicet/oauth/token_key"), Duration.ofMinutes(1));
+
+        report("remote user info", measure(remote, token));
+        report("local jwt verification", measure(local, token));
+    }
+
+    private static long[] measure(ResourceServerTokenServices tokenServices, String token) {
+        for (int i = 0; i != WARMUP_ITERATIONS; i++) {
+            tokenServices.loadAuthentication(token);
+        }
+        long[] latencies = new long[MEASURED_ITERATIONS];
+        for (int i = 0; i != MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            tokenServices.loadAuthentication(token);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static void report(String mode, long[] sortedLatencies) {
+        double mean = Arrays.stream(sortedLatencies).average().orElse(0) / 1_000;
+        System.out.printf("%-24s mean %8.1f us, p50 %8.1f us, p99 %8.1f us, max %8.1f us%n", mode, mean,
+                percentile(sortedLatencies, 0.50), percentile(sortedLatencies, 0.99),
+                sortedLatencies[sortedLatencies.length - 1] / 1_000.0);
+    }
+
+    private static double percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1_000.0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.vds.account.service.security;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.web.client.RestClientException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+
+public class UserInfoClientTest {
+
+    private static final int LOOKUPS = 5000;
+
+    private static final int CALLER_THREADS = 64;
+
+    private HttpServer userInfoStub;
+
+    private ExecutorService stubExecutor;
+
+    private UserInfoClient userInfoClient;
+
+    private CustomUserInfoTokenServices tokenServices;
+
+    /**
+     *  Starts a local stub of /users/current that echoes the received bearer token back as principal name.
+     **/
+    @BeforeEach
+    public void setup() throws Exception {
+        userInfoStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        userInfoStub.createContext("/mservicet/users/current", exchange -> {
+            String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+            if (authorization == null || !authorization.startsWith("Bearer ")) {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            String token = authorization.substring("Bearer ".length());
+            byte[] body = ("{\"name\":\"" + token + "\",\"oauth2Request\":{\"clientId\":\"browser\",\"scope\":[\"ui\"]}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stubExecutor = Executors.newFixedThreadPool(32);
+        userInfoStub.setExecutor(stubExecutor);
+        userInfoStub.start();
+
+        String userInfoUri = "http://localhost:" + userInfoStub.getAddress().getPort() + "/mservicet/users/current";
+        userInfoClient = new UserInfoClient(64, 64, Duration.ofSeconds(1), Duration.ofSeconds(5));
+        tokenServices = new CustomUserInfoTokenServices(userInfoUri, userInfoClient);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        userInfoClient.close();
+        userInfoStub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Resolves each token to its own principal under concurrent lookups")
+    public void shouldNotMixTokensOfParallelLookups() throws Exception {
+        // given
+        ExecutorService callers = Executors.newFixedThreadPool(CALLER_THREADS);
+        List<Future<String>> principals = new ArrayList<>(LOOKUPS);
+
+        // when
+        try {
+            for (int i = 0; i != LOOKUPS; i++) {
+                final String token = "token-" + i;
+                Callable<String> lookup = () -> {
+                    OAuth2Authentication authentication = tokenServices.loadAuthentication(token);
+                    return (String) authentication.getPrincipal();
+                };
+                principals.add(callers.submit(lookup));
+            }
+
+            // then
+            for (int i = 0; i != LOOKUPS; i++) {
+                assertEquals("token-" + i, principals.get(i).get());
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects a token the user info endpoint doesn't accept")
+    public void shouldRejectTokenWhenUserInfoFails() {
+        // given
+        tokenServices.setTokenType("Basic");
+
+        // then
+        Assertions.assertThrows(InvalidTokenException.class, () -> tokenServices.loadAuthentication("token"));
+    }
+
+    @Test
+    @DisplayName("Propagates failures of the user info endpoint instead of rejecting the token")
+    public void shouldPropagateUserInfoFailures() {
+        // given
+        CustomUserInfoTokenServices misconfigured = new CustomUserInfoTokenServices(
+                "http://localhost:" + userInfoStub.getAddress().getPort() + "/unknown", userInfoClient);
+
+        // then
+        Assertions.assertThrows(RestClientException.class, () -> misconfigured.loadAuthentication("token"));
+        userInfoStub.stop(0);
+        Assertions.assertThrows(RestClientException.class, () -> tokenServices.loadAuthentication("token"));
+    }
+}
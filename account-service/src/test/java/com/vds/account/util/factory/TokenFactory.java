@@ -0,0 +1,63 @@
+package com.vds.account.util.factory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class TokenFactory {
+
+    public static JwtAccessTokenConverter createSigner() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        JwtAccessTokenConverter signer = new JwtAccessTokenConverter();
+        signer.setKeyPair(generator.generateKeyPair());
+        return signer;
+    }
+
+    public static OAuth2Authentication createAuthentication(String username, String clientId, String scope) {
+        OAuth2Request request = new OAuth2Request(null, clientId, null, true, Set.of(scope),
+                null, null, null, null);
+        return new OAuth2Authentication(request,
+                new UsernamePasswordAuthenticationToken(username, "N/A", Collections.emptyList()));
+    }
+
+    public static String createSignedToken(JwtAccessTokenConverter signer, OAuth2Authentication authentication) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(UUID.randomUUID().toString());
+        token.setExpiration(new Date(System.currentTimeMillis() + 3_600_000));
+        token.setScope(authentication.getOAuth2Request().getScope());
+        return signer.enhance(token, authentication).getValue();
+    }
+
+    /**
+     *  Signs claims the way account-gateway does for the internal principal header.
+     **/
+    public static String createInternalPrincipal(String secret, String name, String clientId, String scope,
+                                                 long expiresAt) throws Exception {
+        Map<String, Object> claims = Map.of(
+                "name", name,
+                "authorities", List.of(),
+                "oauth2Request", Map.of("clientId", clientId, "scope", List.of(scope)),
+                "exp", expiresAt);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encoded = encoder.encodeToString(new ObjectMapper().writeValueAsBytes(claims));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return encoded + "." + encoder.encodeToString(mac.doFinal(encoded.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.vds.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ *  Virtual thread execution mode, enabled with execution.mode=virtual.
+ *
+ *  Tomcat hands every request to a new virtual thread instead of a thread of its bounded worker pool, so the number
+ *  of requests waiting on blocking I/O is no longer capped by max-threads. Outbound Feign and REST calls, as well as
+ *  database calls, run on the request thread and therefore on virtual threads as well. Requires Java 21, startup
+ *  fails on an older JDK. Pinned virtual threads are reported by {@link PinnedThreadReporter}.
+ *
+ *  Registered as auto-configuration, so account-auth and account-service share it as a dependency.
+ **/
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	/**
+	 *  Executor starting a virtual thread per request.
+	 *  @return ExecutorService instance
+	 **/
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService virtualThreadExecutor() {
+		return VirtualThreads.newExecutor("http-virtual-");
+	}
+
+	/**
+	 *  Replaces the worker pool of Tomcat connectors with the virtual thread executor.
+	 *  @param virtualThreadExecutor - executor starting a virtual thread per request
+	 *  @return WebServerFactoryCustomizer instance
+	 **/
+	@Bean
+	public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer(
+			ExecutorService virtualThreadExecutor) {
+		return factory -> factory.addConnectorCustomizers(connector -> {
+			ProtocolHandler protocolHandler = connector.getProtocolHandler();
+			if (protocolHandler instanceof AbstractProtocol) {
+				((AbstractProtocol<?>) protocolHandler).setExecutor(virtualThreadExecutor);
+				log.info("tomcat connector {} handles requests on virtual threads", connector.getPort());
+			}
+		});
+	}
+
+	/**
+	 *  Reports pinned virtual threads.
+	 *  @param thresholdMillis - min pin duration to report
+	 *  @param intervalMillis - how often pinning sites are logged
+	 *  @param meterRegistry - registry the pin durations are published to
+	 *  @return PinnedThreadReporter instance
+	 **/
+	@Bean(destroyMethod = "close")
+	public PinnedThreadReporter pinnedThreadReporter(@Value("${execution.pinned-threshold-millis:20}") long thresholdMillis,
+													 @Value("${execution.pinned-report-interval-millis:60000}") long intervalMillis,
+													 MeterRegistry meterRegistry) {
+		return new PinnedThreadReporter(Duration.ofMillis(thresholdMillis), Duration.ofMillis(intervalMillis), meterRegistry);
+	}
+}
@@ -0,0 +1,175 @@
+package com.vds.execution;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *  Detects virtual threads pinned to their carrier thread and reports where it happens.
+ *
+ *  A virtual thread blocking inside a synchronized block, typically in JDBC drivers or HTTP clients, keeps its
+ *  carrier thread and so takes one of the few carriers out of the pool until it unblocks. Since JDK 24 monitors no
+ *  longer pin, blocking below a native frame or in a class initializer still does. The JDK reports each pin
+ *  longer than the threshold as a jdk.VirtualThreadPinned flight recorder event. Events are collected in short
+ *  recordings and grouped by the first frame outside of the JDK, which is the code holding the monitor. Every
+ *  interval the sites are logged, most frequent first, and pin durations are published as virtual-threads.pinned.
+ **/
+public class PinnedThreadReporter implements AutoCloseable {
+
+	static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+	private static final int REPORTED_SITES = 10;
+
+	private final Logger log = LoggerFactory.getLogger(getClass());
+
+	private final Duration threshold;
+
+	private final Timer pinnedTimer;
+
+	private final ScheduledExecutorService scheduler;
+
+	private Recording recording;
+
+	public PinnedThreadReporter(Duration threshold, Duration interval, MeterRegistry registry) {
+		this.threshold = threshold;
+		this.pinnedTimer = Timer.builder("virtual-threads.pinned")
+				.description("time virtual threads spent pinned to a carrier thread")
+				.register(registry);
+		this.recording = startRecording();
+		this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "pinned-thread-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(this::report, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 *  Logs pinning sites recorded since the previous report.
+	 **/
+	public void report() {
+		try {
+			List<PinnedSite> sites = collect();
+			sites.stream().limit(REPORTED_SITES).forEach(site ->
+					log.warn("virtual threads pinned {} times for {} ms in total at {}",
+							site.getCount(), site.getTotal().toMillis(), site.getFrame()));
+		} catch (IOException | RuntimeException e) {
+			log.warn("pinned virtual threads can't be reported", e);
+		}
+	}
+
+	/**
+	 *  Closes the current recording, starts a new one and groups pin events of the closed one by site.
+	 *  @return pinning sites ordered by number of pins, most frequent first
+	 **/
+	public synchronized List<PinnedSite> collect() throws IOException {
+		Recording finished = recording;
+		finished.stop();
+		recording = startRecording();
+
+		Path file = Files.createTempFile("pinned-threads", ".jfr");
+		Map<String, PinnedSite> sites = new HashMap<>();
+		try {
+			finished.dump(file);
+			for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+				if (!PINNED_EVENT.equals(event.getEventType().getName())) {
+					continue;
+				}
+				pinnedTimer.record(event.getDuration());
+				sites.computeIfAbsent(siteOf(event), PinnedSite::new).add(event.getDuration());
+			}
+		} finally {
+			finished.close();
+			Files.deleteIfExists(file);
+		}
+		List<PinnedSite> ordered = new ArrayList<>(sites.values());
+		ordered.sort(Comparator.comparingLong(PinnedSite::getCount).reversed());
+		return ordered;
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+		recording.close();
+	}
+
+	private Recording startRecording() {
+		Recording started = new Recording();
+		started.setName("pinned-threads");
+		started.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+		started.start();
+		return started;
+	}
+
+	/**
+	 *  Returns the first frame outside of the JDK, or the top frame if the whole stack is JDK code.
+	 **/
+	private static String siteOf(RecordedEvent event) {
+		RecordedStackTrace stackTrace = event.getStackTrace();
+		if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+			return "unknown";
+		}
+		List<RecordedFrame> frames = stackTrace.getFrames();
+		RecordedFrame site = frames.stream()
+				.filter(frame -> !isJdkType(frame.getMethod().getType().getName()))
+				.findFirst()
+				.orElse(frames.get(0));
+		return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+	}
+
+	private static boolean isJdkType(String typeName) {
+		return typeName.startsWith("java.") || typeName.startsWith("jdk.") || typeName.startsWith("sun.");
+	}
+
+	/**
+	 *  Code location where virtual threads got pinned, with the number and total duration of the pins.
+	 **/
+	public static class PinnedSite {
+
+		private final String frame;
+
+		private long count;
+
+		private Duration total = Duration.ZERO;
+
+		PinnedSite(String frame) {
+			this.frame = frame;
+		}
+
+		void add(Duration duration) {
+			count++;
+			total = total.plus(duration);
+		}
+
+		public String getFrame() {
+			return frame;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public Duration getTotal() {
+			return total;
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.vds.execution;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ *  Creates virtual thread executors on a JDK that provides them.
+ *
+ *  The services are built for Java 11, so the Java 21 API is reached through reflection and virtual threads are
+ *  only available when the services run on Java 21 or newer.
+ **/
+public final class VirtualThreads {
+
+	private static final int MIN_JAVA_VERSION = 21;
+
+	private VirtualThreads() {
+	}
+
+	public static boolean isSupported() {
+		return Runtime.version().feature() >= MIN_JAVA_VERSION;
+	}
+
+	/**
+	 *  Returns an executor which starts a new named virtual thread per task.
+	 *  @param namePrefix - prefix of thread names, followed by a counter
+	 *  @return ExecutorService instance
+	 *  @throws IllegalStateException if the running JDK doesn't provide virtual threads
+	 **/
+	public static ExecutorService newExecutor(String namePrefix) {
+		if (!isSupported()) {
+			throw new IllegalStateException("virtual threads require Java " + MIN_JAVA_VERSION
+					+ " or newer, running on " + Runtime.version());
+		}
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			builder = Class.forName("java.lang.Thread$Builder$OfVirtual")
+					.getMethod("name", String.class, long.class)
+					.invoke(builder, namePrefix, 0L);
+			ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+					.getMethod("factory")
+					.invoke(builder);
+			return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+					.invoke(null, factory);
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("virtual thread executor can't be created", e);
+		}
+	}
+}
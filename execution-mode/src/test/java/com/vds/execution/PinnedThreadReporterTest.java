@@ -0,0 +1,94 @@
+package com.vds.execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class PinnedThreadReporterTest {
+
+    private SimpleMeterRegistry registry;
+
+    private PinnedThreadReporter reporter;
+
+    @BeforeEach
+    public void setup() {
+        assumeTrue(VirtualThreads.isSupported(), "virtual threads aren't available on this JDK");
+        registry = new SimpleMeterRegistry();
+        reporter = new PinnedThreadReporter(Duration.ofMillis(10), Duration.ofHours(1), registry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (reporter != null) {
+            reporter.close();
+        }
+    }
+
+    /**
+     *  Blocks the calling thread while a class is initialized. Class initializers run below a VM frame, which pins
+     *  a virtual thread on every JDK, while blocking in a synchronized block doesn't pin since JDK 24 (JEP 491).
+     **/
+    static void sleepInitializing() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class FirstDriver {
+
+        static {
+            sleepInitializing();
+        }
+
+        static void load() {
+        }
+    }
+
+    private static class SecondDriver {
+
+        static {
+            sleepInitializing();
+        }
+
+        static void load() {
+        }
+    }
+
+    @Test
+    @DisplayName("Reports the code where pinned virtual threads block")
+    public void shouldReportPinningSite() throws Exception {
+        // given
+        ExecutorService executor = VirtualThreads.newExecutor("pinned-test-");
+        try {
+            Future<?> first = executor.submit(FirstDriver::load);
+            Future<?> second = executor.submit(SecondDriver::load);
+            first.get();
+            second.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // when
+        List<PinnedThreadReporter.PinnedSite> sites = reporter.collect();
+
+        // then
+        assertEquals(1, sites.size());
+        assertEquals(2, sites.get(0).getCount());
+        assertTrue(sites.get(0).getFrame().startsWith(getClass().getName() + ".sleepInitializing"));
+        assertEquals(2, registry.get("virtual-threads.pinned").timer().count());
+        assertTrue(reporter.collect().isEmpty());
+    }
+}